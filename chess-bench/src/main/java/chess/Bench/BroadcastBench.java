@@ -0,0 +1,92 @@
+package chess.Bench;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.PositionCodec;
+import chess.Moves.PackedMove;
+import chess.Server.Broadcast;
+import chess.Server.BroadcastServer;
+
+// Reports the time from publishing a move until every spectator of the game has received it
+// Usage: BroadcastBench [spectators] [server threads] [moves]
+// Thousands of spectators need as many open files, see ulimit -n
+public class BroadcastBench {
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int moves = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        // Only the fan-out is measured, so the same move is published again and again
+        ChessBoard board = new ChessBoard("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        short move = PackedMove.pack(12, 28, 0);
+        Broadcast broadcast = new Broadcast(board, 0, 1024);
+        ByteBuffer position = ByteBuffer.allocate(64);
+        PositionCodec.writeCompact(board, position);
+        long firstFrame = 6 + position.position();
+
+        try (BroadcastServer server = new BroadcastServer(id -> CompletableFuture.completedFuture(broadcast), threads);
+                Selector selector = Selector.open()) {
+            int port = server.listen(0);
+            SocketChannel[] channels = new SocketChannel[count];
+            long[] received = new long[count];
+            for (int i = 0; i < count; i++) {
+                channels[i] = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                channels[i].write(ByteBuffer.allocate(8).putLong(0, 1));
+                channels[i].configureBlocking(false);
+                channels[i].register(selector, SelectionKey.OP_READ, i);
+            }
+            ByteBuffer in = ByteBuffer.allocateDirect(1 << 16);
+            awaitAll(selector, in, received, firstFrame);
+
+            long[] latencies = new long[moves];
+            for (int ply = 1; ply <= moves; ply++) {
+                long start = System.nanoTime();
+                broadcast.publish(board, move);
+                awaitAll(selector, in, received, firstFrame + 7L * ply);
+                latencies[ply - 1] = System.nanoTime() - start;
+            }
+
+            Arrays.sort(latencies);
+            System.out.printf("%,d spectators, %d threads: median %.0f us, p99 %.0f us, max %.0f us%n", count, threads,
+                    latencies[moves / 2] / 1e3, latencies[moves * 99 / 100] / 1e3, latencies[moves - 1] / 1e3);
+            for (SocketChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
+    // Reads until every channel has received the number of bytes
+    private static void awaitAll(Selector selector, ByteBuffer in, long[] received, long bytes) throws Exception {
+        int behind = 0;
+        for (long count : received) {
+            if (count < bytes) {
+                behind++;
+            }
+        }
+        while (behind > 0) {
+            selector.select();
+            for (SelectionKey key : selector.selectedKeys()) {
+                int index = (Integer) key.attachment();
+                in.clear();
+                int read = ((SocketChannel) key.channel()).read(in);
+                if (read < 0) {
+                    throw new IllegalStateException("Spectator " + index + " was closed");
+                }
+                boolean was = received[index] < bytes;
+                received[index] += read;
+                if (was && received[index] >= bytes) {
+                    behind--;
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+}
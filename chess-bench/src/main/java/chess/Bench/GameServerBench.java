@@ -0,0 +1,65 @@
+package chess.Bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import chess.Notation.PgnGame;
+import chess.Search.SearchLimits;
+import chess.Server.GameServer;
+
+// Reports the memory of a game on the GameServer, resident and evicted, and the move latency
+// Usage: GameServerBench [games]
+public class GameServerBench {
+    private static final String[] opening = {
+            "e2e4", "c7c5", "g1f3", "d7d6", "d2d4", "c5d4", "f3d4", "g8f6", "b1c3", "a7a6",
+    };
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long idleMillis = 2000;
+
+        try (GameServer server = new GameServer(threads, 1, new SearchLimits(), 60_000, idleMillis)) {
+            long before = usedMemory();
+            List<Long> games = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                games.add(server.newGame(PgnGame.STARTING_FEN, null));
+            }
+
+            long start = System.nanoTime();
+            for (String move : opening) {
+                List<CompletableFuture<Short>> replies = new ArrayList<>(count);
+                for (long game : games) {
+                    replies.add(server.move(game, move));
+                }
+                for (CompletableFuture<Short> reply : replies) {
+                    reply.get();
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long resident = usedMemory();
+
+            System.out.printf("%,d games, %,d moves in %.2f s: %,.0f moves/s%n", count, server.movesPlayed(),
+                    seconds, server.movesPlayed() / seconds);
+            // Every move of a round is submitted at once, so this includes waiting in the pool
+            System.out.printf("move latency: avg %d us, max %d us%n", server.averageMoveMicros(),
+                    server.maxMoveMicros());
+            System.out.printf("resident: %,d bytes per game%n", (resident - before) / count);
+
+            while (server.residentGames() > 0) {
+                Thread.sleep(idleMillis / 4);
+            }
+            System.out.printf("evicted:  %,d bytes per game%n", (usedMemory() - before) / count);
+        }
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
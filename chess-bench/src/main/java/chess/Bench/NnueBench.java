@@ -0,0 +1,95 @@
+package chess.Bench;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import chess.Eval.NnueEvaluator;
+import chess.Eval.NnueNetwork;
+import chess.Logic.ChessBoard;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+
+// Reports NNUE evaluations per second
+// Usage: java --add-modules jdk.incubator.vector ... NnueBench [network file] [seconds]
+// Without a file a random network of the default size is used, without the module only
+// the plain loops are measured
+public class NnueBench {
+    private static final String[] positions = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r1bqkb1r/ppp2ppp/2n2n2/3pp3/2B1P3/3P4/PPPN1PPP/R1BQK1NR w KQkq - 0 5",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+    };
+
+    public static void main(String[] args) throws IOException {
+        NnueNetwork network = args.length > 0 ? NnueNetwork.load(Paths.get(args[0]))
+                : NnueNetwork.random(256, 32, 1);
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 5;
+
+        if (NnueEvaluator.VECTORS_AVAILABLE) {
+            run(network, true, seconds);
+        }
+        run(network, false, seconds);
+    }
+
+    private static void run(NnueNetwork network, boolean useVectors, double seconds) {
+        ChessBoard board = new ChessBoard(positions[0]);
+        MoveGeneration generator = new MoveGeneration(board);
+        NnueEvaluator evaluator = new NnueEvaluator(network, board, useVectors);
+        System.out.println(useVectors ? "Vector API:" : "Plain loops:");
+
+        // Warm up, so the JIT compiles the loops first
+        evaluateLoop(board, evaluator, 1);
+
+        // Evaluation of a fixed position: dense layers only
+        long evaluations = evaluateLoop(board, evaluator, seconds);
+        System.out.printf("evaluate():          %,.0f evals/s%n", evaluations / seconds);
+
+        // Make, evaluate, undo: dense layers plus incremental accumulator updates
+        long made = makeEvaluateLoop(board, generator, evaluator, seconds);
+        System.out.printf("make+evaluate+undo:  %,.0f evals/s%n", made / seconds);
+        evaluator.detach();
+    }
+
+    private static long evaluateLoop(ChessBoard board, NnueEvaluator evaluator, double seconds) {
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        long count = 0;
+        int checksum = 0;
+        while (System.nanoTime() < deadline) {
+            board.setPosition(positions[(int) (count / 100_000 % positions.length)]);
+            for (int i = 0; i < 100_000; i++) {
+                checksum += evaluator.evaluate();
+            }
+            count += 100_000;
+        }
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return count;
+    }
+
+    private static long makeEvaluateLoop(ChessBoard board, MoveGeneration generator,
+            NnueEvaluator evaluator, double seconds) {
+        Random random = new Random(1);
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        long count = 0;
+        int checksum = 0;
+        while (System.nanoTime() < deadline) {
+            board.setPosition(positions[random.nextInt(positions.length)]);
+            List<Move> moves = generator.getAllMoves().collect(Collectors.toList());
+            for (Move move : moves) {
+                generator.makeAMove(move);
+                checksum += evaluator.evaluate();
+                generator.undoMove();
+                count++;
+            }
+        }
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,141 @@
+package chess.Bench;
+
+import java.nio.ByteBuffer;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.PositionCodec;
+import chess.Notation.FenCodec;
+
+// Compares the binary position encodings with FEN: size, encodes and decodes per second
+// Usage: PositionCodecBench [seconds]
+public class PositionCodecBench {
+    private static final String[] positions = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r1bqkb1r/ppp2ppp/2n2n2/3pp3/2B1P3/3P4/PPPN1PPP/R1BQK1NR w KQkq - 0 5",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "8/8/4k3/8/2p5/8/B2K4/8 b - - 12 61",
+    };
+
+    private enum Format {
+        FEN, FIXED, COMPACT
+    }
+
+    public static void main(String[] args) {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 3;
+
+        ChessBoard board = new ChessBoard();
+        FenCodec fenCodec = new FenCodec();
+        // Every position a few thousand times, so the buffers are larger than the caches
+        int copies = 4096;
+        ByteBuffer[] buffers = new ByteBuffer[Format.values().length];
+        int[] sizes = new int[Format.values().length];
+        for (Format format : Format.values()) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(positions.length * copies * 96);
+            for (int i = 0; i < copies; i++) {
+                for (String fen : positions) {
+                    board.setPosition(fen);
+                    encode(format, board, buffer, fenCodec);
+                }
+            }
+            sizes[format.ordinal()] = buffer.position();
+            buffer.flip();
+            buffers[format.ordinal()] = buffer;
+        }
+        int count = positions.length * copies;
+
+        // Warm up, so the JIT compiles the loops first
+        for (Format format : Format.values()) {
+            decodeLoop(format, buffers[format.ordinal()], count, board, fenCodec, 1);
+            encodeLoop(format, buffers[format.ordinal()], count, fenCodec, 1);
+        }
+
+        for (Format format : Format.values()) {
+            ByteBuffer buffer = buffers[format.ordinal()];
+            double decodes = decodeLoop(format, buffer, count, board, fenCodec, seconds) / seconds;
+            double encodes = encodeLoop(format, buffer, count, fenCodec, seconds) / seconds;
+            System.out.printf("%-8s %5.1f bytes  decode %,12.0f/s  encode %,12.0f/s%n", format,
+                    (double) sizes[format.ordinal()] / count, decodes, encodes);
+        }
+    }
+
+    private static void encode(Format format, ChessBoard board, ByteBuffer out, FenCodec fenCodec) {
+        switch (format) {
+            case FEN:
+                fenCodec.write(board, out);
+                out.put((byte) '\n');
+                break;
+            case FIXED:
+                PositionCodec.write(board, out);
+                break;
+            default:
+                PositionCodec.writeCompact(board, out);
+                break;
+        }
+    }
+
+    private static void decode(Format format, ByteBuffer in, ChessBoard board, FenCodec fenCodec) {
+        switch (format) {
+            case FEN:
+                int start = in.position();
+                int end = start;
+                while (in.get(end) != '\n') {
+                    end++;
+                }
+                fenCodec.read(in, start, end, board);
+                in.position(end + 1);
+                break;
+            case FIXED:
+                PositionCodec.read(in, board);
+                break;
+            default:
+                PositionCodec.readCompact(in, board);
+                break;
+        }
+    }
+
+    // Decodes the whole buffer again and again
+    private static long decodeLoop(Format format, ByteBuffer buffer, int count, ChessBoard board,
+            FenCodec fenCodec, double seconds) {
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        long decoded = 0;
+        long checksum = 0;
+        ByteBuffer in = buffer.duplicate();
+        while (System.nanoTime() < deadline) {
+            in.rewind();
+            for (int i = 0; i < count; i++) {
+                decode(format, in, board, fenCodec);
+                checksum += board.positionKey();
+            }
+            decoded += count;
+        }
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return decoded;
+    }
+
+    // Encodes the positions from boards set up in advance, so only the encoding is measured
+    private static long encodeLoop(Format format, ByteBuffer buffer, int count, FenCodec fenCodec,
+            double seconds) {
+        ChessBoard[] boards = new ChessBoard[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            boards[i] = new ChessBoard(positions[i]);
+        }
+        ByteBuffer out = ByteBuffer.allocateDirect(buffer.capacity());
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        long encoded = 0;
+        while (System.nanoTime() < deadline) {
+            out.clear();
+            for (int i = 0; i < count; i++) {
+                encode(format, boards[i % boards.length], out, fenCodec);
+            }
+            encoded += count;
+        }
+        if (out.position() == 42) {
+            System.out.println();
+        }
+        return encoded;
+    }
+}
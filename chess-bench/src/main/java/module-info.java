@@ -0,0 +1,5 @@
+module chess.bench {
+    requires chess.core;
+
+    exports chess.Bench;
+}
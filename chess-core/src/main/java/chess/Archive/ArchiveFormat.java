@@ -0,0 +1,63 @@
+package chess.Archive;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+// Layout of a game archive, shared by the writer and the reader
+//
+// <name>      "CGA1", then game records back to back
+// <name>.idx  one big-endian long per game, the offset of its record
+//
+// Record: varint tag count, per tag a name (one byte id of a common name, or 0 and
+// the name as a string) and the value as a string, one byte result, varint move count
+// and one byte per move: its index in PackedMove.legalMoves of the position.
+// Strings are a varint length and UTF-8 bytes, varints are unsigned LEB128.
+class ArchiveFormat {
+    private ArchiveFormat() {
+    }
+
+    static final int MAGIC = 0x43474131; // "CGA1"
+    static final int HEADER_SIZE = 4;
+
+    // Index 0 means a name written out in full
+    static final String[] TAG_NAMES = {
+            null, "Event", "Site", "Date", "Round", "White", "Black", "Result",
+            "WhiteElo", "BlackElo", "ECO", "Opening", "Variation", "TimeControl", "Termination",
+            "SetUp", "FEN", "PlyCount", "EventDate", "WhiteTitle", "BlackTitle", "Annotator", "UTCDate", "UTCTime",
+    };
+
+    static final String[] RESULTS = { "*", "1-0", "0-1", "1/2-1/2" };
+
+    static Path indexFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+    static int tagId(String name) {
+        for (int i = 1; i < TAG_NAMES.length; i++) {
+            if (TAG_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    static int resultId(String result) {
+        for (int i = 0; i < RESULTS.length; i++) {
+            if (RESULTS[i].equals(result)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
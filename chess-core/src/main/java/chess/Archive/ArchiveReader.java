@@ -0,0 +1,94 @@
+package chess.Archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Reads games from an archive written by ArchiveWriter, any game in constant time
+// Both files are memory-mapped. The data file is mapped in overlapping segments,
+// so archives larger than 2 GB work and a record never has to be stitched together.
+// Safe to use from several threads.
+public class ArchiveReader implements Closeable {
+    static final long SEGMENT_SIZE = 1L << 30;
+    // No record is longer than this
+    static final long SEGMENT_OVERLAP = 1L << 24;
+
+    private final FileChannel data;
+    private final MappedByteBuffer[] segments;
+    private final MappedByteBuffer index;
+    private final long games;
+
+    public ArchiveReader(Path file) throws IOException {
+        data = FileChannel.open(file, StandardOpenOption.READ);
+        try (FileChannel indexChannel = FileChannel.open(ArchiveFormat.indexFile(file), StandardOpenOption.READ)) {
+            long size = data.size();
+            if (size < ArchiveFormat.HEADER_SIZE) {
+                throw new IOException("Not a game archive: " + file);
+            }
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * SEGMENT_SIZE;
+                segments[i] = data.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(SEGMENT_SIZE + SEGMENT_OVERLAP, size - start));
+            }
+            if (segments[0].getInt(0) != ArchiveFormat.MAGIC) {
+                throw new IOException("Not a game archive: " + file);
+            }
+
+            // Index entries of games that were still buffered when the writer died may be missing,
+            // entries past the end of the data can't exist, the data is written first
+            if (indexChannel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Game archive index is too large: " + file);
+            }
+            index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size() / 8 * 8);
+            games = index.capacity() / 8;
+        } catch (IOException e) {
+            data.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return games;
+    }
+
+    public ArchivedGame game(long number) {
+        if (number < 0 || number >= games) {
+            throw new IndexOutOfBoundsException("Game " + number + " of " + games);
+        }
+        long offset = index.getLong((int) (number * 8));
+        // A view of its own, so threads don't share a position
+        ByteBuffer in = segments[(int) (offset / SEGMENT_SIZE)].duplicate();
+        in.position((int) (offset % SEGMENT_SIZE));
+
+        int tagCount = ArchiveFormat.readVarint(in);
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (int i = 0; i < tagCount; i++) {
+            int id = in.get() & 0xFF;
+            String name = id == 0 ? readString(in) : ArchiveFormat.TAG_NAMES[id];
+            tags.put(name, readString(in));
+        }
+        String result = ArchiveFormat.RESULTS[in.get() & 3];
+        byte[] moves = new byte[ArchiveFormat.readVarint(in)];
+        in.get(moves);
+        return new ArchivedGame(tags, result, moves);
+    }
+
+    @Override
+    public void close() throws IOException {
+        data.close();
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[ArchiveFormat.readVarint(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,204 @@
+package chess.Archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.MoveGeneration;
+import chess.Moves.PackedMove;
+import chess.Notation.MappedPgnReader;
+import chess.Notation.PgnGame;
+
+// Appends games to an archive, see ArchiveFormat for the layout
+// Records are collected in a buffer and written in large batches. The data is always
+// written before the index entries pointing into it, so after a crash the index
+// only lists complete games. An existing archive is appended to.
+public class ArchiveWriter implements Closeable {
+    static final int BATCH_SIZE = 1 << 20;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final ByteBuffer dataBatch = ByteBuffer.allocate(BATCH_SIZE);
+    private final ByteBuffer indexBatch = ByteBuffer.allocate(BATCH_SIZE / 16);
+    // Encoded record of the game being added
+    private byte[] record = new byte[1024];
+    private int recordLength;
+
+    private long offset;
+    private long games;
+
+    // Used to find the move indices
+    private final ChessBoard board = new ChessBoard();
+    private final MoveGeneration generator = new MoveGeneration(board);
+    private final short[] legal = new short[PackedMove.MAX_MOVES];
+
+    public ArchiveWriter(Path file) throws IOException {
+        data = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            index = FileChannel.open(ArchiveFormat.indexFile(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            data.close();
+            throw e;
+        }
+
+        if (data.size() == 0) {
+            dataBatch.putInt(ArchiveFormat.MAGIC);
+        } else {
+            ByteBuffer magic = ByteBuffer.allocate(ArchiveFormat.HEADER_SIZE);
+            data.read(magic, 0);
+            if (magic.getInt(0) != ArchiveFormat.MAGIC) {
+                close();
+                throw new IOException("Not a game archive: " + file);
+            }
+        }
+        offset = data.size() + dataBatch.position();
+        data.position(data.size());
+        // A torn index entry is dropped
+        games = index.size() / 8;
+        index.truncate(games * 8);
+        index.position(games * 8);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Usage: ArchiveWriter <games.pgn> <archive>");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try (MappedPgnReader reader = new MappedPgnReader(Paths.get(args[0]));
+                ArchiveWriter writer = new ArchiveWriter(Paths.get(args[1]))) {
+            // Games with a broken FEN or an illegal move are left out, the rest is still imported
+            LongAdder skipped = new LongAdder();
+            long games = reader.forEach(game -> {
+                if (!game.isComplete()) {
+                    skipped.increment();
+                    return;
+                }
+                synchronized (writer) {
+                    try {
+                        writer.append(game.tags(), game.result(), game.moves(), game.moveCount());
+                    } catch (IllegalArgumentException e) {
+                        skipped.increment();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+            System.out.printf("%d games, %d skipped in %.1f s%n", games, skipped.sum(),
+                    (System.currentTimeMillis() - start) / 1000.0);
+        }
+    }
+
+    // Number of games in the archive
+    public long size() {
+        return games;
+    }
+
+    // Appends the game and returns its number
+    // moves are PackedMove values played from the FEN tag, or the standard position
+    // Throws IllegalArgumentException if a move is not legal, nothing is written then
+    public long append(Map<String, String> tags, String result, short[] moves, int moveCount) throws IOException {
+        recordLength = 0;
+        writeVarint(tags.size());
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            int id = ArchiveFormat.tagId(tag.getKey());
+            writeByte(id);
+            if (id == 0) {
+                writeString(tag.getKey());
+            }
+            writeString(tag.getValue());
+        }
+        writeByte(ArchiveFormat.resultId(result));
+        writeVarint(moveCount);
+        writeMoves(tags.get("FEN"), moves, moveCount);
+
+        if (dataBatch.remaining() < recordLength) {
+            flush();
+        }
+        if (recordLength > dataBatch.capacity()) {
+            data.write(ByteBuffer.wrap(record, 0, recordLength));
+        } else {
+            dataBatch.put(record, 0, recordLength);
+        }
+        if (!indexBatch.hasRemaining()) {
+            flush();
+        }
+        indexBatch.putLong(offset);
+        offset += recordLength;
+        return games++;
+    }
+
+    // Writes the buffered games, data first
+    public void flush() throws IOException {
+        dataBatch.flip();
+        while (dataBatch.hasRemaining()) {
+            data.write(dataBatch);
+        }
+        dataBatch.clear();
+        indexBatch.flip();
+        while (indexBatch.hasRemaining()) {
+            index.write(indexBatch);
+        }
+        indexBatch.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            data.close();
+            index.close();
+        }
+    }
+
+    private void writeMoves(String fen, short[] moves, int moveCount) {
+        board.setPosition(fen != null ? fen : PgnGame.STARTING_FEN);
+        for (int ply = 0; ply < moveCount; ply++) {
+            int count = PackedMove.legalMoves(generator, legal);
+            int found = Arrays.binarySearch(legal, 0, count, moves[ply]);
+            if (found < 0) {
+                throw new IllegalArgumentException("Illegal move " + PackedMove.toString(moves[ply]) + " at ply " + ply);
+            }
+            writeByte(found);
+            generator.makeAMove(PackedMove.unpack(generator, moves[ply]));
+        }
+    }
+
+    private void writeString(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        ensureRoom(bytes.length);
+        System.arraycopy(bytes, 0, record, recordLength, bytes.length);
+        recordLength += bytes.length;
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+
+    private void writeByte(int value) {
+        ensureRoom(1);
+        record[recordLength++] = (byte) value;
+    }
+
+    private void ensureRoom(int bytes) {
+        if (recordLength + bytes > record.length) {
+            record = Arrays.copyOf(record, Math.max(record.length * 2, recordLength + bytes));
+        }
+    }
+}
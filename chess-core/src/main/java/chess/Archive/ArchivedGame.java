@@ -0,0 +1,65 @@
+package chess.Archive;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Moves.PackedMove;
+import chess.Notation.PgnGame;
+
+// A game read from an archive, the moves stay in their stored form until they are replayed
+public class ArchivedGame {
+    public final Map<String, String> tags;
+    // "1-0", "0-1", "1/2-1/2" or "*"
+    public final String result;
+    // Index of every move in the legal move list of its position
+    private final byte[] moveIndices;
+
+    ArchivedGame(Map<String, String> tags, String result, byte[] moveIndices) {
+        this.tags = Collections.unmodifiableMap(tags);
+        this.result = result;
+        this.moveIndices = moveIndices;
+    }
+
+    public String tag(String name) {
+        return tags.get(name);
+    }
+
+    public String startingFEN() {
+        String fen = tags.get("FEN");
+        return fen != null ? fen : PgnGame.STARTING_FEN;
+    }
+
+    public int moveCount() {
+        return moveIndices.length;
+    }
+
+    // Plays the game on the generator from its starting position and returns the moves
+    // The generator is left at the final position
+    public short[] replay(MoveGeneration generator) {
+        return replay(generator, ply -> { });
+    }
+
+    // Same, and calls visitor with the ply of every position, the start position is ply 0
+    // The position is on the generator's board while the visitor runs
+    public short[] replay(MoveGeneration generator, IntConsumer visitor) {
+        generator.chessBoard.setPosition(startingFEN());
+        visitor.accept(0);
+        short[] legal = new short[PackedMove.MAX_MOVES];
+        short[] moves = new short[moveIndices.length];
+        for (int ply = 0; ply < moves.length; ply++) {
+            int count = PackedMove.legalMoves(generator, legal);
+            int index = moveIndices[ply] & 0xFF;
+            if (index >= count) {
+                throw new IllegalStateException("Broken archive, move " + index + " of " + count + " at ply " + ply);
+            }
+            moves[ply] = legal[index];
+            Move move = PackedMove.unpack(generator, legal[index]);
+            generator.makeAMove(move);
+            visitor.accept(ply + 1);
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,128 @@
+package chess.Archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import chess.Logic.ChessBoard;
+
+// Finds every game and ply where a position occurred, built by PositionIndexBuilder
+// The file is memory-mapped and nothing of it is copied to the heap:
+//
+// header     "CPI1", 0, entry count (long)
+// fanout     BUCKETS + 1 longs, index of the first entry of every key prefix
+// entries    (key, posting) long pairs sorted by unsigned key
+//
+// A lookup reads two fanout slots and binary searches one bucket, which
+// holds a few thousand entries even in an index of hundreds of millions.
+public class PositionIndex implements Closeable {
+    static final int MAGIC = 0x43504931; // "CPI1"
+    static final int HEADER_SIZE = 16;
+    // The top PREFIX_BITS bits of the key select the bucket
+    static final int PREFIX_BITS = 16;
+    static final int BUCKETS = 1 << PREFIX_BITS;
+    static final int ENTRY_SIZE = 16;
+    static final long ENTRIES_OFFSET = HEADER_SIZE + (BUCKETS + 1) * 8L;
+    // Entries per mapped segment, no entry straddles two of them
+    static final int SEGMENT_SHIFT = 26;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer fanout;
+    private final MappedByteBuffer[] segments;
+    private final long entries;
+
+    public PositionIndex(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() < ENTRIES_OFFSET) {
+                throw new IOException("Not a position index: " + file);
+            }
+            fanout = channel.map(FileChannel.MapMode.READ_ONLY, 0, ENTRIES_OFFSET);
+            if (fanout.getInt(0) != MAGIC) {
+                throw new IOException("Not a position index: " + file);
+            }
+            entries = fanout.getLong(8);
+
+            long segmentEntries = 1L << SEGMENT_SHIFT;
+            segments = new MappedByteBuffer[(int) ((entries + segmentEntries - 1) >> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = i * segmentEntries;
+                long count = Math.min(segmentEntries, entries - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        ENTRIES_OFFSET + first * ENTRY_SIZE, count * ENTRY_SIZE);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static long posting(long game, int ply) {
+        return game << 16 | ply;
+    }
+
+    public static long game(long posting) {
+        return posting >>> 16;
+    }
+
+    public static int ply(long posting) {
+        return (int) (posting & 0xFFFF);
+    }
+
+    // Number of (position, game, ply) entries
+    public long size() {
+        return entries;
+    }
+
+    // Postings of every occurrence of the position, ordered by game and ply
+    public long[] find(String fen) {
+        return find(new ChessBoard(fen).positionKey());
+    }
+
+    public long[] find(long key) {
+        int bucket = (int) (key >>> (64 - PREFIX_BITS));
+        long lo = fanout.getLong(HEADER_SIZE + bucket * 8);
+        long hi = fanout.getLong(HEADER_SIZE + (bucket + 1) * 8);
+
+        // First entry with the key
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        long[] found = new long[4];
+        int count = 0;
+        for (long i = lo; i < entries && keyAt(i) == key; i++) {
+            if (count == found.length) {
+                found = Arrays.copyOf(found, count * 2);
+            }
+            found[count++] = postingAt(i);
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long keyAt(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getLong(offset(entry));
+    }
+
+    private long postingAt(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getLong(offset(entry) + 8);
+    }
+
+    private static int offset(long entry) {
+        return (int) (entry & ((1 << SEGMENT_SHIFT) - 1)) * ENTRY_SIZE;
+    }
+}
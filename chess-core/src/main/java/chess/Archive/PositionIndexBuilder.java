@@ -0,0 +1,189 @@
+package chess.Archive;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import chess.RunMerger;
+import chess.Logic.ChessBoard;
+import chess.Logic.MoveGeneration;
+
+// Builds a PositionIndex of every position in a game archive
+// Worker threads replay the games and collect (key, posting) pairs in fixed size
+// buffers, which are spilled as sorted runs and merged into the index at the end, a bounded
+// number at a time, so memory use depends only on the settings and not on the size of the archive
+public class PositionIndexBuilder {
+    private static final int GAMES_PER_BATCH = 256;
+
+    // Number of threads replaying games
+    private final int threads;
+    // Pairs per worker buffer before it is spilled to disk
+    private final int runCapacity;
+    private final Path tempDir;
+    // Runs merged at once, more runs are merged in several passes
+    private final int mergeFanIn;
+
+    private final AtomicLong gamesSkipped = new AtomicLong();
+
+    public PositionIndexBuilder(int threads, int runCapacity, Path tempDir, int mergeFanIn) {
+        this.threads = threads;
+        this.runCapacity = runCapacity;
+        this.tempDir = tempDir;
+        this.mergeFanIn = mergeFanIn;
+    }
+
+    public PositionIndexBuilder(int threads, int runCapacity, Path tempDir) {
+        this(threads, runCapacity, tempDir, RunMerger.DEFAULT_FAN_IN);
+    }
+
+    public PositionIndexBuilder() {
+        this(Runtime.getRuntime().availableProcessors(), 1 << 20, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Usage: PositionIndexBuilder <archive> <index>");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        PositionIndexBuilder builder = new PositionIndexBuilder();
+        long entries = builder.build(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.printf("%d positions, %d games skipped in %.1f s%n", entries, builder.gamesSkipped(),
+                (System.currentTimeMillis() - start) / 1000.0);
+    }
+
+    // Number of games left out of the last build because they could not be replayed
+    public long gamesSkipped() {
+        return gamesSkipped.get();
+    }
+
+    // Returns the number of entries in the index
+    public long build(Path archiveFile, Path indexFile) throws IOException, InterruptedException {
+        gamesSkipped.set(0);
+        Path runDir = Files.createTempDirectory(tempDir, "position-runs");
+        List<Path> runs = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try (ArchiveReader archive = new ArchiveReader(archiveFile)) {
+            AtomicLong nextGame = new AtomicLong();
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    replayGames(archive, nextGame, runDir, runs);
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof IOException) {
+                        throw (IOException) ex.getCause();
+                    }
+                    if (ex.getCause() instanceof UncheckedIOException) {
+                        throw ((UncheckedIOException) ex.getCause()).getCause();
+                    }
+                    throw new RuntimeException(ex.getCause());
+                }
+            }
+
+            return mergeRuns(runs, runDir, indexFile);
+        } finally {
+            executor.shutdownNow();
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            Files.deleteIfExists(runDir);
+        }
+    }
+
+    private void replayGames(ArchiveReader archive, AtomicLong nextGame, Path runDir, List<Path> runs)
+            throws IOException {
+        PostingRun run = new PostingRun(runCapacity);
+        ChessBoard board = new ChessBoard();
+        MoveGeneration generator = new MoveGeneration(board);
+
+        long first;
+        while ((first = nextGame.getAndAdd(GAMES_PER_BATCH)) < archive.size()) {
+            long last = Math.min(first + GAMES_PER_BATCH, archive.size());
+            for (long number = first; number < last; number++) {
+                long game = number;
+                try {
+                    archive.game(game).replay(generator, ply -> {
+                        run.add(board.positionKey(), PositionIndex.posting(game, ply));
+                        if (run.isFull()) {
+                            spill(run, runDir, runs);
+                        }
+                    });
+                } catch (UncheckedIOException ex) {
+                    throw ex.getCause();
+                } catch (IllegalArgumentException ex) {
+                    // A game with a bad FEN tag should not stop the whole build
+                    gamesSkipped.incrementAndGet();
+                }
+            }
+        }
+        if (!run.isEmpty()) {
+            spill(run, runDir, runs);
+        }
+    }
+
+    private static void spill(PostingRun run, Path runDir, List<Path> runs) {
+        try {
+            Path file = Files.createTempFile(runDir, "run", ".bin");
+            runs.add(file);
+            run.spill(file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Merge of the sorted runs, the fanout table is filled in at the end
+    private long mergeRuns(List<Path> runs, Path runDir, Path indexFile) throws IOException {
+        long[] fanout = new long[PositionIndex.BUCKETS + 1];
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(indexFile), 1 << 16)) {
+            // Room for the header and the fanout table
+            out.write(new byte[(int) PositionIndex.ENTRIES_OFFSET]);
+
+            // Records are (key, posting), sorted by both, postings are never negative
+            new RunMerger(runDir, 16, 16, mergeFanIn).merge(runs, (records, offset) -> {
+                out.write(records.array(), offset, 16);
+                fanout[(int) (records.getLong(offset) >>> (64 - PositionIndex.PREFIX_BITS)) + 1]++;
+            });
+        }
+
+        // Counts to the index of the first entry of every bucket
+        for (int i = 1; i < fanout.length; i++) {
+            fanout[i] += fanout[i - 1];
+        }
+        long entries = fanout[PositionIndex.BUCKETS];
+        ByteBuffer header = ByteBuffer.allocate((int) PositionIndex.ENTRIES_OFFSET);
+        header.putInt(PositionIndex.MAGIC).putInt(0).putLong(entries);
+        for (long start : fanout) {
+            header.putLong(start);
+        }
+        header.flip();
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,94 @@
+package chess.Archive;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Fixed size buffer of (position key, posting) pairs, spilled to disk as a sorted run
+// Like the book builder's tables, everything is in primitive arrays of a fixed size
+class PostingRun {
+    private final long[] keys;
+    private final long[] postings;
+    private int size;
+
+    PostingRun(int capacity) {
+        keys = new long[capacity];
+        postings = new long[capacity];
+    }
+
+    void add(long key, long posting) {
+        keys[size] = key;
+        postings[size] = posting;
+        size++;
+    }
+
+    boolean isFull() {
+        return size == keys.length;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Writes the pairs sorted by (key, posting) and empties the buffer
+    void spill(Path file) throws IOException {
+        sort(0, size - 1);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            for (int i = 0; i < size; i++) {
+                out.writeLong(keys[i]);
+                out.writeLong(postings[i]);
+            }
+        }
+        size = 0;
+    }
+
+    private int compare(int lhs, long key, long posting) {
+        int cmp = Long.compareUnsigned(keys[lhs], key);
+        if (cmp != 0) {
+            return cmp;
+        }
+        return Long.compare(postings[lhs], posting);
+    }
+
+    // Quicksort of both arrays together
+    private void sort(int lo, int hi) {
+        while (lo < hi) {
+            int middle = (lo + hi) >>> 1;
+            long pivotKey = keys[middle], pivotPosting = postings[middle];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (compare(i, pivotKey, pivotPosting) < 0) {
+                    i++;
+                }
+                while (compare(j, pivotKey, pivotPosting) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse into the smaller part to keep the stack shallow
+            if (j - lo < hi - i) {
+                sort(lo, j);
+                lo = i;
+            } else {
+                sort(i, hi);
+                hi = j;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long posting = postings[i];
+        postings[i] = postings[j];
+        postings[j] = posting;
+    }
+}
@@ -0,0 +1,359 @@
+package chess.Book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import chess.RunMerger;
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Notation.PgnGame;
+import chess.Notation.PgnReader;
+import chess.Notation.San;
+
+// Builds a Polyglot-layout opening book from a PGN file
+// The file is streamed: one thread splits it into chunks of games, worker threads
+// replay the games and aggregate statistics in fixed size tables. Full tables are
+// spilled to disk as sorted runs, which are merged into the book at the end, a bounded
+// number at a time, so memory use depends only on the settings and not on the size of the input
+public class BookBuilder {
+    // Number of threads replaying games
+    private final int threads;
+    // Only the first maxPly half-moves of every game get into the book
+    private final int maxPly;
+    // Entries per worker table before it is spilled to disk
+    private final int tableCapacity;
+    // Moves played less times are dropped
+    private final int minGames;
+    private final Path tempDir;
+    // Runs merged at once, more runs are merged in several passes
+    private final int mergeFanIn;
+
+    private static final int GAMES_PER_CHUNK = 256;
+    private static final List<String> END_OF_INPUT = Collections.emptyList();
+
+    public BookBuilder(int threads, int maxPly, int tableCapacity, int minGames, Path tempDir, int mergeFanIn) {
+        this.threads = threads;
+        this.maxPly = maxPly;
+        this.tableCapacity = tableCapacity;
+        this.minGames = minGames;
+        this.tempDir = tempDir;
+        this.mergeFanIn = mergeFanIn;
+    }
+
+    public BookBuilder(int threads, int maxPly, int tableCapacity, int minGames, Path tempDir) {
+        this(threads, maxPly, tableCapacity, minGames, tempDir, RunMerger.DEFAULT_FAN_IN);
+    }
+
+    public BookBuilder() {
+        this(Runtime.getRuntime().availableProcessors(), 40, 1 << 20, 1,
+                Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Usage: BookBuilder <games.pgn> <book.bin> [maxPly]");
+            return;
+        }
+        BookBuilder builder = new BookBuilder();
+        if (args.length > 2) {
+            builder = new BookBuilder(builder.threads, Integer.parseInt(args[2]),
+                    builder.tableCapacity, builder.minGames, builder.tempDir);
+        }
+        builder.build(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    // Number of games replayed during the last build
+    public int gamesProcessed() {
+        return gamesProcessed.get();
+    }
+
+    // Number of games left out of the last build because they could not be read
+    public int gamesSkipped() {
+        return gamesSkipped.get();
+    }
+
+    private final AtomicInteger gamesProcessed = new AtomicInteger();
+    private final AtomicInteger gamesSkipped = new AtomicInteger();
+
+    public void build(Path pgnFile, Path bookFile) throws IOException, InterruptedException {
+        gamesProcessed.set(0);
+        gamesSkipped.set(0);
+
+        Path runDir = Files.createTempDirectory(tempDir, "book-runs");
+        List<Path> runs = Collections.synchronizedList(new ArrayList<>());
+
+        // Bounded, so the reader can't get too far ahead of the workers
+        BlockingQueue<List<String>> chunks = new ArrayBlockingQueue<>(threads * 2);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    replayChunks(chunks, runDir, runs);
+                    return null;
+                }));
+            }
+
+            try (PgnReader reader = new PgnReader(Files.newBufferedReader(pgnFile, StandardCharsets.ISO_8859_1))) {
+                List<String> chunk = new ArrayList<>(GAMES_PER_CHUNK);
+                String game;
+                while ((game = reader.nextGameText()) != null) {
+                    chunk.add(game);
+                    if (chunk.size() == GAMES_PER_CHUNK) {
+                        if (!putChunk(chunks, chunk, workers)) {
+                            break;
+                        }
+                        chunk = new ArrayList<>(GAMES_PER_CHUNK);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    putChunk(chunks, chunk, workers);
+                }
+            } finally {
+                for (int i = 0; i < threads; i++) {
+                    putChunk(chunks, END_OF_INPUT, workers);
+                }
+            }
+
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof IOException) {
+                        throw (IOException) ex.getCause();
+                    }
+                    throw new RuntimeException(ex.getCause());
+                }
+            }
+
+            mergeRuns(runs, runDir, bookFile);
+        } finally {
+            executor.shutdownNow();
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            Files.deleteIfExists(runDir);
+        }
+    }
+
+    // Waits for a free place in the queue
+    // Returns false if a worker has died, then nobody may be left to take the chunk
+    private static boolean putChunk(BlockingQueue<List<String>> chunks, List<String> chunk,
+            List<Future<?>> workers) throws InterruptedException {
+        while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+            for (Future<?> worker : workers) {
+                if (worker.isDone()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void replayChunks(BlockingQueue<List<String>> chunks, Path runDir, List<Path> runs)
+            throws IOException, InterruptedException {
+        EntryTable table = new EntryTable(tableCapacity);
+        ChessBoard board = new ChessBoard();
+        MoveGeneration generator = new MoveGeneration(board);
+
+        List<String> chunk;
+        while ((chunk = chunks.take()) != END_OF_INPUT) {
+            for (String text : chunk) {
+                try {
+                    replayGame(PgnReader.parse(text), board, generator, table, runDir, runs);
+                } catch (IllegalArgumentException ex) {
+                    // A broken game, e.g. with a bad FEN, should not stop the whole build
+                    gamesSkipped.incrementAndGet();
+                }
+            }
+        }
+        if (!table.isEmpty()) {
+            spill(table, runDir, runs);
+        }
+    }
+
+    private void replayGame(PgnGame game, ChessBoard board, MoveGeneration generator,
+            EntryTable table, Path runDir, List<Path> runs) throws IOException {
+        // White's point of view
+        int result;
+        switch (game.result) {
+            case "1-0":
+                result = 1;
+                break;
+            case "0-1":
+                result = -1;
+                break;
+            case "1/2-1/2":
+                result = 0;
+                break;
+            default:
+                // Unfinished games tell nothing about the moves
+                return;
+        }
+
+        board.setPosition(game.startingFEN());
+        gamesProcessed.incrementAndGet();
+
+        int plies = Math.min(maxPly, game.moves.size());
+        for (int ply = 0; ply < plies; ply++) {
+            Move move = San.decode(generator, game.moves.get(ply));
+            if (move == null) {
+                // Illegal or unreadable move, the rest of the game is useless
+                return;
+            }
+
+            boolean whiteToMove = board.getCurrentColor() == ChessPiece.Color.WHITE;
+            table.add(board.positionKey(), PolyglotBook.encodeMove(move), whiteToMove ? result : -result);
+            if (table.isFull()) {
+                spill(table, runDir, runs);
+            }
+
+            if (!generator.makeAMove(move)) {
+                return;
+            }
+        }
+    }
+
+    private void spill(EntryTable table, Path runDir, List<Path> runs) throws IOException {
+        Path run = Files.createTempFile(runDir, "run", ".bin");
+        runs.add(run);
+        table.spill(run);
+    }
+
+    // Merge of the sorted runs into the book
+    private void mergeRuns(List<Path> runs, Path runDir, Path bookFile) throws IOException {
+        try (FileChannel out = FileChannel.open(bookFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(PolyglotBook.ENTRY_SIZE * 4096);
+            PositionMoves position = new PositionMoves();
+            MoveTotal total = new MoveTotal();
+
+            new RunMerger(runDir, RunRecord.SIZE, RunRecord.KEY_SIZE, mergeFanIn).merge(runs, (records, offset) -> {
+                long key = records.getLong(offset);
+                short move = records.getShort(offset + 8);
+                // Sum the same (key, move) from all the runs
+                if (total.count > 0 && (total.key != key || total.move != move)) {
+                    addMove(total, position, buffer, out);
+                }
+                total.key = key;
+                total.move = move;
+                total.wins += records.getInt(offset + 10);
+                total.draws += records.getInt(offset + 14);
+                total.losses += records.getInt(offset + 18);
+                total.count++;
+            });
+            if (total.count > 0) {
+                addMove(total, position, buffer, out);
+            }
+            position.flush(buffer, out);
+
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    private void addMove(MoveTotal total, PositionMoves position, ByteBuffer buffer, FileChannel out)
+            throws IOException {
+        if (position.size > 0 && position.key != total.key) {
+            position.flush(buffer, out);
+        }
+        position.key = total.key;
+        if (total.wins + total.draws + total.losses >= minGames) {
+            position.add(total.move, 2L * total.wins + total.draws);
+        }
+        total.wins = total.draws = total.losses = total.count = 0;
+    }
+
+    // Statistics of one (key, move), summed over the runs during the merge
+    private static class MoveTotal {
+        long key;
+        short move;
+        int wins, draws, losses;
+        // Records summed
+        int count;
+    }
+
+    // Moves of a single position, collected during the merge
+    // Polyglot wants them ordered by weight, which is only known after all the runs are merged
+    private static class PositionMoves {
+        long key;
+        int size;
+        short[] moves = new short[64];
+        long[] scores = new long[64];
+
+        void add(short move, long score) {
+            if (size == moves.length) {
+                moves = Arrays.copyOf(moves, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            moves[size] = move;
+            scores[size] = score;
+            size++;
+        }
+
+        void flush(ByteBuffer buffer, FileChannel out) throws IOException {
+            long maxScore = 0;
+            for (int i = 0; i < size; i++) {
+                maxScore = Math.max(maxScore, scores[i]);
+            }
+
+            // Insertion sort by score, there are only a few moves per position
+            for (int i = 1; i < size; i++) {
+                short move = moves[i];
+                long score = scores[i];
+                int j = i - 1;
+                for (; j >= 0 && scores[j] < score; j--) {
+                    moves[j + 1] = moves[j];
+                    scores[j + 1] = scores[j];
+                }
+                moves[j + 1] = move;
+                scores[j + 1] = score;
+            }
+
+            for (int i = 0; i < size; i++) {
+                // Weights are 16 bit, scale them down if needed
+                long weight = maxScore > 0xFFFF ? scores[i] * 0xFFFF / maxScore : scores[i];
+                if (weight == 0) {
+                    // Polyglot skips moves that never scored
+                    continue;
+                }
+                if (!buffer.hasRemaining()) {
+                    drain(buffer, out);
+                }
+                PolyglotBook.writeEntry(buffer, key, moves[i], (int) weight);
+            }
+            size = 0;
+        }
+
+        private static void drain(ByteBuffer buffer, FileChannel out) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package chess.Book;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Open addressing hash table of (position key, move) -> game statistics
+// Everything is kept in primitive arrays, so a table with a fixed capacity
+// has a fixed memory footprint. When it is full it is spilled to disk as a sorted run
+class EntryTable {
+    private final int capacity;
+    private final int mask;
+
+    private final long[] keys;
+    private final short[] moves;
+    private final int[] wins;
+    private final int[] draws;
+    private final int[] losses;
+    private final boolean[] used;
+
+    private int size;
+
+    // Capacity is the maximum number of entries before the table reports being full
+    EntryTable(int capacity) {
+        this.capacity = capacity;
+
+        // Keep the load factor under 0.5
+        int slots = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) << 1;
+        mask = slots - 1;
+
+        keys = new long[slots];
+        moves = new short[slots];
+        wins = new int[slots];
+        draws = new int[slots];
+        losses = new int[slots];
+        used = new boolean[slots];
+    }
+
+    // Result is from the side to move point of view: 1 win, 0 draw, -1 loss
+    void add(long key, short move, int result) {
+        int slot = (int) mix(key ^ ((long) move << 32)) & mask;
+        while (used[slot] && (keys[slot] != key || moves[slot] != move)) {
+            slot = (slot + 1) & mask;
+        }
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            moves[slot] = move;
+            size++;
+        }
+
+        if (result > 0) {
+            wins[slot]++;
+        } else if (result == 0) {
+            draws[slot]++;
+        } else {
+            losses[slot]++;
+        }
+    }
+
+    boolean isFull() {
+        return size >= capacity;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Writes all the entries sorted by (key, move) and clears the table
+    void spill(Path file) throws IOException {
+        int[] order = new int[size];
+        int count = 0;
+        for (int slot = 0; slot < used.length; slot++) {
+            if (used[slot]) {
+                order[count++] = slot;
+            }
+        }
+        sort(order, 0, count - 1);
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            for (int i = 0; i < count; i++) {
+                int slot = order[i];
+                RunRecord.write(out, keys[slot], moves[slot], wins[slot], draws[slot], losses[slot]);
+            }
+        }
+        clear();
+    }
+
+    private void clear() {
+        Arrays.fill(used, false);
+        Arrays.fill(wins, 0);
+        Arrays.fill(draws, 0);
+        Arrays.fill(losses, 0);
+        size = 0;
+    }
+
+    private int compare(int lhs, int rhs) {
+        int cmp = Long.compareUnsigned(keys[lhs], keys[rhs]);
+        if (cmp != 0) {
+            return cmp;
+        }
+        return Integer.compare(moves[lhs] & 0xFFFF, moves[rhs] & 0xFFFF);
+    }
+
+    // Quicksort of slot indices, so no boxing is needed
+    private void sort(int[] order, int lo, int hi) {
+        while (lo < hi) {
+            int pivot = order[(lo + hi) >>> 1];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (compare(order[i], pivot) < 0) {
+                    i++;
+                }
+                while (compare(order[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse into the smaller part to keep the stack shallow
+            if (j - lo < hi - i) {
+                sort(order, lo, j);
+                lo = i;
+            } else {
+                sort(order, i, hi);
+                hi = j;
+            }
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
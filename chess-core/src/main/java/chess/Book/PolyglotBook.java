@@ -0,0 +1,118 @@
+package chess.Book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import chess.Logic.ChessPiece;
+import chess.Moves.Move;
+import chess.Moves.Promotion;
+
+// Opening book in the Polyglot .bin layout:
+// 16 byte big-endian entries (key, move, weight, learn), sorted by key
+// Keys come from chess.Logic.Zobrist
+public class PolyglotBook {
+    static final int ENTRY_SIZE = 16;
+
+    public static class Entry {
+        public final long key;
+        public final short move;
+        public final int weight;
+
+        Entry(long key, short move, int weight) {
+            this.key = key;
+            this.move = move;
+            this.weight = weight;
+        }
+    }
+
+    private final MappedByteBuffer buffer;
+    private final int entryCount;
+
+    public PolyglotBook(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        entryCount = buffer.capacity() / ENTRY_SIZE;
+    }
+
+    public int size() {
+        return entryCount;
+    }
+
+    // All the moves stored for the position, heaviest first
+    public List<Entry> lookup(long key) {
+        List<Entry> entries = new ArrayList<>();
+
+        // Binary search for the first entry with the key
+        int lo = 0, hi = entryCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(buffer.getLong(mid * ENTRY_SIZE), key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        for (int i = lo; i < entryCount && buffer.getLong(i * ENTRY_SIZE) == key; i++) {
+            entries.add(new Entry(key, buffer.getShort(i * ENTRY_SIZE + 8),
+                    buffer.getShort(i * ENTRY_SIZE + 10) & 0xFFFF));
+        }
+        return entries;
+    }
+
+    static void writeEntry(ByteBuffer out, long key, short move, int weight) {
+        out.putLong(key);
+        out.putShort(move);
+        out.putShort((short) weight);
+        // Learn field is not used
+        out.putInt(0);
+    }
+
+    // Polyglot move: to file (3 bits), to row (3), from file (3), from row (3), promotion (3)
+    // Castling is stored as the king capturing its own rook
+    public static short encodeMove(Move move) {
+        int toX = move.to.x;
+        if (move.piece.getName() == ChessPiece.Name.KING && Math.abs(move.to.x - move.from.x) == 2) {
+            toX = move.to.x > move.from.x ? 7 : 0;
+        }
+
+        int promotion = 0;
+        if (move instanceof Promotion) {
+            switch (((Promotion) move).promoteTo) {
+                case KNIGHT:
+                    promotion = 1;
+                    break;
+                case BISHOP:
+                    promotion = 2;
+                    break;
+                case ROOK:
+                    promotion = 3;
+                    break;
+                default:
+                    promotion = 4;
+                    break;
+            }
+        }
+
+        return (short) (toX | move.to.y << 3 | move.from.x << 6 | move.from.y << 9 | promotion << 12);
+    }
+
+    // Coordinate notation of a stored move (e2e4, e1h1 for castling, e7e8q)
+    public static String moveToString(short move) {
+        StringBuilder str = new StringBuilder(5);
+        str.append((char) ('a' + (move >> 6 & 7))).append((char) ('1' + (move >> 9 & 7)));
+        str.append((char) ('a' + (move & 7))).append((char) ('1' + (move >> 3 & 7)));
+        int promotion = move >> 12 & 7;
+        if (promotion != 0) {
+            str.append(" nbrq".charAt(promotion));
+        }
+        return str.toString();
+    }
+}
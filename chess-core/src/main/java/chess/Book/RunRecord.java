@@ -0,0 +1,23 @@
+package chess.Book;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// Record of a sorted run, spilled by EntryTable and merged by RunMerger
+// Layout: key (8), move (2), wins (4), draws (4), losses (4), sorted by key and move
+class RunRecord {
+    static final int SIZE = 22;
+    static final int KEY_SIZE = 10;
+
+    private RunRecord() {
+    }
+
+    static void write(DataOutputStream out, long key, short move, int wins, int draws, int losses)
+            throws IOException {
+        out.writeLong(key);
+        out.writeShort(move);
+        out.writeInt(wins);
+        out.writeInt(draws);
+        out.writeInt(losses);
+    }
+}
@@ -0,0 +1,206 @@
+package chess.Endgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+
+// Win/draw/loss table of a small ending, a king and one or two pieces against a bare king
+// Values are 2 bits per position, packed 4 to a byte, and the file is memory mapped,
+// so a probe is an index computation and a single byte read
+//
+// The strong side is always stored as white, positions with black pieces
+// are mirrored before the lookup
+public class Bitbase {
+    // Results from the point of view of the side to move
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+    public static final int LOSS = 2;
+    // Impossible placement, or material this table does not cover
+    public static final int INVALID = 3;
+
+    static final int MAGIC = 0x43424231; // "CBB1"
+
+    // Canonical material, e.g. "KQK", "KBNK"
+    private final String material;
+    // Strong side pieces besides the king, in the order they are indexed
+    final ChessPiece.Name[] pieces;
+
+    private final ByteBuffer values;
+    private final int valuesOffset;
+
+    Bitbase(String material, ByteBuffer buffer, int valuesOffset) {
+        this.material = material;
+        this.pieces = parseMaterial(material);
+        this.values = buffer;
+        this.valuesOffset = valuesOffset;
+    }
+
+    // Maps the whole file, header: magic, material length, material in ASCII
+    public static Bitbase open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.BIG_ENDIAN);
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a bitbase file: " + file);
+        }
+        int length = buffer.getInt(4);
+        byte[] materialBytes = new byte[length];
+        buffer.position(8);
+        buffer.get(materialBytes);
+
+        String material = new String(materialBytes, StandardCharsets.US_ASCII);
+        return new Bitbase(material, buffer, 8 + length);
+    }
+
+    public String material() {
+        return material;
+    }
+
+    // Number of positions in a table, including invalid ones
+    public int size() {
+        return size(pieces.length);
+    }
+
+    static int size(int pieceCount) {
+        return 2 << (6 * (pieceCount + 2));
+    }
+
+    // Squares are y * 8 + x, the strong side is white
+    public int probe(boolean whiteToMove, int whiteKing, int blackKing, int piece) {
+        return probe(((whiteToMove ? 0 : 1) << 18) | whiteKing << 12 | blackKing << 6 | piece);
+    }
+
+    public int probe(boolean whiteToMove, int whiteKing, int blackKing, int piece1, int piece2) {
+        return probe(((whiteToMove ? 0 : 1) << 24) | whiteKing << 18 | blackKing << 12 | piece1 << 6 | piece2);
+    }
+
+    public int probe(int index) {
+        return (values.get(valuesOffset + (index >>> 2)) >>> ((index & 3) << 1)) & 3;
+    }
+
+    // Looks the position up, whichever side has the pieces
+    // Returns INVALID if the material on the board does not match the table
+    // Tables have one or two pieces besides the kings, so their squares are kept in locals
+    // and a probe from the search allocates nothing
+    public int probe(ChessBoard board) {
+        ChessPiece.Color strong = null;
+        int whiteKing = -1, blackKing = -1;
+        // Squares of pieces[0] and pieces[1], each piece takes the first free slot of its kind
+        int square1 = -1, square2 = -1;
+
+        for (ChessPiece piece : board) {
+            int square = piece.pos().y * 8 + piece.pos().x;
+            ChessPiece.Name name = piece.getName();
+            if (name == ChessPiece.Name.KING) {
+                if (piece.color() == ChessPiece.Color.WHITE) {
+                    whiteKing = square;
+                } else {
+                    blackKing = square;
+                }
+                continue;
+            }
+            if (strong != null && strong != piece.color()) {
+                return INVALID;
+            }
+            strong = piece.color();
+
+            if (square1 == -1 && pieces[0] == name) {
+                square1 = square;
+            } else if (square2 == -1 && pieces.length > 1 && pieces[1] == name) {
+                square2 = square;
+            } else {
+                return INVALID;
+            }
+        }
+        if (square1 == -1 || pieces.length > 1 && square2 == -1 || whiteKing == -1 || blackKing == -1) {
+            return INVALID;
+        }
+
+        boolean whiteToMove = board.getCurrentColor() == ChessPiece.Color.WHITE;
+        if (strong == ChessPiece.Color.BLACK) {
+            // Swap the colors by mirroring the board vertically
+            int tmp = whiteKing;
+            whiteKing = blackKing ^ 56;
+            blackKing = tmp ^ 56;
+            square1 ^= 56;
+            square2 ^= 56;
+            whiteToMove = !whiteToMove;
+        }
+
+        if (pieces.length == 1) {
+            return probe(whiteToMove, whiteKing, blackKing, square1);
+        }
+        return probe(whiteToMove, whiteKing, blackKing, square1, square2);
+    }
+
+    // "KBNK" -> [BISHOP, KNIGHT]
+    static ChessPiece.Name[] parseMaterial(String material) {
+        if (material.length() < 3 || material.length() > 4
+                || material.charAt(0) != 'K' || material.charAt(material.length() - 1) != 'K') {
+            throw new IllegalArgumentException("Unsupported material: " + material);
+        }
+
+        ChessPiece.Name[] names = new ChessPiece.Name[material.length() - 2];
+        for (int i = 0; i < names.length; i++) {
+            switch (material.charAt(i + 1)) {
+                case 'Q':
+                    names[i] = ChessPiece.Name.QUEEN;
+                    break;
+                case 'R':
+                    names[i] = ChessPiece.Name.ROOK;
+                    break;
+                case 'B':
+                    names[i] = ChessPiece.Name.BISHOP;
+                    break;
+                case 'N':
+                    names[i] = ChessPiece.Name.KNIGHT;
+                    break;
+                case 'P':
+                    names[i] = ChessPiece.Name.PAWN;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported material: " + material);
+            }
+        }
+        return names;
+    }
+
+    // Material string with the pieces in QRBNP order
+    static String canonical(ChessPiece.Name[] names) {
+        StringBuilder str = new StringBuilder("K");
+        for (char ch : "QRBNP".toCharArray()) {
+            for (ChessPiece.Name name : names) {
+                if (pieceChar(name) == ch) {
+                    str.append(ch);
+                }
+            }
+        }
+        return str.append('K').toString();
+    }
+
+    static char pieceChar(ChessPiece.Name name) {
+        switch (name) {
+            case QUEEN:
+                return 'Q';
+            case ROOK:
+                return 'R';
+            case BISHOP:
+                return 'B';
+            case KNIGHT:
+                return 'N';
+            case PAWN:
+                return 'P';
+            default:
+                return 'K';
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package chess.Endgame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Moves.Promotion;
+
+// Retrograde analysis of small endings
+// 1. Every placement is loaded into a ChessBoard and its legal moves are taken from
+//    MoveGeneration, so the rules live in one place. The successors are stored as
+//    indices into the same table, moves that change the material (captures, promotions)
+//    are resolved right away from smaller tables or as draws
+// 2. The stored move graph is then swept until nothing changes: a position is won if
+//    some move leads to a lost position, lost if every move leads to a won one.
+//    Whatever is left unresolved is a draw
+// Both steps are split between threads by index ranges
+//
+// The move graph takes about 4 bytes per move, which is small for 3 men,
+// but needs a few gigabytes of heap for 4 men tables like KBNK
+public class BitbaseGenerator {
+    private final int threads;
+    // Tables generated so far, promotions need the smaller ones
+    private final Map<String, Bitbase> generated = new HashMap<>();
+    // Packed values of the generated tables, as they are written to the files
+    private final Map<String, ByteBuffer> packed = new HashMap<>();
+
+    // Placeholder for a not yet resolved position, only used during generation
+    private static final byte UNKNOWN = -1;
+
+    public BitbaseGenerator(int threads) {
+        this.threads = threads;
+    }
+
+    public BitbaseGenerator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Usage: BitbaseGenerator <material, e.g. KPK> <output file>");
+            return;
+        }
+        new BitbaseGenerator().generate(args[0], Paths.get(args[1]));
+    }
+
+    public void generate(String material, Path file) throws IOException, InterruptedException {
+        Bitbase bitbase = generate(material);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            byte[] name = bitbase.material().getBytes(StandardCharsets.US_ASCII);
+            out.writeInt(Bitbase.MAGIC);
+            out.writeInt(name.length);
+            out.write(name);
+
+            ByteBuffer values = packed.get(bitbase.material());
+            out.write(values.array(), 0, values.capacity());
+        }
+    }
+
+    // Generates the table in memory, along with the tables it depends on
+    public Bitbase generate(String material) throws InterruptedException {
+        String canonical = Bitbase.canonical(Bitbase.parseMaterial(material));
+        Bitbase existing = generated.get(canonical);
+        if (existing != null) {
+            return existing;
+        }
+
+        ChessPiece.Name[] pieces = Bitbase.parseMaterial(canonical);
+        // Promotions lead to tables with the pawn replaced
+        for (int i = 0; i < pieces.length; i++) {
+            if (pieces[i] != ChessPiece.Name.PAWN) {
+                continue;
+            }
+            for (ChessPiece.Name promoted : new ChessPiece.Name[] { ChessPiece.Name.QUEEN, ChessPiece.Name.ROOK,
+                    ChessPiece.Name.BISHOP, ChessPiece.Name.KNIGHT }) {
+                ChessPiece.Name[] after = pieces.clone();
+                after[i] = promoted;
+                if (!isInsufficient(after)) {
+                    generate(Bitbase.canonical(after));
+                }
+            }
+        }
+        // Captures lead to tables with one piece less
+        for (int i = 0; i < pieces.length; i++) {
+            ChessPiece.Name[] after = without(pieces, i);
+            if (!isInsufficient(after)) {
+                generate(Bitbase.canonical(after));
+            }
+        }
+
+        Table table = new Table(pieces);
+        table.buildGraph();
+        table.solve();
+
+        ByteBuffer values = ByteBuffer.wrap(table.pack());
+        packed.put(canonical, values);
+        Bitbase bitbase = new Bitbase(canonical, values, 0);
+        generated.put(canonical, bitbase);
+        return bitbase;
+    }
+
+    // Bare kings, or a single minor piece can't mate
+    static boolean isInsufficient(ChessPiece.Name[] pieces) {
+        if (pieces.length == 0) {
+            return true;
+        }
+        return pieces.length == 1
+                && (pieces[0] == ChessPiece.Name.BISHOP || pieces[0] == ChessPiece.Name.KNIGHT);
+    }
+
+    static ChessPiece.Name[] without(ChessPiece.Name[] pieces, int index) {
+        ChessPiece.Name[] result = new ChessPiece.Name[pieces.length - 1];
+        for (int i = 0, j = 0; i < pieces.length; i++) {
+            if (i != index) {
+                result[j++] = pieces[i];
+            }
+        }
+        return result;
+    }
+
+    // Runs the task on every index range in parallel
+    private interface RangeTask {
+        void run(int from, int to);
+    }
+
+    private void parallel(int size, RangeTask task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            int chunk = (size + threads - 1) / threads;
+            for (int from = 0; from < size; from += chunk) {
+                int start = from, end = Math.min(size, from + chunk);
+                futures.add(executor.submit(() -> task.run(start, end)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException ex) {
+            throw new RuntimeException(ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private class Table {
+        final ChessPiece.Name[] pieces;
+        final int size;
+
+        // Results from the side to move point of view
+        final byte[] values;
+        // Successors in compressed rows: moves of position i are
+        // successors[offsets[i]] .. successors[offsets[i + 1]]
+        // Negative entries are already known results: -1 - value
+        int[] offsets;
+        int[] successors;
+
+        Table(ChessPiece.Name[] pieces) {
+            this.pieces = pieces;
+            this.size = Bitbase.size(pieces.length);
+            this.values = new byte[size];
+        }
+
+        void buildGraph() throws InterruptedException {
+            int[] moveCounts = new int[size];
+            List<int[]> rowChunks = new ArrayList<>();
+            int chunkSize = (size + threads - 1) / threads;
+            for (int i = 0; i < threads; i++) {
+                rowChunks.add(null);
+            }
+
+            parallel(size, (from, to) -> {
+                ChessBoard board = new ChessBoard();
+                MoveGeneration generator = new MoveGeneration(board);
+                IntList rows = new IntList();
+
+                for (int index = from; index < to; index++) {
+                    int before = rows.size;
+                    values[index] = expand(index, board, generator, rows);
+                    moveCounts[index] = rows.size - before;
+                }
+                synchronized (rowChunks) {
+                    rowChunks.set(from / chunkSize, rows.toArray());
+                }
+            });
+
+            offsets = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[i + 1] = offsets[i] + moveCounts[i];
+            }
+            successors = new int[offsets[size]];
+            int position = 0;
+            for (int[] rows : rowChunks) {
+                if (rows != null) {
+                    System.arraycopy(rows, 0, successors, position, rows.length);
+                    position += rows.length;
+                }
+            }
+        }
+
+        // Lists the successors of a position and returns its value,
+        // if it is known without looking at them
+        byte expand(int index, ChessBoard board, MoveGeneration generator, IntList rows) {
+            boolean whiteToMove = (index >>> (6 * (pieces.length + 2))) == 0;
+            int whiteKing = square(index, 0), blackKing = square(index, 1);
+
+            char[] placement = new char[64];
+            placement[whiteKing] = 'K';
+            if (placement[blackKing] != 0 || kingsTouch(whiteKing, blackKing)) {
+                return Bitbase.INVALID;
+            }
+            placement[blackKing] = 'k';
+            for (int i = 0; i < pieces.length; i++) {
+                int sq = square(index, i + 2);
+                if (placement[sq] != 0) {
+                    return Bitbase.INVALID;
+                }
+                if (pieces[i] == ChessPiece.Name.PAWN && (sq < 8 || sq >= 56)) {
+                    return Bitbase.INVALID;
+                }
+                placement[sq] = Bitbase.pieceChar(pieces[i]);
+            }
+
+            board.setPosition(toFEN(placement, whiteToMove));
+            // The side that just moved can't be left in check
+            if (board.getStatus(!whiteToMove).checkState != ChessBoard.KingStatus.CheckState.NONE) {
+                return Bitbase.INVALID;
+            }
+
+            int count = 0;
+            for (ChessPiece piece : board) {
+                for (Move move : generator.getPieceMoves(piece)) {
+                    rows.add(successor(index, whiteToMove, move));
+                    count++;
+                }
+            }
+
+            if (count == 0) {
+                return board.isInCheck() ? (byte) Bitbase.LOSS : (byte) Bitbase.DRAW;
+            }
+            return UNKNOWN;
+        }
+
+        // Index of the position after the move, or -1 - value if it leaves this table
+        int successor(int index, boolean whiteToMove, Move move) {
+            int from = move.from.y * 8 + move.from.x;
+            int to = move.to.y * 8 + move.to.x;
+
+            int[] squares = new int[pieces.length + 2];
+            for (int i = 0; i < squares.length; i++) {
+                squares[i] = square(index, i);
+            }
+
+            if (!whiteToMove) {
+                // Only the black king moves, it may capture
+                squares[1] = to;
+                for (int i = 2; i < squares.length; i++) {
+                    if (squares[i] == to) {
+                        return lookup(without(pieces, i - 2), without(squares, i), true);
+                    }
+                }
+                return indexOf(squares, true);
+            }
+
+            for (int i = 0; i < squares.length; i++) {
+                if (squares[i] == from) {
+                    squares[i] = to;
+                    if (move instanceof Promotion) {
+                        ChessPiece.Name[] after = pieces.clone();
+                        after[i - 2] = promotedName((Promotion) move);
+                        return lookup(after, squares, false);
+                    }
+                    break;
+                }
+            }
+            return indexOf(squares, false);
+        }
+
+        // Result of a position in another table, as a negative successor entry
+        int lookup(ChessPiece.Name[] after, int[] squares, boolean whiteToMove) {
+            if (isInsufficient(after)) {
+                return -1 - Bitbase.DRAW;
+            }
+            Bitbase table = generated.get(Bitbase.canonical(after));
+
+            // Reorder the pieces to the other table's order
+            int[] reordered = new int[squares.length];
+            reordered[0] = squares[0];
+            reordered[1] = squares[1];
+            boolean[] used = new boolean[after.length];
+            for (int slot = 0; slot < table.pieces.length; slot++) {
+                for (int i = 0; i < after.length; i++) {
+                    if (!used[i] && after[i] == table.pieces[slot]) {
+                        used[i] = true;
+                        reordered[slot + 2] = squares[i + 2];
+                        break;
+                    }
+                }
+            }
+            return -1 - table.probe(indexOf(reordered, whiteToMove));
+        }
+
+        void solve() throws InterruptedException {
+            AtomicBoolean changed = new AtomicBoolean(true);
+            while (changed.get()) {
+                changed.set(false);
+                parallel(size, (from, to) -> {
+                    for (int index = from; index < to; index++) {
+                        if (values[index] != UNKNOWN) {
+                            continue;
+                        }
+                        byte value = evaluate(index);
+                        if (value != UNKNOWN) {
+                            values[index] = value;
+                            changed.set(true);
+                        }
+                    }
+                });
+            }
+
+            for (int index = 0; index < size; index++) {
+                if (values[index] == UNKNOWN) {
+                    values[index] = Bitbase.DRAW;
+                }
+            }
+        }
+
+        byte evaluate(int index) {
+            boolean allWon = true;
+            for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+                int succ = successors[i];
+                int value = succ < 0 ? -1 - succ : values[succ];
+                if (value == Bitbase.LOSS) {
+                    return Bitbase.WIN;
+                }
+                if (value != Bitbase.WIN) {
+                    allWon = false;
+                }
+            }
+            return allWon ? (byte) Bitbase.LOSS : UNKNOWN;
+        }
+
+        byte[] pack() {
+            byte[] packed = new byte[(size + 3) / 4];
+            for (int index = 0; index < size; index++) {
+                packed[index >>> 2] |= values[index] << ((index & 3) << 1);
+            }
+            return packed;
+        }
+
+        // Square of the piece in the index: 0 - white king, 1 - black king, then the pieces
+        int square(int index, int slot) {
+            return (index >>> (6 * (pieces.length + 1 - slot))) & 63;
+        }
+    }
+
+    static int indexOf(int[] squares, boolean whiteToMove) {
+        int index = whiteToMove ? 0 : 1;
+        for (int square : squares) {
+            index = index << 6 | square;
+        }
+        return index;
+    }
+
+    static int[] without(int[] squares, int index) {
+        int[] result = new int[squares.length - 1];
+        for (int i = 0, j = 0; i < squares.length; i++) {
+            if (i != index) {
+                result[j++] = squares[i];
+            }
+        }
+        return result;
+    }
+
+    static boolean kingsTouch(int lhs, int rhs) {
+        return Math.abs((lhs & 7) - (rhs & 7)) <= 1 && Math.abs((lhs >> 3) - (rhs >> 3)) <= 1;
+    }
+
+    static ChessPiece.Name promotedName(Promotion promotion) {
+        switch (promotion.promoteTo) {
+            case ROOK:
+                return ChessPiece.Name.ROOK;
+            case BISHOP:
+                return ChessPiece.Name.BISHOP;
+            case KNIGHT:
+                return ChessPiece.Name.KNIGHT;
+            default:
+                return ChessPiece.Name.QUEEN;
+        }
+    }
+
+    static String toFEN(char[] placement, boolean whiteToMove) {
+        StringBuilder fen = new StringBuilder();
+        for (int y = 7; y >= 0; y--) {
+            int empty = 0;
+            for (int x = 0; x < 8; x++) {
+                char ch = placement[y * 8 + x];
+                if (ch == 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty != 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(ch);
+            }
+            if (empty != 0) {
+                fen.append(empty);
+            }
+            if (y != 0) {
+                fen.append('/');
+            }
+        }
+        return fen.append(whiteToMove ? " w - - 0 1" : " b - - 0 1").toString();
+    }
+
+    // Growable int array, the move graph is too large for boxed lists
+    private static class IntList {
+        int[] data = new int[1024];
+        int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
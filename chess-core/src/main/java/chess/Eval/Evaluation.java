@@ -0,0 +1,238 @@
+package chess.Eval;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+
+// Static evaluation: material, piece-square tables and pawn structure
+// Scores are in centipawns from the side to move point of view
+public class Evaluation {
+    private final PawnHashTable pawnTable;
+
+    public Evaluation(PawnHashTable pawnTable) {
+        this.pawnTable = pawnTable;
+    }
+
+    public Evaluation() {
+        this(new PawnHashTable());
+    }
+
+    public PawnHashTable pawnTable() {
+        return pawnTable;
+    }
+
+    public int evaluate(ChessBoard board) {
+        int score = 0;
+        // Pawns as bitboards, bit index is y * 8 + x
+        long whitePawns = 0, blackPawns = 0;
+        int whiteKing = 0, blackKing = 0;
+
+        for (ChessPiece piece : board) {
+            int x = piece.pos().x, y = piece.pos().y;
+            boolean white = piece.color() == ChessPiece.Color.WHITE;
+            // Tables are written from white's side, rank 8 first
+            int tableIndex = white ? (7 - y) * 8 + x : y * 8 + x;
+
+            int value;
+            switch (piece.getName()) {
+                case PAWN:
+                    value = 100 + PAWN_TABLE[tableIndex];
+                    if (white) {
+                        whitePawns |= 1L << (y * 8 + x);
+                    } else {
+                        blackPawns |= 1L << (y * 8 + x);
+                    }
+                    break;
+                case KNIGHT:
+                    value = 320 + KNIGHT_TABLE[tableIndex];
+                    break;
+                case BISHOP:
+                    value = 330 + BISHOP_TABLE[tableIndex];
+                    break;
+                case ROOK:
+                    value = 500 + ROOK_TABLE[tableIndex];
+                    break;
+                case QUEEN:
+                    value = 900 + QUEEN_TABLE[tableIndex];
+                    break;
+                case KING:
+                default:
+                    value = KING_TABLE[tableIndex];
+                    if (white) {
+                        whiteKing = y * 8 + x;
+                    } else {
+                        blackKing = y * 8 + x;
+                    }
+                    break;
+            }
+            score += white ? value : -value;
+        }
+
+        score += pawnStructure(board.pawnKey(), whitePawns, blackPawns, whiteKing, blackKing);
+
+        return board.getCurrentColor() == ChessPiece.Color.WHITE ? score : -score;
+    }
+
+    // Pawn terms from white's point of view, taken from the cache when possible
+    int pawnStructure(long pawnKey, long whitePawns, long blackPawns, int whiteKing, int blackKing) {
+        int slot = pawnTable.probe(pawnKey);
+        if (slot == -1) {
+            slot = pawnTable.store(pawnKey,
+                    pawnTerms(whitePawns, blackPawns, true),
+                    pawnTerms(blackPawns, whitePawns, false));
+        }
+
+        if (!pawnTable.hasShelter(slot, true, whiteKing)) {
+            pawnTable.storeShelter(slot, true, whiteKing, kingShelter(whitePawns, whiteKing, true));
+        }
+        if (!pawnTable.hasShelter(slot, false, blackKing)) {
+            pawnTable.storeShelter(slot, false, blackKing, kingShelter(blackPawns, blackKing, false));
+        }
+
+        return pawnTable.score(slot, true) + pawnTable.shelter(slot, true)
+                - pawnTable.score(slot, false) - pawnTable.shelter(slot, false);
+    }
+
+    static final int DOUBLED_PENALTY = 15;
+    static final int ISOLATED_PENALTY = 15;
+    static final int BACKWARD_PENALTY = 10;
+    // By the number of steps the pawn has made
+    static final int[] PASSED_BONUS = { 0, 5, 10, 20, 35, 60, 100, 0 };
+    static final int SHELTER_PAWN_BONUS = 10;
+    static final int MISSING_SHELTER_PENALTY = 15;
+
+    // Passed, doubled, isolated and backward pawns of one side
+    static int pawnTerms(long own, long enemy, boolean white) {
+        int score = 0;
+
+        for (long pawns = own; pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            int x = square & 7, y = square >> 3;
+            long file = FILE_MASKS[x];
+            long adjacent = ADJACENT_FILES[x];
+
+            long ahead = white ? ~0L << (8 * (y + 1)) : ~0L >>> (8 * (8 - y));
+            if (y == 7 && white || y == 0 && !white) {
+                ahead = 0;
+            }
+
+            // Count only the rear pawn of a doubled pair
+            if ((own & file & ahead) != 0) {
+                score -= DOUBLED_PENALTY;
+            }
+
+            if ((enemy & (file | adjacent) & ahead) == 0) {
+                score += PASSED_BONUS[white ? y : 7 - y];
+            }
+
+            if ((own & adjacent) == 0) {
+                score -= ISOLATED_PENALTY;
+            } else if ((own & adjacent & ~ahead) == 0) {
+                // No friendly pawn beside or behind can defend it when it advances
+                int stop = white ? square + 8 : square - 8;
+                if (stop >= 0 && stop < 64 && (pawnAttacks(enemy, !white) & (1L << stop)) != 0) {
+                    score -= BACKWARD_PENALTY;
+                }
+            }
+        }
+        return score;
+    }
+
+    // Pawns right in front of the king and on the neighbouring files
+    static int kingShelter(long own, int kingSquare, boolean white) {
+        int x = kingSquare & 7, y = kingSquare >> 3;
+        int score = 0;
+
+        for (int file = Math.max(0, x - 1); file <= Math.min(7, x + 1); file++) {
+            int first = white ? y + 1 : y - 1, second = white ? y + 2 : y - 2;
+            if (first >= 0 && first < 8 && (own & (1L << (first * 8 + file))) != 0) {
+                score += SHELTER_PAWN_BONUS;
+            } else if (second >= 0 && second < 8 && (own & (1L << (second * 8 + file))) != 0) {
+                score += SHELTER_PAWN_BONUS / 2;
+            } else {
+                score -= MISSING_SHELTER_PENALTY;
+            }
+        }
+        return score;
+    }
+
+    static long pawnAttacks(long pawns, boolean white) {
+        long notFileA = ~FILE_MASKS[0], notFileH = ~FILE_MASKS[7];
+        if (white) {
+            return ((pawns & notFileA) << 7) | ((pawns & notFileH) << 9);
+        }
+        return ((pawns & notFileA) >>> 9) | ((pawns & notFileH) >>> 7);
+    }
+
+    static final long[] FILE_MASKS = new long[8];
+    static final long[] ADJACENT_FILES = new long[8];
+
+    static {
+        for (int x = 0; x < 8; x++) {
+            FILE_MASKS[x] = 0x0101010101010101L << x;
+        }
+        for (int x = 0; x < 8; x++) {
+            ADJACENT_FILES[x] = (x > 0 ? FILE_MASKS[x - 1] : 0) | (x < 7 ? FILE_MASKS[x + 1] : 0);
+        }
+    }
+
+    // Piece-square tables, white's point of view, rank 8 first
+    static final int[] PAWN_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0 };
+
+    static final int[] KNIGHT_TABLE = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50 };
+
+    static final int[] BISHOP_TABLE = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20 };
+
+    static final int[] ROOK_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0 };
+
+    static final int[] QUEEN_TABLE = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20 };
+
+    static final int[] KING_TABLE = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20 };
+}
@@ -0,0 +1,147 @@
+package chess.Eval;
+
+import chess.Logic.BoardListener;
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+
+// Evaluates positions of one board with an NnueNetwork
+// The first layer is kept up to date by listening to the board: every piece added
+// or removed by MoveGeneration (also when undoing moves) adds or subtracts one weight
+// column, so an evaluation only has to run the small dense layers
+//
+// With jdk.incubator.vector (java --add-modules jdk.incubator.vector) the dense layer and the
+// accumulator updates use the Vector API, otherwise plain loops over flat arrays, which HotSpot
+// may still auto-vectorize
+public class NnueEvaluator implements BoardListener {
+    // The module is optional, the JVM only resolves it when asked to
+    public static final boolean VECTORS_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private final NnueNetwork network;
+    private final ChessBoard board;
+    private final boolean vectors;
+
+    // First layer outputs from white's and black's point of view
+    private final short[] whiteAccumulator;
+    private final short[] blackAccumulator;
+
+    // Scratch buffers, so evaluate() does not allocate
+    private final int[] input;
+    private final int[] hiddenOutput;
+
+    public NnueEvaluator(NnueNetwork network, ChessBoard board) {
+        this(network, board, true);
+    }
+
+    // useVectors false forces the plain loops, for comparing the two
+    public NnueEvaluator(NnueNetwork network, ChessBoard board, boolean useVectors) {
+        this.network = network;
+        this.board = board;
+        this.vectors = useVectors && VECTORS_AVAILABLE;
+
+        whiteAccumulator = new short[network.hidden];
+        blackAccumulator = new short[network.hidden];
+        input = new int[network.hidden * 2];
+        hiddenOutput = new int[network.l2];
+
+        board.addListener(this);
+        positionSet(board);
+    }
+
+    public boolean usesVectors() {
+        return vectors;
+    }
+
+    // Stops following the board
+    public void detach() {
+        board.removeListener(this);
+    }
+
+    // Centipawns from the side to move point of view
+    public int evaluate() {
+        int hidden = network.hidden;
+        boolean whiteToMove = board.getCurrentColor() == ChessPiece.Color.WHITE;
+        short[] us = whiteToMove ? whiteAccumulator : blackAccumulator;
+        short[] them = whiteToMove ? blackAccumulator : whiteAccumulator;
+
+        // Clipped ReLU
+        for (int i = 0; i < hidden; i++) {
+            input[i] = Math.min(Math.max(us[i], 0), NnueNetwork.ACC_CLIP);
+        }
+        for (int i = 0; i < hidden; i++) {
+            input[hidden + i] = Math.min(Math.max(them[i], 0), NnueNetwork.ACC_CLIP);
+        }
+
+        int[] weights = network.l1Weights;
+        int inputs = hidden * 2;
+        for (int j = 0; j < network.l2; j++) {
+            int row = j * inputs;
+            int sum;
+            if (vectors) {
+                sum = NnueVectors.dot(input, weights, row, inputs);
+            } else {
+                sum = 0;
+                for (int i = 0; i < inputs; i++) {
+                    sum += input[i] * weights[row + i];
+                }
+            }
+            sum = (network.l1Biases[j] + sum) >> NnueNetwork.L1_SHIFT;
+            hiddenOutput[j] = Math.min(Math.max(sum, 0), NnueNetwork.ACC_CLIP);
+        }
+
+        int output = network.outBias;
+        for (int j = 0; j < network.l2; j++) {
+            output += hiddenOutput[j] * network.outWeights[j];
+        }
+        return output / NnueNetwork.OUTPUT_DIVISOR;
+    }
+
+    // Recomputes the accumulators from scratch
+    @Override
+    public void positionSet(ChessBoard board) {
+        System.arraycopy(network.featureBiases, 0, whiteAccumulator, 0, network.hidden);
+        System.arraycopy(network.featureBiases, 0, blackAccumulator, 0, network.hidden);
+
+        for (ChessPiece piece : board) {
+            pieceAdded(piece, piece.pos().y * 8 + piece.pos().x);
+        }
+    }
+
+    @Override
+    public void pieceAdded(ChessPiece piece, int square) {
+        short[] weights = network.featureWeights;
+        int white = NnueNetwork.featureOffset(true, piece.color(), piece.getName(), square, network.hidden);
+        int black = NnueNetwork.featureOffset(false, piece.color(), piece.getName(), square, network.hidden);
+
+        if (vectors) {
+            NnueVectors.add(whiteAccumulator, weights, white);
+            NnueVectors.add(blackAccumulator, weights, black);
+            return;
+        }
+        for (int i = 0; i < network.hidden; i++) {
+            whiteAccumulator[i] += weights[white + i];
+        }
+        for (int i = 0; i < network.hidden; i++) {
+            blackAccumulator[i] += weights[black + i];
+        }
+    }
+
+    @Override
+    public void pieceRemoved(ChessPiece piece, int square) {
+        short[] weights = network.featureWeights;
+        int white = NnueNetwork.featureOffset(true, piece.color(), piece.getName(), square, network.hidden);
+        int black = NnueNetwork.featureOffset(false, piece.color(), piece.getName(), square, network.hidden);
+
+        if (vectors) {
+            NnueVectors.subtract(whiteAccumulator, weights, white);
+            NnueVectors.subtract(blackAccumulator, weights, black);
+            return;
+        }
+        for (int i = 0; i < network.hidden; i++) {
+            whiteAccumulator[i] -= weights[white + i];
+        }
+        for (int i = 0; i < network.hidden; i++) {
+            blackAccumulator[i] -= weights[black + i];
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package chess.Eval;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+import chess.Logic.ChessPiece;
+
+// Weights of a small efficiently updatable network:
+// 768 inputs (6 piece types * 2 colors * 64 squares, seen from one side)
+// -> HIDDEN accumulator per side -> L2 -> 1
+//
+// File layout, little-endian:
+//   int magic, int hidden, int l2
+//   short featureWeights[768 * hidden]  (feature-major)
+//   short featureBiases[hidden]
+//   short l1Weights[l2 * 2 * hidden]    (row-major, side to move half first)
+//   int   l1Biases[l2]
+//   short outWeights[l2]
+//   int   outBias
+public class NnueNetwork {
+    static final int MAGIC = 0x314E4E43; // "CNN1"
+    public static final int FEATURES = 768;
+
+    // Accumulator values are clipped to [0, ACC_CLIP] before the dense layers
+    static final int ACC_CLIP = 127;
+    // The hidden layer output is shifted down by L1_SHIFT and clipped to [0, ACC_CLIP]
+    static final int L1_SHIFT = 6;
+    // The output is divided by this to get centipawns
+    static final int OUTPUT_DIVISOR = 64;
+
+    final int hidden;
+    final int l2;
+
+    final short[] featureWeights;
+    final short[] featureBiases;
+    // Widened to int on load, int multiply-add loops vectorize better than short ones
+    final int[] l1Weights;
+    final int[] l1Biases;
+    final short[] outWeights;
+    final int outBias;
+
+    NnueNetwork(int hidden, int l2, short[] featureWeights, short[] featureBiases,
+            int[] l1Weights, int[] l1Biases, short[] outWeights, int outBias) {
+        this.hidden = hidden;
+        this.l2 = l2;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.l1Weights = l1Weights;
+        this.l1Biases = l1Biases;
+        this.outWeights = outWeights;
+        this.outBias = outBias;
+    }
+
+    // Maps the file and copies the weights into flat arrays, so the hot loops
+    // work on plain primitive arrays
+    public static NnueNetwork load(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a network file: " + file);
+        }
+        int hidden = buffer.getInt();
+        int l2 = buffer.getInt();
+        if (hidden <= 0 || l2 <= 0 || buffer.remaining() != dataSize(hidden, l2)) {
+            throw new IOException("Corrupted network file: " + file);
+        }
+
+        short[] featureWeights = readShorts(buffer, FEATURES * hidden);
+        short[] featureBiases = readShorts(buffer, hidden);
+        int[] l1Weights = widen(readShorts(buffer, l2 * 2 * hidden));
+        int[] l1Biases = new int[l2];
+        buffer.asIntBuffer().get(l1Biases);
+        buffer.position(buffer.position() + l2 * 4);
+        short[] outWeights = readShorts(buffer, l2);
+        int outBias = buffer.getInt();
+
+        return new NnueNetwork(hidden, l2, featureWeights, featureBiases, l1Weights, l1Biases, outWeights, outBias);
+    }
+
+    public void write(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12 + dataSize(hidden, l2)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(hidden).putInt(l2);
+        buffer.asShortBuffer().put(featureWeights);
+        buffer.position(buffer.position() + featureWeights.length * 2);
+        buffer.asShortBuffer().put(featureBiases);
+        buffer.position(buffer.position() + featureBiases.length * 2);
+        for (int weight : l1Weights) {
+            buffer.putShort((short) weight);
+        }
+        buffer.asIntBuffer().put(l1Biases);
+        buffer.position(buffer.position() + l1Biases.length * 4);
+        buffer.asShortBuffer().put(outWeights);
+        buffer.position(buffer.position() + outWeights.length * 2);
+        buffer.putInt(outBias);
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    // Untrained network with small random weights, for benchmarks and tests
+    public static NnueNetwork random(int hidden, int l2, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        short[] featureWeights = new short[FEATURES * hidden];
+        for (int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (short) random.nextInt(-8, 9);
+        }
+        short[] featureBiases = new short[hidden];
+        for (int i = 0; i < hidden; i++) {
+            featureBiases[i] = (short) random.nextInt(0, 32);
+        }
+        int[] l1Weights = new int[l2 * 2 * hidden];
+        for (int i = 0; i < l1Weights.length; i++) {
+            l1Weights[i] = random.nextInt(-16, 17);
+        }
+        int[] l1Biases = new int[l2];
+        short[] outWeights = new short[l2];
+        for (int i = 0; i < l2; i++) {
+            outWeights[i] = (short) random.nextInt(-64, 65);
+        }
+
+        return new NnueNetwork(hidden, l2, featureWeights, featureBiases, l1Weights, l1Biases, outWeights, 0);
+    }
+
+    public int hidden() {
+        return hidden;
+    }
+
+    // Offset of the feature's weights, as seen from the perspective side
+    // Own pieces come first, the board is mirrored for black, so both sides see the same thing
+    static int featureOffset(boolean whitePerspective, ChessPiece.Color color, ChessPiece.Name name,
+            int square, int hidden) {
+        boolean own = (color == ChessPiece.Color.WHITE) == whitePerspective;
+        int feature = ((own ? 0 : 6) + name.ordinal()) * 64 + (whitePerspective ? square : square ^ 56);
+        return feature * hidden;
+    }
+
+    private static int dataSize(int hidden, int l2) {
+        return (FEATURES * hidden + hidden + l2 * 2 * hidden) * 2 + l2 * 4 + l2 * 2 + 4;
+    }
+
+    private static int[] widen(short[] values) {
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+
+    private static short[] readShorts(ByteBuffer buffer, int count) {
+        short[] values = new short[count];
+        buffer.asShortBuffer().get(values);
+        buffer.position(buffer.position() + count * 2);
+        return values;
+    }
+}
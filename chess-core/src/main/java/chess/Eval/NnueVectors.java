@@ -0,0 +1,56 @@
+package chess.Eval;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// NnueEvaluator loops written with the Vector API, at the widest vector size of the CPU
+// The class is only loaded when jdk.incubator.vector is there, see NnueEvaluator.VECTORS_AVAILABLE
+final class NnueVectors {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+
+    private NnueVectors() {
+    }
+
+    // Sum of a[i] * b[offset + i] for i below length
+    static int dot(int[] a, int[] b, int offset, int length) {
+        IntVector sums = IntVector.zero(INTS);
+        int i = 0;
+        for (int bound = INTS.loopBound(length); i < bound; i += INTS.length()) {
+            sums = IntVector.fromArray(INTS, a, i).mul(IntVector.fromArray(INTS, b, offset + i)).add(sums);
+        }
+        int sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[i] * b[offset + i];
+        }
+        return sum;
+    }
+
+    // accumulator[i] += weights[offset + i]
+    static void add(short[] accumulator, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(accumulator.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    // accumulator[i] -= weights[offset + i]
+    static void subtract(short[] accumulator, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(accumulator.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .sub(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+}
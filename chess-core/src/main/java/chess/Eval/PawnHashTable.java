@@ -0,0 +1,118 @@
+package chess.Eval;
+
+import java.util.Arrays;
+
+// Cache of pawn structure terms, indexed by ChessBoard.pawnKey()
+// Pawns move rarely compared to other pieces, so most evaluated positions
+// share the pawn structure with some position evaluated before
+//
+// One table belongs to a single searching thread, it is not synchronized
+public class PawnHashTable {
+    // One element of each array below: key, used flag, two scores, two king squares and two shelters
+    static final int ENTRY_SIZE = Long.BYTES + 1 + 2 * Integer.BYTES + 2 * Byte.BYTES + 2 * Integer.BYTES;
+
+    private final int mask;
+
+    private final long[] keys;
+    private final boolean[] used;
+    // Passed, doubled, isolated and backward pawns
+    private final int[] whiteScores;
+    private final int[] blackScores;
+    // King shelter depends on the king square as well, so it is cached
+    // for the king square it was computed for
+    private final byte[] whiteKings;
+    private final byte[] blackKings;
+    private final int[] whiteShelters;
+    private final int[] blackShelters;
+
+    private long hits;
+    private long misses;
+
+    // Size in kilobytes, rounded down to a power of two number of entries
+    public PawnHashTable(int sizeKB) {
+        int entries = Integer.highestOneBit(Math.max(1, (int) (sizeKB * 1024L / ENTRY_SIZE)));
+        mask = entries - 1;
+
+        keys = new long[entries];
+        used = new boolean[entries];
+        whiteScores = new int[entries];
+        blackScores = new int[entries];
+        whiteKings = new byte[entries];
+        blackKings = new byte[entries];
+        whiteShelters = new int[entries];
+        blackShelters = new int[entries];
+    }
+
+    public PawnHashTable() {
+        this(1024);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    public double hitRate() {
+        long probes = hits + misses;
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        hits = 0;
+        misses = 0;
+    }
+
+    // Returns the slot of the entry, or -1 if the structure is not cached
+    int probe(long pawnKey) {
+        int slot = (int) pawnKey & mask;
+        if (used[slot] && keys[slot] == pawnKey) {
+            hits++;
+            return slot;
+        }
+        misses++;
+        return -1;
+    }
+
+    // Replaces whatever was in the slot
+    int store(long pawnKey, int whiteScore, int blackScore) {
+        int slot = (int) pawnKey & mask;
+        used[slot] = true;
+        keys[slot] = pawnKey;
+        whiteScores[slot] = whiteScore;
+        blackScores[slot] = blackScore;
+        // No shelter is known yet
+        whiteKings[slot] = -1;
+        blackKings[slot] = -1;
+        return slot;
+    }
+
+    int score(int slot, boolean white) {
+        return white ? whiteScores[slot] : blackScores[slot];
+    }
+
+    boolean hasShelter(int slot, boolean white, int kingSquare) {
+        return (white ? whiteKings[slot] : blackKings[slot]) == kingSquare;
+    }
+
+    int shelter(int slot, boolean white) {
+        return white ? whiteShelters[slot] : blackShelters[slot];
+    }
+
+    void storeShelter(int slot, boolean white, int kingSquare, int shelter) {
+        if (white) {
+            whiteKings[slot] = (byte) kingSquare;
+            whiteShelters[slot] = shelter;
+        } else {
+            blackKings[slot] = (byte) kingSquare;
+            blackShelters[slot] = shelter;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package chess.Logic;
+
+// Gets notified about every change of piece placement on a ChessBoard,
+// both when moves are made and when they are undone
+// Squares are y * 8 + x
+public interface BoardListener {
+    // The whole position was replaced, e.g. loaded from FEN
+    void positionSet(ChessBoard board);
+
+    void pieceAdded(ChessPiece piece, int square);
+
+    void pieceRemoved(ChessPiece piece, int square);
+}
@@ -0,0 +1,761 @@
+package chess.Logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+
+import chess.Vector;
+import chess.Logic.ChessBoard.KingStatus.CheckState;
+import chess.Logic.ChessPiece.Color;
+import chess.Logic.ChessPiece.Name;
+import chess.Moves.Castling;
+import chess.Moves.Move;
+import chess.Moves.PackedMove;
+import chess.Moves.Promotion;
+import chess.Moves.Castling.Side;
+
+// This class is used to keep track of the state of the board,
+// determining legal moves and
+// Importing and exporting FEN strings
+public class ChessBoard implements Iterable<ChessPiece> {
+
+    public enum GameResult {
+        NONE, WHITE_WON, BLACK_WON, DRAW
+    }
+
+    public GameResult gameResult = GameResult.NONE;
+
+    public ChessBoard() {
+        // All the variables are set up in the setPosition() function
+    }
+
+    public ChessBoard(String FEN) {
+        setPosition(FEN);
+    }
+
+    @Override
+    public Iterator<ChessPiece> iterator() {
+        return chessBoardList.iterator();
+    }
+
+    // The history only keeps the packed move, so this builds a new Move
+    public Move peekLastMove() {
+        if (history.isEmpty()) {
+            return null;
+        }
+        short packed = history.move();
+        ChessPiece piece = history.piece();
+        Vector from = square(PackedMove.from(packed));
+        Vector to = square(PackedMove.to(packed));
+
+        if (piece.getName() == Name.KING && Math.abs(to.x - from.x) == 2) {
+            return new Castling(piece, from, to, to.x > from.x ? Side.SHORT : Side.LONG);
+        }
+        if (piece.getName() == Name.PAWN && (to.y == 0 || to.y == 7)) {
+            Promotion.PromoteTo promoteTo = PackedMove.promotion(packed);
+            return new Promotion(piece, from, to, history.captured(),
+                    promoteTo == null ? Promotion.PromoteTo.QUEEN : promoteTo);
+        }
+        return new Move(piece, from, to, history.captured());
+    }
+
+    public boolean isInCheck() {
+        return getStatus(whiteToMove).checkState != CheckState.NONE;
+    }
+
+    public ChessPiece getPiece(Vector pos) {
+        return chessBoard[pos.y][pos.x];
+    }
+
+    public ChessPiece.Color getCurrentColor() {
+        return whiteToMove ? ChessPiece.Color.WHITE : ChessPiece.Color.BLACK;
+    }
+
+    public KingStatus getStatus(ChessPiece.Color color) {
+        return color == Color.WHITE ? WKingSt : BKingSt;
+    }
+
+    public KingStatus getStatus(boolean whiteToMove) {
+        return whiteToMove ? WKingSt : BKingSt;
+    }
+
+    // Zobrist key of the whole position
+    public long positionKey() {
+        return positionKey;
+    }
+
+    // Zobrist key of the pawns only, used by the pawn structure cache
+    public long pawnKey() {
+        return pawnKey;
+    }
+
+    boolean isUnderAttack(Vector pos, ChessPiece.Color color) {
+        if (color == ChessPiece.Color.WHITE) {
+            return WKingSt.attackedSquares.get(pos.y * 8 + pos.x);
+        } else {
+            return BKingSt.attackedSquares.get(pos.y * 8 + pos.x);
+        }
+    }
+
+    // Draw when the position occurs for the third time, counted by its key in the history
+    void checkRepetition() {
+        if (history.repetitions(positionKey, halfMoveClock) >= 2) {
+            gameResult = GameResult.DRAW;
+        }
+    }
+
+    /// These variables describe board state, everything, that can be deduced
+    /// from
+    /// reading FEN string
+
+    // Two different representations of a board
+    // Array is used to access pieces by position,
+    // List is used to iterate through all the pieces
+    public ChessPiece[][] chessBoard;
+    public List<ChessPiece> chessBoardList;
+
+    // Moves played since the position was set, with what cannot be deduced when undoing them
+    final UndoStack history = new UndoStack(64);
+    // It is an array of 4 elements, it stores data on which side can castle,
+    // Data is stored in this order: WShort, WLong, BShort, BLong
+    // Does not account for temporary castling restrictions, i.e. checks or blocks
+    private boolean[] castlingRights;
+    private boolean whiteToMove;
+    // how many moves both players have made since the last pawn advance or piece
+    // capture
+    // Used to enforce 50-move draw rule (no capture has been made and no pawn has
+    // been moved in the last fifty moves)
+    int halfMoveClock;
+    // Increments after the black move
+    private int fullMoveClock;
+    // Keeps track of double pawn moves (position behind the pawn)
+    // If a pawn can attack the square, stored in this variable, then it is able
+    // to make the French move
+    public Vector enPassant;
+
+    // Updated with every change the moves make: pieces added, removed or moved, castling rights,
+    // side to move and en passant. Computed from scratch only when a position is set.
+    private long positionKey;
+    private long pawnKey;
+    // En passant part of positionKey, 0 if there is none
+    private long enPassantKey;
+
+    private void resetKeys() {
+        positionKey = Zobrist.hash(this);
+        pawnKey = Zobrist.pawnHash(this);
+        enPassantKey = Zobrist.enPassantKey(this);
+    }
+
+    // Whether an en passant capture is possible depends on the pieces next to the pawn,
+    // so that part of the key is replaced once a move or an undo is complete
+    void updateKeys() {
+        positionKey ^= enPassantKey;
+        enPassantKey = Zobrist.enPassantKey(this);
+        positionKey ^= enPassantKey;
+    }
+
+    private void togglePiece(ChessPiece piece, int x, int y) {
+        long key = Zobrist.pieceKey(piece.getName(), piece.color, x, y);
+        positionKey ^= key;
+        if (piece.getName() == Name.PAWN) {
+            pawnKey ^= key;
+        }
+    }
+
+    private void setCastlingRight(int index, boolean value) {
+        if (castlingRights[index] != value) {
+            castlingRights[index] = value;
+            positionKey ^= Zobrist.RANDOM[Zobrist.CASTLING_OFFSET + index];
+        }
+    }
+
+    // Squares for restoring enPassant without allocating, enPassant is never modified in place
+    private static final Vector[] squares = new Vector[64];
+
+    static {
+        for (int i = 0; i < 64; i++) {
+            squares[i] = new Vector(i % 8, i / 8);
+        }
+    }
+
+    private static Vector square(int index) {
+        return new Vector(squares[index]);
+    }
+
+    // Called before the move changes anything, the captured piece is added by the move
+    void addBoardState(Move move) {
+        history.push(PackedMove.pack(move), move.piece, castlingMask(),
+                enPassant == null ? 0 : enPassant.y * 8 + enPassant.x + 1, halfMoveClock, positionKey);
+    }
+
+    // Load prev board state and drop the last move
+    void loadBoardState() {
+        for (int i = 0; i < 4; i++) {
+            setCastlingRight(i, (history.castlingMask() & 1 << i) != 0);
+        }
+        halfMoveClock = history.halfMoveClock();
+        enPassant = history.enPassant() == 0 ? null : squares[history.enPassant() - 1];
+        history.pop();
+        gameResult = GameResult.NONE;
+    }
+
+    void resetHalfmoveClock() {
+        halfMoveClock = 0;
+    }
+
+    void incrementClocks() {
+        if (!whiteToMove)
+            fullMoveClock++;
+        halfMoveClock++;
+        whiteToMove ^= true;
+        positionKey ^= Zobrist.RANDOM[Zobrist.TURN_OFFSET];
+    }
+
+    void decrementClocks() {
+        if (whiteToMove) {
+            fullMoveClock--;
+        }
+        whiteToMove ^= true;
+        positionKey ^= Zobrist.RANDOM[Zobrist.TURN_OFFSET];
+    }
+
+    void updateCastlingRights(ChessPiece.Color color, Side side) {
+        int index = color == Color.WHITE ? 0 : 2;
+        index += side == Side.SHORT ? 0 : 1;
+        setCastlingRight(index, false);
+    }
+
+    // All the changes of piece placement go through movePiece, addPiece and removePiece,
+    // so the keys and the listeners see every one of them
+    void movePiece(Move move) {
+        move.piece.pos = move.to;
+        chessBoard[move.to.y][move.to.x] = move.piece;
+        chessBoard[move.from.y][move.from.x] = null;
+        togglePiece(move.piece, move.from.x, move.from.y);
+        togglePiece(move.piece, move.to.x, move.to.y);
+
+        for (BoardListener listener : listeners) {
+            listener.pieceRemoved(move.piece, move.from.y * 8 + move.from.x);
+            listener.pieceAdded(move.piece, move.to.y * 8 + move.to.x);
+        }
+    }
+
+    void addPiece(ChessPiece piece) {
+        chessBoard[piece.pos.y][piece.pos.x] = piece;
+        chessBoardList.add(piece);
+        togglePiece(piece, piece.pos.x, piece.pos.y);
+
+        for (BoardListener listener : listeners) {
+            listener.pieceAdded(piece, piece.pos.y * 8 + piece.pos.x);
+        }
+    }
+
+    void removePiece(ChessPiece piece) {
+        // A captured piece may already be replaced by the capturing one
+        if (chessBoard[piece.pos.y][piece.pos.x] == piece) {
+            chessBoard[piece.pos.y][piece.pos.x] = null;
+        }
+        chessBoardList.remove(piece);
+        togglePiece(piece, piece.pos.x, piece.pos.y);
+
+        for (BoardListener listener : listeners) {
+            listener.pieceRemoved(piece, piece.pos.y * 8 + piece.pos.x);
+        }
+    }
+
+    private final List<BoardListener> listeners = new ArrayList<>();
+
+    public void addListener(BoardListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(BoardListener listener) {
+        listeners.remove(listener);
+    }
+
+    boolean[] castling() {
+        return castlingRights;
+    }
+
+    boolean whiteToMove() {
+        return whiteToMove;
+    }
+
+    int fullMoveClock() {
+        return fullMoveClock;
+    }
+
+    Vector enPassant() {
+        return enPassant;
+    }
+
+    // Update toBLockSq and Pinned pieces
+    void updateKingStatus(KingStatus kStatus) {
+        ChessPiece king = getPiece(kStatus.kingPos);
+
+        // Candidate variables
+        ChessPiece pinned;
+        BitSet toBlock = new BitSet(64);
+
+        for (int directionIndex = 0; directionIndex < 8; directionIndex++) {
+            Vector pos = new Vector(king.pos);
+            pinned = null;
+            toBlock.clear();
+
+            for (int i = 0; i < ChessPiece.iterationsToEdge(king.pos, directionIndex); i++) {
+                pos.add(ChessPiece.directionOffsets[directionIndex]);
+
+                ChessPiece piece = getPiece(pos);
+                if (piece == null) {
+                    if (pinned != null && !isUnderAttack(pos, king.color)) {
+                        break;
+                    }
+                    toBlock.set(pos.y * 8 + pos.x);
+                    continue;
+                }
+                if (piece.color == king.color) {
+                    if (!isUnderAttack(pos, king.color)) {
+                        break;
+                    }
+                    if (pinned != null) {
+                        break;
+                    } else {
+                        pinned = piece;
+                        continue;
+                    }
+                }
+
+                if (piece.getName() == Name.QUEEN ||
+                        (piece.getName() == Name.BISHOP && directionIndex >= 4) ||
+                        (piece.getName() == Name.ROOK && directionIndex < 4)) {
+                    if (pinned != null) {
+                        pinned.pinnedDirection.add(ChessPiece.directionOffsets[directionIndex]);
+                        kStatus.pinnedPieces.set(pinned.pos.y * 8 + pinned.pos.x);
+                    } else {
+                        toBlock.set(pos.y * 8 + pos.x);
+                        kStatus.addAttacker();
+                        kStatus.toBlockSq.or(toBlock);
+                    }
+                }
+                break;
+            }
+        }
+
+        king.generatePossibleMoves();
+    }
+
+    // It is all about checks and pins
+    public static class KingStatus {
+        // If a king is under a check, an unpinned piece can block this check
+        // if a king is under a double check, no other piece can move
+        public enum CheckState {
+            NONE, SINGLE, DOUBLE
+        }
+
+        KingStatus(Vector kingPos) {
+            this.kingPos = kingPos;
+            checkState = CheckState.NONE;
+            pinnedPieces = new BitSet(64);
+            toBlockSq = new BitSet(64);
+            attackedSquares = new BitSet(64);
+        }
+
+        // Reset all variables except KingPos
+        public void resetStatus() {
+            checkState = CheckState.NONE;
+            pinnedPieces.clear();
+            toBlockSq.clear();
+            attackedSquares.clear();
+        }
+
+        public void addAttacker() {
+            checkState = checkState == CheckState.NONE ? CheckState.SINGLE : CheckState.DOUBLE;
+        }
+
+        public Vector kingPos;
+        // Pieces, that cannot move, because it will result
+        // in opening the king to the check
+        public BitSet pinnedPieces;
+        // Keeps track of squares, that can be occupied to block the check
+        // Not used in the case of double check
+        public BitSet toBlockSq;
+        public CheckState checkState;
+        // Keep track of all the squares, attacked by enemy pieces
+        public BitSet attackedSquares;
+    }
+
+    public KingStatus WKingSt;
+    public KingStatus BKingSt;
+
+    /// FEN
+    // Load the position from the FEN string
+    // The string is scanned in place and the arrays and collections of the board are reused,
+    // so loading many positions into one board allocates little more than the pieces
+    public void setPosition(CharSequence FEN) {
+        // Fields are separated by single spaces:
+        // Piece placement, active color, castling rights, en passant target,
+        // halfmove clock and fullmove clock
+        // All of them are checked before the board is cleared, a bad FEN keeps the previous position
+        int start = 0;
+        int end = fieldEnd(FEN, start);
+
+        /// Piece placement
+        int placementEnd = end;
+        scanPlacement(FEN, placementEnd, false);
+        /// Piece placement
+
+        /// Active color
+        start = end + 1;
+        end = fieldEnd(FEN, start);
+        if (end - start != 1) {
+            throw new IllegalArgumentException("Incorrect FEN!");
+        }
+        boolean white;
+        if (FEN.charAt(start) == 'w') {
+            white = true;
+        } else if (FEN.charAt(start) == 'b') {
+            white = false;
+        } else {
+            throw new IllegalArgumentException("Incorrect FEN!");
+        }
+        /// Active color
+
+        /// Castling rights
+        start = end + 1;
+        end = fieldEnd(FEN, start);
+        if (end == start || end - start > 4) {
+            throw new IllegalArgumentException("Incorrect FEN!");
+        }
+        // Bits in the order of castlingRights
+        int castling = 0;
+        for (int i = start; i < end; i++) {
+            switch (FEN.charAt(i)) {
+                case '-':
+                    break;
+                case 'K':
+                    castling |= 1;
+                    break;
+                case 'Q':
+                    castling |= 2;
+                    break;
+                case 'k':
+                    castling |= 4;
+                    break;
+                case 'q':
+                    castling |= 8;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Incorrect FEN!");
+            }
+        }
+        /// Castling rights
+
+        /// Other
+        // Transform the position notation (a3, e4, etc.) into pos
+        start = end + 1;
+        end = fieldEnd(FEN, start);
+        Vector epSquare;
+        if (end - start == 1 && FEN.charAt(start) == '-') {
+            epSquare = null;
+        } else if (end - start == 2) {
+            int epX = FEN.charAt(start) - 'a';
+            int epY = FEN.charAt(start + 1) - '1';
+            if (epX > 7 || epX < 0 || epY > 7 || epY < 0) {
+                throw new IllegalArgumentException("Incorrect FEN!");
+            }
+            epSquare = new Vector(epX, epY);
+        } else {
+            throw new IllegalArgumentException("Incorrect FEN!");
+        }
+
+        start = end + 1;
+        end = fieldEnd(FEN, start);
+        int halfMoves = parseClock(FEN, start, end);
+        start = end + 1;
+        end = fieldEnd(FEN, start);
+        int fullMoves = parseClock(FEN, start, end);
+        // Only trailing spaces may follow
+        for (int i = end; i < FEN.length(); i++) {
+            if (FEN.charAt(i) != ' ') {
+                throw new IllegalArgumentException("Incorrect FEN!");
+            }
+        }
+        /// Other
+
+        clearPosition();
+        scanPlacement(FEN, placementEnd, true);
+        setState(white, castling, epSquare, halfMoves, fullMoves);
+        finishPosition();
+    }
+
+    // Walks the piece placement field, which starts the FEN and ends at end
+    // Checks it and the number of kings, or places the pieces once it was checked
+    private void scanPlacement(CharSequence FEN, int end, boolean place) {
+        int whiteKings = 0, blackKings = 0;
+        int x = 0, y = 7;
+        for (int i = 0; i < end; i++) {
+            char ch = FEN.charAt(i);
+            if (ch == '/') {
+                y--;
+                x = 0;
+                continue;
+            }
+            if (x > 7 || y < 0) {
+                throw new IllegalArgumentException("Incorrect FEN!");
+            }
+            if (ch >= '1' && ch <= '8') {
+                x += ch - '0';
+                continue;
+            }
+
+            ChessPiece.Name name = pieceName(ch);
+            Color color = Character.isUpperCase(ch) ? Color.WHITE : Color.BLACK;
+            if (place) {
+                placePiece(name, color, x, y);
+            } else if (name == Name.KING) {
+                if (color == Color.WHITE) {
+                    whiteKings++;
+                } else {
+                    blackKings++;
+                }
+            }
+            x++;
+        }
+        if (!place && (whiteKings != 1 || blackKings != 1)) {
+            throw new IllegalArgumentException("Incorrect FEN!");
+        }
+    }
+
+    // A position is loaded by clearPosition(), placePiece() for every piece,
+    // setState() and finishPosition(), both by the FEN parser and by PositionCodec
+    void clearPosition() {
+        if (chessBoard == null) {
+            chessBoard = new ChessPiece[8][8];
+            chessBoardList = new ArrayList<>(32);
+            castlingRights = new boolean[4];
+        } else {
+            for (ChessPiece[] rank : chessBoard) {
+                Arrays.fill(rank, null);
+            }
+            chessBoardList.clear();
+            Arrays.fill(castlingRights, false);
+            history.clear();
+        }
+        gameResult = GameResult.NONE;
+    }
+
+    void placePiece(ChessPiece.Name name, ChessPiece.Color color, int x, int y) {
+        ChessPiece newPiece;
+        switch (name) {
+            case KING:
+                newPiece = new King(new Vector(x, y), color, this);
+                if (color == Color.WHITE) {
+                    WKingSt = setKingStatus(WKingSt, newPiece.pos);
+                } else {
+                    BKingSt = setKingStatus(BKingSt, newPiece.pos);
+                }
+                break;
+            case QUEEN:
+                newPiece = new Queen(new Vector(x, y), color, this);
+                break;
+            case ROOK:
+                newPiece = new Rook(new Vector(x, y), color, this);
+                break;
+            case BISHOP:
+                newPiece = new Bishop(new Vector(x, y), color, this);
+                break;
+            case KNIGHT:
+                newPiece = new Knight(new Vector(x, y), color, this);
+                break;
+            default:
+                newPiece = new Pawn(new Vector(x, y), color, this);
+                break;
+        }
+        chessBoard[y][x] = newPiece;
+        chessBoardList.add(newPiece);
+    }
+
+    // Castling rights as bits, in the order of castlingRights
+    int castlingMask() {
+        int mask = 0;
+        for (int i = 0; i < 4; i++) {
+            if (castlingRights[i]) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    void setState(boolean whiteToMove, int castlingMask, Vector enPassant, int halfMoveClock, int fullMoveClock) {
+        this.whiteToMove = whiteToMove;
+        for (int i = 0; i < 4; i++) {
+            castlingRights[i] = (castlingMask & 1 << i) != 0;
+        }
+        this.enPassant = enPassant;
+        this.halfMoveClock = halfMoveClock;
+        this.fullMoveClock = fullMoveClock;
+    }
+
+    void finishPosition() {
+        // The king status of a previous position must not survive
+        int whiteKings = 0, blackKings = 0;
+        for (ChessPiece piece : chessBoardList) {
+            if (piece.getName() == Name.KING) {
+                if (piece.color == Color.WHITE) {
+                    whiteKings++;
+                } else {
+                    blackKings++;
+                }
+            }
+        }
+        if (whiteKings != 1 || blackKings != 1) {
+            throw new IllegalArgumentException("Incorrect FEN!");
+        }
+
+        WKingSt.resetStatus();
+        BKingSt.resetStatus();
+
+        for (ChessPiece piece : chessBoardList) {
+            piece.generatePossibleMoves();
+            getStatus(ChessPiece.invert(piece.color)).attackedSquares.or(piece.attackedSquares);
+        }
+
+        updateKingStatus(WKingSt);
+        updateKingStatus(BKingSt);
+        resetKeys();
+
+        for (BoardListener listener : listeners) {
+            listener.positionSet(this);
+        }
+    }
+
+    private static ChessPiece.Name pieceName(char ch) {
+        switch (Character.toLowerCase(ch)) {
+            case 'k':
+                return Name.KING;
+            case 'q':
+                return Name.QUEEN;
+            case 'r':
+                return Name.ROOK;
+            case 'b':
+                return Name.BISHOP;
+            case 'n':
+                return Name.KNIGHT;
+            case 'p':
+                return Name.PAWN;
+            default:
+                throw new IllegalArgumentException("Incorrect FEN!");
+        }
+    }
+
+    private static KingStatus setKingStatus(KingStatus status, Vector kingPos) {
+        if (status == null) {
+            return new KingStatus(kingPos);
+        }
+        status.kingPos = kingPos;
+        return status;
+    }
+
+    // End of the field, that starts at start
+    private static int fieldEnd(CharSequence fen, int start) {
+        if (start > fen.length()) {
+            throw new IllegalArgumentException("Incorrect FEN!");
+        }
+        int end = start;
+        while (end < fen.length() && fen.charAt(end) != ' ') {
+            end++;
+        }
+        return end;
+    }
+
+    private static int parseClock(CharSequence fen, int start, int end) {
+        // Clocks of real games have a few digits, this also keeps them from overflowing
+        if (end == start || end - start > 9) {
+            throw new IllegalArgumentException("Incorrect FEN!");
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char ch = fen.charAt(i);
+            if (ch < '0' || ch > '9') {
+                throw new IllegalArgumentException("Incorrect FEN!");
+            }
+            value = value * 10 + ch - '0';
+        }
+        return value;
+    }
+
+    // FEN letters of the black pieces, indexed by ChessPiece.Name
+    private static final char[] pieceChars = { 'k', 'q', 'r', 'n', 'b', 'p' };
+
+    // Converts the position to FEN string
+    public String toFEN() {
+        return appendFEN(new StringBuilder(90)).toString();
+    }
+
+    // Appends the FEN of the position to out, so a caller can reuse one builder
+    public StringBuilder appendFEN(StringBuilder out) {
+        /// Piece Placement
+        int emptyConsec = 0;
+        for (int y = 7; y >= 0; y--) {
+            for (int x = 0; x < 8; x++) {
+                ChessPiece piece = chessBoard[y][x];
+
+                if (piece == null) {
+                    emptyConsec++;
+                } else {
+                    if (emptyConsec != 0) {
+                        out.append((char) ('0' + emptyConsec));
+                        emptyConsec = 0;
+                    }
+
+                    char ch = pieceChars[piece.getName().ordinal()];
+                    out.append(piece.color == Color.BLACK ? ch : Character.toUpperCase(ch));
+                }
+            }
+            if (emptyConsec != 0) {
+                out.append((char) ('0' + emptyConsec));
+                emptyConsec = 0;
+            }
+            if (y != 0) {
+                out.append('/');
+            }
+        }
+        out.append(' ');
+
+        // Move
+        out.append(whiteToMove ? 'w' : 'b');
+        out.append(' ');
+
+        // Castling
+        int castlingStart = out.length();
+        if (castlingRights[0])
+            out.append('K');
+        if (castlingRights[1])
+            out.append('Q');
+        if (castlingRights[2])
+            out.append('k');
+        if (castlingRights[3])
+            out.append('q');
+        // If no castling is allowed
+        if (out.length() == castlingStart)
+            out.append('-');
+        out.append(' ');
+
+        // En passant
+        if (enPassant == null) {
+            out.append('-');
+        } else {
+            out.append((char) ('a' + enPassant.x)).append((char) ('1' + enPassant.y));
+        }
+        out.append(' ');
+
+        // Clocks
+        out.append(halfMoveClock);
+        out.append(' ');
+        out.append(fullMoveClock);
+
+        return out;
+    }
+}
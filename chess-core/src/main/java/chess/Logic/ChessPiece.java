@@ -3,9 +3,7 @@ package chess.Logic;
 import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
-
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.util.Objects;
 
 import chess.Vector;
 import chess.Moves.Move;
@@ -153,11 +151,7 @@ public abstract class ChessPiece {
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder()
-                .append(getName().hashCode())
-                .append(pos.hashCode())
-                .append(color.hashCode())
-                .toHashCode();
+        return Objects.hash(getName(), pos, color);
     }
 
     @Override
@@ -170,11 +164,9 @@ public abstract class ChessPiece {
         }
 
         ChessPiece o = (ChessPiece) other;
-        return new EqualsBuilder()
-                .append(this.pos, o.pos)
+        return Objects.equals(this.pos, o.pos)
                 // Color data is already baked into name
-                .append(this.getName(), o.getName())
-                .isEquals();
+                && this.getName() == o.getName();
     }
 }
 
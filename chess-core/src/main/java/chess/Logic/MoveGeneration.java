@@ -7,10 +7,12 @@ import chess.Logic.ChessBoard.KingStatus.CheckState;
 import chess.Logic.ChessPiece.Name;
 import chess.Moves.Castling;
 import chess.Moves.Move;
+import chess.Moves.PackedMove;
 import chess.Moves.Promotion;
 import chess.Moves.Castling.Side;
 import chess.Moves.Promotion.PromoteTo;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -26,9 +28,10 @@ public class MoveGeneration {
     // Checks if this move is possible, then updates some variables like
     // chess board, piece position, clocks, etc.
     public boolean makeAMove(Move move) {
-        if (!getPieceMoves(move.piece).contains(move))
+        if (move.piece == null || chessBoard.getPiece(move.from) != move.piece
+                || !isLegal(move.from.y * 8 + move.from.x, move.to.y * 8 + move.to.x))
             return false;
-        chessBoard.addBoardState();
+        chessBoard.addBoardState(move);
 
         if (move.piece.getName() == Name.PAWN) {
             chessBoard.resetHalfmoveClock();
@@ -81,13 +84,9 @@ public class MoveGeneration {
         }
 
         if (castling != null) {
-            chessBoard.trackMove(castling);
             chessBoard.enPassant = null;
         } else {
-            // If a capture was made, then the move was already added
-            if (!capture(move)) {
-                chessBoard.trackMove(move);
-            }
+            capture(move);
             chessBoard.enPassant = null;
             doubleMove(move);
         }
@@ -102,60 +101,109 @@ public class MoveGeneration {
     }
 
     public void undoMove() {
-        Move toUndo = chessBoard.popLastMove();
-        if (toUndo == null) {
+        UndoStack history = chessBoard.history;
+        if (history.isEmpty()) {
             return;
         }
+        short packed = history.move();
+        ChessPiece piece = history.piece();
+        ChessPiece captured = history.captured();
         chessBoard.loadBoardState();
-        chessBoard.decrementPosHash();
         chessBoard.decrementClocks();
 
-        if (toUndo instanceof Promotion) {
-            Promotion prom = (Promotion) toUndo;
+        Vector from = new Vector(PackedMove.from(packed) % 8, PackedMove.from(packed) / 8);
+        Vector to = new Vector(PackedMove.to(packed) % 8, PackedMove.to(packed) / 8);
 
-            ChessPiece newPiece = chessBoard.chessBoard[prom.to.y][prom.to.x];
-            chessBoard.chessBoardList.remove(newPiece);
+        if (piece.getName() == Name.PAWN && (to.y == 0 || to.y == 7)) {
+            // Promotion, the pawn was removed where it stood
+            ChessPiece newPiece = chessBoard.chessBoard[to.y][to.x];
+            chessBoard.removePiece(newPiece);
 
-            chessBoard.chessBoard[prom.to.y][prom.to.x] = prom.captured;
-            chessBoard.chessBoard[prom.from.y][prom.from.x] = prom.piece;
-            chessBoard.chessBoardList.add(prom.piece);
-            if (prom.captured != null) {
-                chessBoard.chessBoardList.add(prom.captured);
+            chessBoard.addPiece(piece);
+            if (captured != null) {
+                chessBoard.addPiece(captured);
             }
 
             calculatePosition();
             return;
-        } else if (toUndo instanceof Castling) {
-            Castling cstl = (Castling) toUndo;
+        }
+        if (piece.getName() == Name.KING) {
+            if (to.x == from.x + 2) {
+                // Short castling
+                Vector rookPos = new Vector(from.x + 1, from.y);
+                chessBoard.movePiece(new Move(chessBoard.getPiece(rookPos), rookPos, new Vector(7, from.y)));
+            } else if (to.x == from.x - 2) {
+                // Long castling
+                Vector rookPos = new Vector(from.x - 1, from.y);
+                chessBoard.movePiece(new Move(chessBoard.getPiece(rookPos), rookPos, new Vector(0, from.y)));
+            }
+            chessBoard.getStatus(chessBoard.whiteToMove()).kingPos = from;
+        }
+        chessBoard.movePiece(new Move(piece, to, from));
 
-            if (cstl.side == Side.SHORT) {
-                Vector rookPos = new Vector(toUndo.from.x + 1, toUndo.from.y);
-                Move undoCastling = new Move(
-                        chessBoard.getPiece(rookPos),
-                        rookPos, new Vector(7, toUndo.from.y));
+        if (captured != null) {
+            chessBoard.addPiece(captured);
+        }
 
-                chessBoard.movePiece(undoCastling);
-            } else {
-                Vector rookPos = new Vector(toUndo.from.x - 1, toUndo.from.y);
-                Move undoCastling = new Move(
-                        chessBoard.getPiece(rookPos),
-                        rookPos, new Vector(0, toUndo.from.y));
+        calculatePosition();
+    }
 
-                chessBoard.movePiece(undoCastling);
-            }
-            // Essentially a fallthrough
+    // Legal moves of the positions on the way from the one that was set, by ply: a mask of the
+    // target squares for every from square. Filled once a position is asked about and kept
+    // while moves are made and undone from it, the key tells whether an entry is still valid.
+    private long[] targets = new long[64 * 16];
+    private long[] targetKeys = new long[16];
+    private boolean[] filled = new boolean[16];
+
+    // Target squares of the legal moves from a square as a bit mask, squares are y * 8 + x
+    public long legalTargets(int from) {
+        if (chessBoard.gameResult != ChessBoard.GameResult.NONE) {
+            return 0;
         }
-        if (toUndo.piece.getName() == Name.KING) {
-            chessBoard.getStatus(chessBoard.whiteToMove()).kingPos = toUndo.from;
+        return targets[cachedPly() * 64 + from];
+    }
+
+    public boolean isLegal(int from, int to) {
+        return (legalTargets(from) & 1L << to) != 0;
+    }
+
+    private int cachedPly() {
+        int ply = chessBoard.history.size();
+        if (ply >= filled.length || !filled[ply] || targetKeys[ply] != chessBoard.positionKey()) {
+            fillTargets(ply);
         }
-        chessBoard.movePiece(new Move(toUndo.piece, toUndo.to, toUndo.from));
+        return ply;
+    }
 
-        if (toUndo.captured != null) {
-            chessBoard.chessBoard[toUndo.captured.pos.y][toUndo.captured.pos.x] = toUndo.captured;
-            chessBoard.chessBoardList.add(toUndo.captured);
+    // Returns false if there are no legal moves
+    private boolean fillTargets(int ply) {
+        if (ply >= filled.length) {
+            int capacity = Math.max(ply + 1, filled.length * 2);
+            targets = Arrays.copyOf(targets, capacity * 64);
+            targetKeys = Arrays.copyOf(targetKeys, capacity);
+            filled = Arrays.copyOf(filled, capacity);
         }
+        int offset = ply * 64;
+        Arrays.fill(targets, offset, offset + 64, 0);
+        targetKeys[ply] = chessBoard.positionKey();
+        filled[ply] = true;
 
-        calculatePosition();
+        KingStatus kSt = chessBoard.getStatus(chessBoard.whiteToMove());
+        if (kSt.checkState == KingStatus.CheckState.DOUBLE) {
+            return false;
+        }
+        boolean any = false;
+        ChessPiece.Color currentColor = chessBoard.getCurrentColor();
+        for (ChessPiece piece : chessBoard) {
+            if (piece.color != currentColor) {
+                continue;
+            }
+            for (Move move : getLegalMoves(piece, kSt)) {
+                targets[offset + move.from.y * 8 + move.from.x] |= 1L << (move.to.y * 8 + move.to.x);
+                any = true;
+            }
+        }
+        return any;
     }
 
     public List<Move> getPieceMoves(ChessPiece piece) {
@@ -197,12 +245,13 @@ public class MoveGeneration {
 
         chessBoard.updateKingStatus(chessBoard.WKingSt);
         chessBoard.updateKingStatus(chessBoard.BKingSt);
+        chessBoard.updateKeys();
     }
 
     private void promote(Promotion promotion) {
         ChessPiece newPiece;
 
-        chessBoard.trackMove(promotion);
+        chessBoard.history.setCaptured(promotion.captured);
 
         switch (promotion.promoteTo) {
             case INPUT:
@@ -221,15 +270,11 @@ public class MoveGeneration {
                 break;
         }
 
-        chessBoard.chessBoard[promotion.to.y][promotion.to.x] = newPiece;
-        chessBoard.chessBoard[promotion.from.y][promotion.from.x] = null;
-
-        chessBoard.chessBoardList.add(newPiece);
-
-        chessBoard.chessBoardList.remove(promotion.piece);
         if (promotion.captured != null) {
-            chessBoard.chessBoardList.remove(promotion.captured);
+            chessBoard.removePiece(promotion.captured);
         }
+        chessBoard.removePiece(promotion.piece);
+        chessBoard.addPiece(newPiece);
     }
 
     // Check if the move is castling to move a rook
@@ -258,7 +303,7 @@ public class MoveGeneration {
         ChessPiece capturedPiece = chessBoard.getPiece(move.to);
 
         if (capturedPiece != null) {
-            chessBoard.trackMove(new Move(move.piece, move.from, move.to, capturedPiece));
+            chessBoard.history.setCaptured(capturedPiece);
 
             // Update castling rights if a rook was captured
             if (capturedPiece.getName() == Name.ROOK) {
@@ -270,7 +315,7 @@ public class MoveGeneration {
                     chessBoard.updateCastlingRights(capturedPiece.color, Side.SHORT);
                 }
             }
-            chessBoard.chessBoardList.remove(capturedPiece);
+            chessBoard.removePiece(capturedPiece);
             // Reset clock (it will be later incremented to 0)
             chessBoard.resetHalfmoveClock();
             return true;
@@ -280,10 +325,9 @@ public class MoveGeneration {
                 && chessBoard.enPassant.equals(move.to)) {
             capturedPiece = chessBoard.getPiece(new Vector(chessBoard.enPassant.x, move.from.y));
 
-            chessBoard.trackMove(new Move(move.piece, move.from, move.to, capturedPiece));
+            chessBoard.history.setCaptured(capturedPiece);
 
-            chessBoard.chessBoardList.remove(capturedPiece);
-            chessBoard.chessBoard[capturedPiece.pos.y][capturedPiece.pos.x] = null;
+            chessBoard.removePiece(capturedPiece);
             // Reset clock
             chessBoard.resetHalfmoveClock();
 
@@ -313,8 +357,8 @@ public class MoveGeneration {
     private void endGame() {
         KingStatus kSt = chessBoard.getStatus(chessBoard.whiteToMove());
 
-        // If no moves are possible
-        if (getAllMoves().count() == 0) {
+        // If no moves are possible, the moves of the new position are cached on the way
+        if (!fillTargets(chessBoard.history.size())) {
             if (kSt.checkState != CheckState.NONE) {
                 chessBoard.gameResult = chessBoard.whiteToMove() ? GameResult.BLACK_WON : GameResult.WHITE_WON;
             } else {
@@ -0,0 +1,174 @@
+package chess.Logic;
+
+import java.nio.ByteBuffer;
+
+import chess.Vector;
+
+// Binary encodings of a position with everything a FEN string holds
+// Squares are numbered from a8 to h1, the order of FEN, so pieces are decoded in the same
+// order as the FEN parser places them. A piece is a 4-bit code: Name ordinal + 1, +8 if black.
+//
+// Fixed form, SIZE bytes, so record n of a buffer is at n * SIZE:
+// occupancy    long, bit n is set if square n is occupied
+// pieces       16 bytes, a code for every occupied square, high nibble first
+// state        byte, side to move in bit 0 (1 = white), castling rights in bits 1-4
+// en passant   byte, 0 or square (y * 8 + x) + 1
+// clocks       halfmove and fullmove clock, unsigned shorts
+// 2 bytes of padding
+//
+// Compact form, 13 bytes for two bare kings and 28 for the starting position:
+// occupancy, one nibble per occupied square, state and en passant as above,
+// then both clocks as varints
+public final class PositionCodec {
+    private PositionCodec() {
+    }
+
+    public static final int SIZE = 32;
+    private static final int MAX_PIECES = 32;
+
+    // Writes the fixed form at the position of the buffer and advances it
+    public static void write(ChessBoard board, ByteBuffer out) {
+        int start = out.position();
+        writePieces(board, out);
+        while (out.position() < start + 24) {
+            out.put((byte) 0);
+        }
+        writeState(board, out);
+        if (board.halfMoveClock > 0xFFFF || board.fullMoveClock() > 0xFFFF) {
+            throw new IllegalArgumentException("Clock does not fit: " + board.toFEN());
+        }
+        out.putShort((short) board.halfMoveClock);
+        out.putShort((short) board.fullMoveClock());
+        out.putShort((short) 0);
+    }
+
+    // Loads the fixed form at the position of the buffer into the board and advances it
+    public static void read(ByteBuffer in, ChessBoard board) {
+        int start = in.position();
+        board.clearPosition();
+        readPieces(in, board);
+        in.position(start + 24);
+        int state = in.get() & 0xFF;
+        int enPassant = in.get() & 0xFF;
+        int halfMoveClock = in.getShort() & 0xFFFF;
+        int fullMoveClock = in.getShort() & 0xFFFF;
+        in.position(start + SIZE);
+        finish(board, state, enPassant, halfMoveClock, fullMoveClock);
+    }
+
+    // Loads record index of a buffer of fixed size records, the position of the buffer is not used
+    public static void read(ByteBuffer in, int index, ChessBoard board) {
+        read(in.duplicate().position(index * SIZE), board);
+    }
+
+    // Writes the compact form at the position of the buffer and advances it
+    public static void writeCompact(ChessBoard board, ByteBuffer out) {
+        writePieces(board, out);
+        writeState(board, out);
+        putVarint(out, board.halfMoveClock);
+        putVarint(out, board.fullMoveClock());
+    }
+
+    // Loads the compact form at the position of the buffer into the board and advances it
+    public static void readCompact(ByteBuffer in, ChessBoard board) {
+        board.clearPosition();
+        readPieces(in, board);
+        int state = in.get() & 0xFF;
+        int enPassant = in.get() & 0xFF;
+        int halfMoveClock = getVarint(in);
+        int fullMoveClock = getVarint(in);
+        finish(board, state, enPassant, halfMoveClock, fullMoveClock);
+    }
+
+    private static void writePieces(ChessBoard board, ByteBuffer out) {
+        long occupancy = 0;
+        for (int y = 7; y >= 0; y--) {
+            for (int x = 0; x < 8; x++) {
+                if (board.chessBoard[y][x] != null) {
+                    occupancy |= 1L << ((7 - y) * 8 + x);
+                }
+            }
+        }
+        if (Long.bitCount(occupancy) > MAX_PIECES) {
+            throw new IllegalArgumentException("Too many pieces: " + board.toFEN());
+        }
+        out.putLong(occupancy);
+
+        int pending = -1;
+        for (long left = occupancy; left != 0; left &= left - 1) {
+            int square = Long.numberOfTrailingZeros(left);
+            ChessPiece piece = board.chessBoard[7 - square / 8][square % 8];
+            int code = piece.getName().ordinal() + 1 | (piece.color == ChessPiece.Color.BLACK ? 8 : 0);
+            if (pending < 0) {
+                pending = code << 4;
+            } else {
+                out.put((byte) (pending | code));
+                pending = -1;
+            }
+        }
+        if (pending >= 0) {
+            out.put((byte) pending);
+        }
+    }
+
+    private static void readPieces(ByteBuffer in, ChessBoard board) {
+        long occupancy = in.getLong();
+        if (Long.bitCount(occupancy) > MAX_PIECES) {
+            throw new IllegalArgumentException("Incorrect position!");
+        }
+        ChessPiece.Name[] names = ChessPiece.Name.values();
+        int codes = 0;
+        boolean high = true;
+        for (long left = occupancy; left != 0; left &= left - 1) {
+            int square = Long.numberOfTrailingZeros(left);
+            if (high) {
+                codes = in.get() & 0xFF;
+            }
+            int code = high ? codes >>> 4 : codes & 0xF;
+            high = !high;
+
+            int name = (code & 7) - 1;
+            if (name < 0 || name >= names.length) {
+                throw new IllegalArgumentException("Incorrect position!");
+            }
+            board.placePiece(names[name], (code & 8) != 0 ? ChessPiece.Color.BLACK : ChessPiece.Color.WHITE,
+                    square % 8, 7 - square / 8);
+        }
+    }
+
+    private static void writeState(ChessBoard board, ByteBuffer out) {
+        out.put((byte) ((board.whiteToMove() ? 1 : 0) | board.castlingMask() << 1));
+        Vector enPassant = board.enPassant();
+        out.put((byte) (enPassant == null ? 0 : enPassant.y * 8 + enPassant.x + 1));
+    }
+
+    private static void finish(ChessBoard board, int state, int enPassant, int halfMoveClock, int fullMoveClock) {
+        if (state > 0x1F || enPassant > 64) {
+            throw new IllegalArgumentException("Incorrect position!");
+        }
+        board.setState((state & 1) != 0, state >>> 1,
+                enPassant == 0 ? null : new Vector((enPassant - 1) % 8, (enPassant - 1) / 8),
+                halfMoveClock, fullMoveClock);
+        board.finishPosition();
+    }
+
+    private static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Incorrect position!");
+    }
+}
@@ -0,0 +1,122 @@
+package chess.Logic;
+
+import java.util.Arrays;
+
+// Everything needed to undo the moves played on a board, the last move on top
+// Kept in parallel arrays that double when they are full, so pushing and popping
+// a move allocates nothing
+class UndoStack {
+    // PackedMove
+    private short[] moves;
+    // The pieces themselves and not their codes, undoing a move puts the very same
+    // objects back, so the moves generated before it stay valid
+    private ChessPiece[] pieces;
+    private ChessPiece[] captured;
+    // ChessBoard.castlingMask()
+    private byte[] castling;
+    // Square behind a double pawn move plus one, 0 if there was none
+    private byte[] enPassant;
+    private int[] halfMoveClock;
+    // Position key before the move
+    private long[] keys;
+    private int size;
+
+    UndoStack(int capacity) {
+        moves = new short[capacity];
+        pieces = new ChessPiece[capacity];
+        captured = new ChessPiece[capacity];
+        castling = new byte[capacity];
+        enPassant = new byte[capacity];
+        halfMoveClock = new int[capacity];
+        keys = new long[capacity];
+    }
+
+    // The captured piece is set by setCaptured() once it is known
+    void push(short move, ChessPiece piece, int castlingMask, int enPassantSquare, int clock, long key) {
+        if (size == moves.length) {
+            grow();
+        }
+        moves[size] = move;
+        pieces[size] = piece;
+        captured[size] = null;
+        castling[size] = (byte) castlingMask;
+        enPassant[size] = (byte) enPassantSquare;
+        halfMoveClock[size] = clock;
+        keys[size] = key;
+        size++;
+    }
+
+    void setCaptured(ChessPiece piece) {
+        captured[size - 1] = piece;
+    }
+
+    void pop() {
+        size--;
+        // Do not keep captured pieces alive
+        pieces[size] = null;
+        captured[size] = null;
+    }
+
+    void clear() {
+        Arrays.fill(pieces, 0, size, null);
+        Arrays.fill(captured, 0, size, null);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Of the last move
+    short move() {
+        return moves[size - 1];
+    }
+
+    ChessPiece piece() {
+        return pieces[size - 1];
+    }
+
+    ChessPiece captured() {
+        return captured[size - 1];
+    }
+
+    int castlingMask() {
+        return castling[size - 1];
+    }
+
+    int enPassant() {
+        return enPassant[size - 1];
+    }
+
+    int halfMoveClock() {
+        return halfMoveClock[size - 1];
+    }
+
+    // How many times the position after the last move occurred before it
+    // Only the last plies moves are searched, a capture or a pawn move cannot be repeated
+    int repetitions(long key, int plies) {
+        int count = 0;
+        // Every other position has the same side to move
+        for (int i = size - 2; i >= 0 && i >= size - plies; i -= 2) {
+            if (keys[i] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, moves.length * 2);
+        moves = Arrays.copyOf(moves, capacity);
+        pieces = Arrays.copyOf(pieces, capacity);
+        captured = Arrays.copyOf(captured, capacity);
+        castling = Arrays.copyOf(castling, capacity);
+        enPassant = Arrays.copyOf(enPassant, capacity);
+        halfMoveClock = Arrays.copyOf(halfMoveClock, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+    }
+}
@@ -1,7 +1,6 @@
 package chess.Moves;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.util.Objects;
 
 import chess.Vector;
 import chess.Logic.ChessPiece;
@@ -26,10 +25,7 @@ public class Castling extends Move {
     
     @Override
     public int hashCode() {
-        return new HashCodeBuilder()
-                .append(super.hashCode())
-                .append(side.hashCode())
-                .toHashCode();
+        return Objects.hash(super.hashCode(), side);
     }
 
     @Override
@@ -42,9 +38,7 @@ public class Castling extends Move {
         }
 
         Castling o = (Castling) other;
-        return new EqualsBuilder()
-                .append(this.from, o.from)
-                .append(this.to, o.to)
-                .isEquals();
+        return Objects.equals(this.from, o.from)
+                && Objects.equals(this.to, o.to);
     }
 }
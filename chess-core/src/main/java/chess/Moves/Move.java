@@ -1,7 +1,6 @@
 package chess.Moves;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.util.Objects;
 
 import chess.Vector;
 import chess.Logic.ChessPiece;
@@ -36,10 +35,7 @@ public class Move {
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder()
-                .append(from.hashCode())
-                .append(to.hashCode())
-                .toHashCode();
+        return Objects.hash(from, to);
     }
 
     @Override
@@ -52,9 +48,7 @@ public class Move {
         }
 
         Move o = (Move) other;
-        return new EqualsBuilder()
-                .append(this.from, o.from)
-                .append(this.to, o.to)
-                .isEquals();
+        return Objects.equals(this.from, o.from)
+                && Objects.equals(this.to, o.to);
     }
 }
@@ -0,0 +1,103 @@
+package chess.Moves;
+
+import java.util.Arrays;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Promotion.PromoteTo;
+
+// A move in 16 bits: from square (6), to square (6), promotion (3)
+// Squares are y * 8 + x, the promotion is 0 or the PromoteTo ordinal.
+// Castling is stored as the king move, like in coordinate notation
+public class PackedMove {
+    private PackedMove() {
+    }
+
+    public static final short NONE = 0;
+    // More than the legal moves of any position
+    public static final int MAX_MOVES = 256;
+
+    public static short pack(Move move) {
+        int promotion = 0;
+        if (move instanceof Promotion) {
+            PromoteTo promoteTo = ((Promotion) move).promoteTo;
+            promotion = (promoteTo == PromoteTo.INPUT ? PromoteTo.QUEEN : promoteTo).ordinal();
+        }
+        return pack(move.from.y * 8 + move.from.x, move.to.y * 8 + move.to.x, promotion);
+    }
+
+    public static short pack(int from, int to, int promotion) {
+        return (short) (from | to << 6 | promotion << 12);
+    }
+
+    public static int from(short move) {
+        return move & 63;
+    }
+
+    public static int to(short move) {
+        return move >>> 6 & 63;
+    }
+
+    // Null if the move is not a promotion
+    public static PromoteTo promotion(short move) {
+        int promotion = move >>> 12 & 7;
+        return promotion == 0 ? null : PromoteTo.values()[promotion];
+    }
+
+    // Writes the legal moves of the current position to out, sorted, and returns how many
+    // The order only depends on the position, so a move can be stored as its index in the list
+    // out needs room for MAX_MOVES moves
+    public static int legalMoves(MoveGeneration generator, short[] out) {
+        ChessBoard board = generator.chessBoard;
+        int count = 0;
+        for (ChessPiece piece : board) {
+            if (piece.color() != board.getCurrentColor()) {
+                continue;
+            }
+            for (Move move : generator.getPieceMoves(piece)) {
+                // The same promotion is generated again as "ask the user"
+                if (move instanceof Promotion && ((Promotion) move).promoteTo == PromoteTo.INPUT) {
+                    continue;
+                }
+                out[count++] = pack(move);
+            }
+        }
+        Arrays.sort(out, 0, count);
+        return count;
+    }
+
+    // Coordinate notation, e2e4 or e7e8q
+    public static String toString(short move) {
+        int from = from(move), to = to(move);
+        StringBuilder text = new StringBuilder(5)
+                .append((char) ('a' + (from & 7))).append((char) ('1' + (from >> 3)))
+                .append((char) ('a' + (to & 7))).append((char) ('1' + (to >> 3)));
+        PromoteTo promoteTo = promotion(move);
+        if (promoteTo != null) {
+            text.append("?qrbn".charAt(promoteTo.ordinal()));
+        }
+        return text.toString();
+    }
+
+    // Finds the legal move in the current position, returns null if there is none
+    public static Move unpack(MoveGeneration generator, short move) {
+        int from = from(move), to = to(move);
+        PromoteTo promoteTo = promotion(move);
+
+        if (!generator.isLegal(from, to)) {
+            return null;
+        }
+        ChessPiece piece = generator.chessBoard.chessBoard[from >> 3][from & 7];
+        for (Move candidate : generator.getPieceMoves(piece)) {
+            if (candidate.to.y * 8 + candidate.to.x != to) {
+                continue;
+            }
+            if (candidate instanceof Promotion && ((Promotion) candidate).promoteTo != promoteTo) {
+                continue;
+            }
+            return candidate;
+        }
+        return null;
+    }
+}
@@ -1,9 +1,7 @@
 package chess.Moves;
 
 import java.util.HashMap;
-
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.util.Objects;
 
 import chess.Vector;
 import chess.Logic.ChessPiece;
@@ -39,10 +37,7 @@ public class Promotion extends Move {
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder()
-                .append(super.hashCode())
-                .append(promoteTo.hashCode())
-                .toHashCode();
+        return Objects.hash(super.hashCode(), promoteTo);
     }
 
     @Override
@@ -55,10 +50,8 @@ public class Promotion extends Move {
         }
 
         Promotion o = (Promotion) other;
-        return new EqualsBuilder()
-                .append(this.from, o.from)
-                .append(this.to, o.to)
-                .append(this.promoteTo, o.promoteTo)
-                .isEquals();
+        return Objects.equals(this.from, o.from)
+                && Objects.equals(this.to, o.to)
+                && this.promoteTo == o.promoteTo;
     }
 }
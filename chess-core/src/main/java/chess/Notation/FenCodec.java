@@ -0,0 +1,69 @@
+package chess.Notation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import chess.Logic.ChessBoard;
+
+// Reads and writes FEN straight from and to byte buffers, e.g. lines of a mapped EPD file,
+// without decoding them into strings first
+// A codec reuses its view and builder between calls, so use one per thread
+public class FenCodec {
+    private final AsciiView view = new AsciiView();
+    private final StringBuilder text = new StringBuilder(90);
+
+    // Loads the FEN in bytes [start, end) of the buffer into the board
+    public void read(ByteBuffer in, int start, int end, ChessBoard board) {
+        view.buffer = in;
+        view.start = start;
+        view.length = end - start;
+        try {
+            board.setPosition(view);
+        } finally {
+            view.buffer = null;
+        }
+    }
+
+    // Writes the FEN of the board at the position of the buffer and advances it
+    // Returns the number of bytes written
+    public int write(ChessBoard board, ByteBuffer out) {
+        text.setLength(0);
+        board.appendFEN(text);
+        for (int i = 0; i < text.length(); i++) {
+            out.put((byte) text.charAt(i));
+        }
+        return text.length();
+    }
+
+    // ASCII bytes of a buffer seen as characters, FEN is always ASCII
+    private static class AsciiView implements CharSequence {
+        ByteBuffer buffer;
+        int start;
+        int length;
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().substring(from, to);
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[length];
+            buffer.duplicate().position(start).get(bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+}
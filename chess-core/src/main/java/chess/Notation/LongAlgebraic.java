@@ -0,0 +1,55 @@
+package chess.Notation;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Moves.Promotion;
+import chess.Moves.Promotion.PromoteTo;
+
+// Coordinate notation used by UCI: e2e4, e1g1 for castling, e7e8q
+public class LongAlgebraic {
+    private LongAlgebraic() {
+    }
+
+    // Finds the legal move, returns null if there is none
+    public static Move decode(MoveGeneration generator, String str) {
+        if (str.length() < 4 || str.length() > 5) {
+            return null;
+        }
+        int fromX = str.charAt(0) - 'a', fromY = str.charAt(1) - '1';
+        int toX = str.charAt(2) - 'a', toY = str.charAt(3) - '1';
+        if (fromX < 0 || fromX > 7 || fromY < 0 || fromY > 7 || toX < 0 || toX > 7 || toY < 0 || toY > 7) {
+            return null;
+        }
+
+        PromoteTo promoteTo = PromoteTo.QUEEN;
+        if (str.length() == 5) {
+            promoteTo = San.promotionFromChar(Character.toUpperCase(str.charAt(4)));
+        }
+
+        if (!generator.isLegal(fromY * 8 + fromX, toY * 8 + toX)) {
+            return null;
+        }
+        ChessBoard board = generator.chessBoard;
+        ChessPiece piece = board.chessBoard[fromY][fromX];
+        for (Move move : generator.getPieceMoves(piece)) {
+            if (move.to.x != toX || move.to.y != toY) {
+                continue;
+            }
+            if (move instanceof Promotion && ((Promotion) move).promoteTo != promoteTo) {
+                continue;
+            }
+            return move;
+        }
+        return null;
+    }
+
+    // Castling is written as the king move, promotions already print their piece
+    public static String encode(Move move) {
+        if (move instanceof Promotion) {
+            return move.toString();
+        }
+        return move.from.toString() + move.to.toString();
+    }
+}
@@ -0,0 +1,450 @@
+package chess.Notation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Moves.PackedMove;
+
+// Reads large PGN files by memory-mapping them, one chunk of games per task
+// The file is cut at game boundaries into chunks of about chunkSize bytes, which
+// are mapped and parsed in parallel. Games are read straight from the mapped bytes,
+// moves are decoded from a reused buffer, and tag values are decoded when asked for.
+// At most two chunks per thread are mapped at a time, so memory stays flat for any file.
+// The PGN syntax is ASCII, so bytes are scanned directly, tag values are decoded as UTF-8.
+public class MappedPgnReader implements Closeable {
+    static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+    // Bytes read at a time while looking for a game boundary
+    private static final int SCAN_BLOCK = 64 << 10;
+    private static final String[] RESULTS = { "1-0", "0-1", "1/2-1/2" };
+
+    // Called on the worker threads, must be thread safe
+    public interface GameConsumer {
+        void accept(Game game);
+    }
+
+    // One game, valid only during GameConsumer.accept, the worker reuses it for the next game
+    public static class Game {
+        private ByteBuffer text;
+        private int tagStart, tagEnd;
+        private short[] moves = new short[256];
+        private int moveCount;
+        private boolean complete;
+        private String result;
+
+        // Value of the tag, decoded on every call, null if the game doesn't have it
+        public String tag(String name) {
+            int i = tagStart;
+            while (i < tagEnd) {
+                int lineEnd = lineEnd(text, i, tagEnd);
+                int pos = skipSpaces(text, i, lineEnd);
+                if (pos < lineEnd && text.get(pos) == '[' && matches(text, pos + 1, lineEnd, name)) {
+                    int open = indexOf(text, '"', pos + 1 + name.length(), lineEnd);
+                    int close = lastIndexOf(text, '"', lineEnd);
+                    if (open != -1 && close > open) {
+                        return decode(text, open + 1, close);
+                    }
+                }
+                i = lineEnd + 1;
+            }
+            return null;
+        }
+
+        // All the tag pairs in file order, decoded on every call
+        public Map<String, String> tags() {
+            Map<String, String> tags = new LinkedHashMap<>();
+            int i = tagStart;
+            while (i < tagEnd) {
+                int lineEnd = lineEnd(text, i, tagEnd);
+                int pos = skipSpaces(text, i, lineEnd);
+                if (pos < lineEnd && text.get(pos) == '[') {
+                    int space = indexOf(text, ' ', pos + 1, lineEnd);
+                    int open = space == -1 ? -1 : indexOf(text, '"', space, lineEnd);
+                    int close = lastIndexOf(text, '"', lineEnd);
+                    if (open != -1 && close > open) {
+                        tags.put(decode(text, pos + 1, space), decode(text, open + 1, close));
+                    }
+                }
+                i = lineEnd + 1;
+            }
+            return tags;
+        }
+
+        // Position the game starts from, standard one unless a FEN tag is present
+        public String startingFEN() {
+            String fen = tag("FEN");
+            return fen != null ? fen : PgnGame.STARTING_FEN;
+        }
+
+        // "1-0", "0-1", "1/2-1/2" or "*"
+        public String result() {
+            return result;
+        }
+
+        public int moveCount() {
+            return moveCount;
+        }
+
+        // Mainline move of the ply, see PackedMove
+        public short move(int ply) {
+            return moves[ply];
+        }
+
+        public short[] moves() {
+            return Arrays.copyOf(moves, moveCount);
+        }
+
+        // False if replaying stopped at an illegal or unreadable move, or a broken FEN
+        // The moves before it are still there
+        public boolean isComplete() {
+            return complete;
+        }
+
+        private void add(short move) {
+            if (moveCount == moves.length) {
+                moves = Arrays.copyOf(moves, moveCount * 2);
+            }
+            moves[moveCount++] = move;
+        }
+    }
+
+    private final FileChannel channel;
+    private final int threads;
+    private final int chunkSize;
+
+    public MappedPgnReader(Path file) throws IOException {
+        this(file, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public MappedPgnReader(Path file, int threads, int chunkSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    // Parses every game and replays its moves, the consumer gets them in no particular order
+    // Returns the number of games
+    public long forEach(GameConsumer consumer) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+        // Bounds the number of mapped chunks
+        Semaphore inFlight = new Semaphore(threads * 2);
+        AtomicLong games = new AtomicLong();
+        List<Future<?>> tasks = new ArrayList<>();
+
+        try {
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long end = Math.max(findBoundary(start + chunkSize, size), start + 1);
+                long chunkStart = start;
+                inFlight.acquire();
+                tasks.add(executor.submit(() -> {
+                    try {
+                        games.addAndGet(workers.get().parseChunk(chunkStart, end, consumer));
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+                start = end;
+
+                // Drop finished tasks, a failed one ends the read early
+                for (Iterator<Future<?>> it = tasks.iterator(); it.hasNext();) {
+                    Future<?> task = it.next();
+                    if (task.isDone()) {
+                        waitFor(task);
+                        it.remove();
+                    }
+                }
+            }
+            for (Future<?> task : tasks) {
+                waitFor(task);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return games.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Start of the first game after offset: a tag line that follows movetext
+    // Games are split the same way inside a chunk, so every game belongs to exactly one chunk
+    long findBoundary(long offset, long size) throws IOException {
+        if (offset >= size) {
+            return size;
+        }
+        ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK);
+        boolean seenMovetext = false;
+        // Nothing but spaces so far on this line
+        // The line offset is in may be cut, so it only becomes true at the next line
+        boolean lineStart = false;
+
+        long pos = offset;
+        while (pos < size) {
+            block.clear();
+            int read = channel.read(block, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte ch = block.get(i);
+                if (ch == '\n') {
+                    lineStart = true;
+                    continue;
+                }
+                if (!lineStart || ch == ' ' || ch == '\t' || ch == '\r') {
+                    continue;
+                }
+                // First character of a line
+                lineStart = false;
+                if (ch == '[') {
+                    if (seenMovetext) {
+                        return pos + i;
+                    }
+                } else {
+                    seenMovetext = true;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    private static void waitFor(Future<?> task) throws IOException, InterruptedException {
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // Parser state of one thread, the board is reused between games
+    private class Worker {
+        final ChessBoard board = new ChessBoard();
+        final MoveGeneration generator = new MoveGeneration(board);
+        final Game game = new Game();
+        final StringBuilder sanBuffer = new StringBuilder(16);
+
+        // Returns the number of games in [start, end)
+        int parseChunk(long start, long end, GameConsumer consumer) throws IOException {
+            MappedByteBuffer text = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            int length = text.capacity();
+            game.text = text;
+
+            int count = 0;
+            int gameStart = -1, movetextStart = -1;
+            int i = 0;
+            while (i < length) {
+                int lineEnd = lineEnd(text, i, length);
+                int first = skipSpaces(text, i, lineEnd);
+                if (first < lineEnd && text.get(first) != '\r') {
+                    boolean tagLine = text.get(first) == '[';
+                    if (tagLine && movetextStart != -1) {
+                        parseGame(text, gameStart, movetextStart, i, consumer);
+                        count++;
+                        gameStart = -1;
+                        movetextStart = -1;
+                    }
+                    if (gameStart == -1) {
+                        gameStart = i;
+                    }
+                    if (!tagLine && movetextStart == -1) {
+                        movetextStart = i;
+                    }
+                }
+                i = lineEnd + 1;
+            }
+            if (gameStart != -1) {
+                parseGame(text, gameStart, movetextStart == -1 ? length : movetextStart, length, consumer);
+                count++;
+            }
+            return count;
+        }
+
+        private void parseGame(ByteBuffer text, int start, int movetext, int end, GameConsumer consumer) {
+            game.tagStart = start;
+            game.tagEnd = movetext;
+            game.moveCount = 0;
+            game.result = "*";
+            game.complete = true;
+
+            try {
+                board.setPosition(game.startingFEN());
+            } catch (RuntimeException e) {
+                game.complete = false;
+                movetext = end;
+            }
+            replay(text, movetext, end);
+            consumer.accept(game);
+        }
+
+        // Mainline tokens, comments, variations, move numbers and NAGs are skipped like in PgnReader
+        private void replay(ByteBuffer text, int i, int end) {
+            int variationDepth = 0;
+            while (i < end) {
+                byte ch = text.get(i);
+                if (ch == ' ' || ch == '\n' || ch == '\r' || ch == '\t') {
+                    i++;
+                } else if (ch == '{') {
+                    i = indexOf(text, '}', i, end) + 1;
+                    if (i == 0) {
+                        return;
+                    }
+                } else if (ch == ';' || ch == '%') {
+                    i = lineEnd(text, i, end) + 1;
+                } else if (ch == '(') {
+                    variationDepth++;
+                    i++;
+                } else if (ch == ')') {
+                    variationDepth--;
+                    i++;
+                } else {
+                    int start = i;
+                    while (i < end && !isSeparator(text.get(i))) {
+                        i++;
+                    }
+                    if (variationDepth == 0) {
+                        token(text, start, i);
+                    }
+                }
+            }
+        }
+
+        private void token(ByteBuffer text, int start, int end) {
+            // Bytes of the token as chars, reused so moves are decoded without a String each
+            sanBuffer.setLength(0);
+            for (int i = start; i < end; i++) {
+                sanBuffer.append((char) (text.get(i) & 0xFF));
+            }
+            CharSequence token = sanBuffer;
+            int length = token.length();
+
+            char first = token.charAt(0);
+            // NAG or unfinished game
+            if (first == '$' || first == '*') {
+                return;
+            }
+            int moveStart = 0;
+            // Result or move number, possibly glued to the move (1.e4, 12...Nf6)
+            if (first >= '0' && first <= '9') {
+                for (String result : RESULTS) {
+                    if (result.contentEquals(token)) {
+                        game.result = result;
+                        return;
+                    }
+                }
+                // Castling written with zeroes is handled by San
+                if (!(length >= 3 && token.charAt(1) == '-')) {
+                    while (moveStart < length && isMoveNumber(token.charAt(moveStart))) {
+                        moveStart++;
+                    }
+                }
+            } else if (first == '.') {
+                return;
+            }
+            if (moveStart == length || !game.complete) {
+                return;
+            }
+
+            Move move = San.decode(generator, token, moveStart, length);
+            if (move == null) {
+                game.complete = false;
+                return;
+            }
+            game.add(PackedMove.pack(move));
+            if (!generator.makeAMove(move)) {
+                game.complete = false;
+            }
+        }
+    }
+
+    private static boolean isSeparator(byte ch) {
+        return ch == ' ' || ch == '\n' || ch == '\r' || ch == '\t'
+                || ch == '{' || ch == '}' || ch == '(' || ch == ')' || ch == ';';
+    }
+
+    private static boolean isMoveNumber(char ch) {
+        return (ch >= '0' && ch <= '9') || ch == '.';
+    }
+
+    private static int lineEnd(ByteBuffer text, int from, int end) {
+        int i = indexOf(text, '\n', from, end);
+        return i == -1 ? end : i;
+    }
+
+    private static int skipSpaces(ByteBuffer text, int from, int end) {
+        while (from < end && (text.get(from) == ' ' || text.get(from) == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int indexOf(ByteBuffer text, char ch, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (text.get(i) == ch) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer text, char ch, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (text.get(i) == ch) {
+                return i;
+            }
+            if (text.get(i) == '\n') {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    // The tag name followed by a space
+    private static boolean matches(ByteBuffer text, int from, int end, String name) {
+        if (from + name.length() >= end) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (text.get(from + i) != name.charAt(i)) {
+                return false;
+            }
+        }
+        byte next = text.get(from + name.length());
+        return next == ' ' || next == '\t';
+    }
+
+    private static String decode(ByteBuffer text, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        text.duplicate().position(start).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
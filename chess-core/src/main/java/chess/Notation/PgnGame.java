@@ -0,0 +1,26 @@
+package chess.Notation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// A single game from a PGN file: tag pairs, mainline moves in SAN and the result
+public class PgnGame {
+    public final Map<String, String> tags = new LinkedHashMap<>();
+    public final List<String> moves = new ArrayList<>();
+    // "1-0", "0-1", "1/2-1/2" or "*"
+    public String result = "*";
+
+    public String tag(String name) {
+        return tags.get(name);
+    }
+
+    // Position the game starts from, standard one unless SetUp/FEN tags are present
+    public String startingFEN() {
+        String fen = tags.get("FEN");
+        return fen != null ? fen : STARTING_FEN;
+    }
+
+    public static final String STARTING_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+}
@@ -0,0 +1,144 @@
+package chess.Notation;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+// Reads PGN games one by one without loading the whole file
+// Splitting into games and parsing are separate steps, so the game text
+// can be handed to other threads and parsed there
+public class PgnReader implements Closeable {
+    private final BufferedReader reader;
+    // First line of the next game, if it was already read
+    private String pendingLine;
+
+    public PgnReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    // Returns the next game parsed, or null at the end of the input
+    public PgnGame next() throws IOException {
+        String text = nextGameText();
+        return text == null ? null : parse(text);
+    }
+
+    // Returns the raw text of the next game, or null at the end of the input
+    // A game ends when a tag line follows the movetext
+    public String nextGameText() throws IOException {
+        StringBuilder game = new StringBuilder();
+        boolean inMovetext = false;
+
+        String line = pendingLine != null ? pendingLine : reader.readLine();
+        pendingLine = null;
+
+        for (; line != null; line = reader.readLine()) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            boolean tagLine = trimmed.charAt(0) == '[';
+            if (tagLine && inMovetext) {
+                pendingLine = line;
+                break;
+            }
+            if (!tagLine) {
+                inMovetext = true;
+            }
+            game.append(trimmed).append('\n');
+        }
+
+        return game.length() == 0 ? null : game.toString();
+    }
+
+    // Parses tag pairs and the mainline of a single game
+    // Comments, variations, move numbers and NAGs are skipped
+    public static PgnGame parse(CharSequence text) {
+        PgnGame game = new PgnGame();
+
+        int i = 0, len = text.length();
+        int variationDepth = 0;
+        while (i < len) {
+            char ch = text.charAt(i);
+
+            if (Character.isWhitespace(ch)) {
+                i++;
+            } else if (ch == '[' && variationDepth == 0) {
+                int end = indexOf(text, ']', i);
+                parseTag(game, text.subSequence(i + 1, end).toString());
+                i = end + 1;
+            } else if (ch == '{') {
+                i = indexOf(text, '}', i) + 1;
+            } else if (ch == ';' || ch == '%') {
+                i = indexOf(text, '\n', i) + 1;
+            } else if (ch == '(') {
+                variationDepth++;
+                i++;
+            } else if (ch == ')') {
+                variationDepth--;
+                i++;
+            } else {
+                int start = i;
+                while (i < len && !Character.isWhitespace(text.charAt(i))
+                        && "{}();".indexOf(text.charAt(i)) == -1) {
+                    i++;
+                }
+                if (variationDepth == 0) {
+                    addToken(game, text.subSequence(start, i).toString());
+                }
+            }
+        }
+        return game;
+    }
+
+    private static void addToken(PgnGame game, String token) {
+        if (token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*")) {
+            game.result = token;
+            return;
+        }
+        // NAG
+        if (token.charAt(0) == '$') {
+            return;
+        }
+        // Move number, possibly glued to the move (1.e4, 12...Nf6)
+        int start = 0;
+        while (start < token.length() && (Character.isDigit(token.charAt(start)) || token.charAt(start) == '.')) {
+            start++;
+        }
+        // Castling written with zeroes
+        if (token.startsWith("0-0")) {
+            start = 0;
+        }
+        if (start < token.length()) {
+            game.moves.add(token.substring(start));
+        }
+    }
+
+    private static void parseTag(PgnGame game, String tag) {
+        int space = tag.indexOf(' ');
+        if (space == -1) {
+            return;
+        }
+        String name = tag.substring(0, space);
+        int openQuote = tag.indexOf('"', space);
+        int closeQuote = tag.lastIndexOf('"');
+        if (openQuote == -1 || closeQuote <= openQuote) {
+            return;
+        }
+        game.tags.put(name, tag.substring(openQuote + 1, closeQuote));
+    }
+
+    private static int indexOf(CharSequence text, char ch, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) == ch) {
+                return i;
+            }
+        }
+        return text.length();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
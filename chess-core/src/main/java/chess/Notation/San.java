@@ -0,0 +1,276 @@
+package chess.Notation;
+
+import java.util.List;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Castling;
+import chess.Moves.Move;
+import chess.Moves.Promotion;
+import chess.Moves.Promotion.PromoteTo;
+
+// Standard Algebraic Notation (Nf3, exd5, O-O, e8=Q+, ...)
+public class San {
+    private San() {
+    }
+
+    // Finds the legal move described by the SAN token
+    // Returns null if the token does not describe a legal move in the current position
+    public static Move decode(MoveGeneration generator, CharSequence san) {
+        return decode(generator, san, 0, san.length());
+    }
+
+    // Same for the token at [start, end) of the text, so tokens need not be cut out first
+    public static Move decode(MoveGeneration generator, CharSequence san, int start, int end) {
+        ChessBoard board = generator.chessBoard;
+
+        // Strip check, mate and annotation symbols
+        while (end > start && "+#!?".indexOf(san.charAt(end - 1)) != -1) {
+            end--;
+        }
+        if (end - start < 2) {
+            return null;
+        }
+
+        int kingRow = board.getCurrentColor() == ChessPiece.Color.WHITE ? 0 : 7;
+        if (isCastling(san, start, end)) {
+            // O-O is 3 characters, O-O-O is 5
+            int toX = end - start >= 5 ? 2 : 6;
+            return findMove(generator, ChessPiece.Name.KING, -1, -1, toX, kingRow, null);
+        }
+
+        // Promotion suffix, "=Q" or just "Q"
+        PromoteTo promoteTo = null;
+        char last = san.charAt(end - 1);
+        if ("QRBN".indexOf(last) != -1) {
+            promoteTo = promotionFromChar(last);
+            end--;
+            if (san.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+        if (end - start < 2) {
+            return null;
+        }
+
+        int toX = san.charAt(end - 2) - 'a';
+        int toY = san.charAt(end - 1) - '1';
+        if (toX < 0 || toX > 7 || toY < 0 || toY > 7) {
+            return null;
+        }
+
+        ChessPiece.Name name = nameFromChar(san.charAt(start));
+        if (name == null) {
+            name = ChessPiece.Name.PAWN;
+        } else {
+            start++;
+        }
+
+        // Disambiguation, everything between the piece letter and the target square
+        int fromX = -1, fromY = -1;
+        for (int i = start; i < end - 2; i++) {
+            char ch = san.charAt(i);
+            if (ch >= 'a' && ch <= 'h') {
+                fromX = ch - 'a';
+            } else if (ch >= '1' && ch <= '8') {
+                fromY = ch - '1';
+            } else if (ch != 'x' && ch != '-' && ch != ':') {
+                return null;
+            }
+        }
+
+        return findMove(generator, name, fromX, fromY, toX, toY, promoteTo);
+    }
+
+    // Appends the SAN of a legal move in the current position to out
+    // The move is made and taken back to find the check or mate suffix
+    public static StringBuilder encode(MoveGeneration generator, Move move, StringBuilder out) {
+        ChessBoard board = generator.chessBoard;
+        ChessPiece.Name name = move.piece.getName();
+
+        // Generated castling moves are plain king moves over two files
+        if (move instanceof Castling || (name == ChessPiece.Name.KING && Math.abs(move.to.x - move.from.x) == 2)) {
+            out.append(move.to.x < move.from.x ? "O-O-O" : "O-O");
+        } else {
+            boolean capture = board.chessBoard[move.to.y][move.to.x] != null
+                    || (name == ChessPiece.Name.PAWN && move.from.x != move.to.x);
+            if (name == ChessPiece.Name.PAWN) {
+                if (capture) {
+                    out.append((char) ('a' + move.from.x));
+                }
+            } else {
+                out.append(pieceChar(name));
+                disambiguate(generator, move, out);
+            }
+            if (capture) {
+                out.append('x');
+            }
+            out.append((char) ('a' + move.to.x)).append((char) ('1' + move.to.y));
+
+            if (move instanceof Promotion) {
+                PromoteTo promoteTo = ((Promotion) move).promoteTo;
+                out.append('=').append(pieceChar(promoteTo == PromoteTo.ROOK ? ChessPiece.Name.ROOK
+                        : promoteTo == PromoteTo.BISHOP ? ChessPiece.Name.BISHOP
+                        : promoteTo == PromoteTo.KNIGHT ? ChessPiece.Name.KNIGHT : ChessPiece.Name.QUEEN));
+            }
+        }
+
+        if (generator.makeAMove(move)) {
+            ChessBoard.GameResult result = board.gameResult;
+            if (board.isInCheck()) {
+                boolean mate = result == ChessBoard.GameResult.WHITE_WON || result == ChessBoard.GameResult.BLACK_WON;
+                out.append(mate ? '#' : '+');
+            }
+            generator.undoMove();
+        }
+        return out;
+    }
+
+    public static String encode(MoveGeneration generator, Move move) {
+        return encode(generator, move, new StringBuilder(8)).toString();
+    }
+
+    // File, rank or both of the origin, if another piece of the same kind can reach the square
+    private static void disambiguate(MoveGeneration generator, Move move, StringBuilder out) {
+        boolean ambiguous = false, sameFile = false, sameRank = false;
+        for (ChessPiece other : generator.chessBoard) {
+            if (other == move.piece || other.color() != move.piece.color()
+                    || other.getName() != move.piece.getName() || !reaches(generator, other, move.to.x, move.to.y)) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= other.pos().x == move.from.x;
+            sameRank |= other.pos().y == move.from.y;
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            out.append((char) ('a' + move.from.x));
+        } else if (!sameRank) {
+            out.append((char) ('1' + move.from.y));
+        } else {
+            out.append((char) ('a' + move.from.x)).append((char) ('1' + move.from.y));
+        }
+    }
+
+    // Whether the piece has a legal move to the square
+    // Pseudo-legal moves are checked first, most pieces are ruled out without filtering
+    private static boolean reaches(MoveGeneration generator, ChessPiece piece, int toX, int toY) {
+        if (!hasTarget(piece.possibleMoves, toX, toY)) {
+            return false;
+        }
+        return hasTarget(generator.getPieceMoves(piece), toX, toY);
+    }
+
+    private static boolean hasTarget(List<Move> moves, int toX, int toY) {
+        for (Move move : moves) {
+            if (move.to.x == toX && move.to.y == toY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCastling(CharSequence san, int start, int end) {
+        int length = end - start;
+        if (length != 3 && length != 5) {
+            return false;
+        }
+        char o = san.charAt(start);
+        if (o != 'O' && o != '0') {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (san.charAt(i) != ((i - start) % 2 == 0 ? o : '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Move findMove(MoveGeneration generator, ChessPiece.Name name,
+            int fromX, int fromY, int toX, int toY, PromoteTo promoteTo) {
+        ChessBoard board = generator.chessBoard;
+        ChessPiece.Color color = board.getCurrentColor();
+
+        Move found = null;
+        for (ChessPiece piece : board) {
+            if (piece.color() != color || piece.getName() != name) {
+                continue;
+            }
+            if ((fromX != -1 && piece.pos().x != fromX) || (fromY != -1 && piece.pos().y != fromY)) {
+                continue;
+            }
+            if (!hasTarget(piece.possibleMoves, toX, toY)) {
+                continue;
+            }
+
+            for (Move move : generator.getPieceMoves(piece)) {
+                if (move.to.x != toX || move.to.y != toY) {
+                    continue;
+                }
+                // Promotion piece can be omitted, assume a queen then
+                if (move instanceof Promotion
+                        && ((Promotion) move).promoteTo != (promoteTo == null ? PromoteTo.QUEEN : promoteTo)) {
+                    continue;
+                }
+                if (found != null) {
+                    // Ambiguous
+                    return null;
+                }
+                found = move;
+            }
+        }
+        return found;
+    }
+
+    static char pieceChar(ChessPiece.Name name) {
+        switch (name) {
+            case KING:
+                return 'K';
+            case QUEEN:
+                return 'Q';
+            case ROOK:
+                return 'R';
+            case BISHOP:
+                return 'B';
+            case KNIGHT:
+                return 'N';
+            default:
+                return 'P';
+        }
+    }
+
+    static ChessPiece.Name nameFromChar(char ch) {
+        switch (ch) {
+            case 'K':
+                return ChessPiece.Name.KING;
+            case 'Q':
+                return ChessPiece.Name.QUEEN;
+            case 'R':
+                return ChessPiece.Name.ROOK;
+            case 'B':
+                return ChessPiece.Name.BISHOP;
+            case 'N':
+                return ChessPiece.Name.KNIGHT;
+            default:
+                return null;
+        }
+    }
+
+    static PromoteTo promotionFromChar(char ch) {
+        switch (ch) {
+            case 'R':
+                return PromoteTo.ROOK;
+            case 'B':
+                return PromoteTo.BISHOP;
+            case 'N':
+                return PromoteTo.KNIGHT;
+            case 'Q':
+            default:
+                return PromoteTo.QUEEN;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package chess;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Merges sorted runs of fixed size records, spilled by the book and the position index builders
+// Records are ordered by their first keySize bytes, compared as unsigned big-endian numbers.
+// At most fanIn runs are open at once: while there are more, groups of them are merged into
+// longer runs first, so memory and open files depend only on the fan-in and not on the input.
+public class RunMerger {
+    public static final int DEFAULT_FAN_IN = 64;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Gets every record of the merge in order, the record starts at offset
+    // The buffer is only valid during the call
+    public interface RecordSink {
+        void accept(ByteBuffer buffer, int offset) throws IOException;
+    }
+
+    private final Path tempDir;
+    private final int recordSize;
+    private final int keySize;
+    private final int fanIn;
+
+    public RunMerger(Path tempDir, int recordSize, int keySize, int fanIn) {
+        if (fanIn < 2 || keySize > recordSize) {
+            throw new IllegalArgumentException("Bad merge settings");
+        }
+        this.tempDir = tempDir;
+        this.recordSize = recordSize;
+        this.keySize = keySize;
+        this.fanIn = fanIn;
+    }
+
+    // The runs are left as they are, the intermediate runs are deleted
+    public void merge(List<Path> runs, RecordSink sink) throws IOException {
+        Set<Path> intermediate = new HashSet<>();
+        try {
+            List<Path> level = runs;
+            while (level.size() > fanIn) {
+                List<Path> next = new ArrayList<>();
+                for (int i = 0; i < level.size(); i += fanIn) {
+                    List<Path> group = level.subList(i, Math.min(i + fanIn, level.size()));
+                    Path merged = Files.createTempFile(tempDir, "merge", ".bin");
+                    intermediate.add(merged);
+                    next.add(merged);
+
+                    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(merged), BUFFER_SIZE)) {
+                        mergeGroup(group, (buffer, offset) -> out.write(buffer.array(), offset, recordSize));
+                    }
+                    for (Path run : group) {
+                        if (intermediate.remove(run)) {
+                            Files.delete(run);
+                        }
+                    }
+                }
+                level = next;
+            }
+            mergeGroup(level, sink);
+        } finally {
+            for (Path run : intermediate) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    private void mergeGroup(List<Path> runs, RecordSink sink) throws IOException {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Math.max(1, runs.size()), Cursor::compareTo);
+        List<Cursor> cursors = new ArrayList<>(runs.size());
+        try {
+            for (Path run : runs) {
+                Cursor cursor = new Cursor(run);
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            while (!queue.isEmpty()) {
+                Cursor top = queue.poll();
+                sink.accept(top.buffer, top.offset);
+                if (top.advance()) {
+                    queue.add(top);
+                }
+            }
+        } finally {
+            for (Cursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+
+    // Current record of a run, read through a buffer of its own
+    private class Cursor implements Closeable {
+        final FileChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        int offset = -recordSize;
+
+        Cursor(Path run) throws IOException {
+            channel = FileChannel.open(run, StandardOpenOption.READ);
+            buffer.limit(0);
+        }
+
+        // Moves to the next record, returns false at the end of the run
+        boolean advance() throws IOException {
+            offset += recordSize;
+            if (offset + recordSize <= buffer.limit()) {
+                return true;
+            }
+            // Keep the part of a record that was read, then fill the buffer
+            buffer.position(offset);
+            buffer.compact();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read >= 0 && buffer.hasRemaining());
+            buffer.flip();
+            offset = 0;
+            if (buffer.limit() < recordSize) {
+                if (buffer.limit() > 0) {
+                    throw new IOException("Truncated run");
+                }
+                return false;
+            }
+            return true;
+        }
+
+        int compareTo(Cursor other) {
+            return Arrays.compareUnsigned(buffer.array(), offset, offset + keySize,
+                    other.buffer.array(), other.offset, other.offset + keySize);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
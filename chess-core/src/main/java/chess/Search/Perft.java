@@ -0,0 +1,48 @@
+package chess.Search;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Notation.LongAlgebraic;
+
+// Counts leaf nodes of the legal move tree, used to check move generation
+// Data to compare with: https://www.chessprogramming.org/Perft_Results
+public class Perft {
+    private Perft() {
+    }
+
+    public static long perft(MoveGeneration generator, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        List<Move> moves = generator.getAllMoves().collect(Collectors.toList());
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long count = 0;
+        for (Move move : moves) {
+            generator.makeAMove(move);
+            count += perft(generator, depth - 1);
+            generator.undoMove();
+        }
+        return count;
+    }
+
+    // Leaf count for every root move
+    public static Map<String, Long> divide(MoveGeneration generator, int depth) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        List<Move> moves = generator.getAllMoves().collect(Collectors.toList());
+        for (Move move : moves) {
+            generator.makeAMove(move);
+            counts.put(LongAlgebraic.encode(move), perft(generator, depth - 1));
+            generator.undoMove();
+        }
+        return counts;
+    }
+}
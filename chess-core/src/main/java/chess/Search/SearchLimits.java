@@ -0,0 +1,38 @@
+package chess.Search;
+
+// When to stop searching, as given by the UCI "go" command
+// Zero means no limit
+public class SearchLimits {
+    public int depth;
+    public long nodes;
+    // Milliseconds
+    public long moveTime;
+    public long whiteTime, blackTime;
+    public long whiteIncrement, blackIncrement;
+    public int movesToGo;
+    // Search until stopped
+    public boolean infinite;
+
+    // Leave some time for the GUI to receive the move
+    static final long SAFETY_MARGIN = 30;
+
+    // Time when the search has to stop, Long.MAX_VALUE if there is no time limit
+    long deadline(boolean whiteToMove, long startMillis) {
+        if (infinite) {
+            return Long.MAX_VALUE;
+        }
+        if (moveTime > 0) {
+            return startMillis + moveTime;
+        }
+
+        long time = whiteToMove ? whiteTime : blackTime;
+        long increment = whiteToMove ? whiteIncrement : blackIncrement;
+        if (time <= 0) {
+            return Long.MAX_VALUE;
+        }
+
+        long budget = time / (movesToGo > 0 ? movesToGo : 30) + increment * 3 / 4;
+        budget = Math.min(budget, time - SAFETY_MARGIN);
+        return startMillis + Math.max(budget, 10);
+    }
+}
@@ -0,0 +1,286 @@
+package chess.Search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import chess.Eval.Evaluation;
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Moves.Promotion;
+
+// Iterative deepening alpha-beta search with a capture-only quiescence search
+public class Searcher {
+    public static final int MATE = 100000;
+    // Scores above this are mates, MATE - score is the distance in plies
+    public static final int MATE_BOUND = MATE - 1000;
+    static final int MAX_PLY = 64;
+
+    // Called after every completed iteration
+    public interface Listener {
+        void iterationDone(int depth, int score, long nodes, long millis, List<Move> pv);
+    }
+
+    private final ChessBoard board;
+    private final MoveGeneration generator;
+    private final Evaluation evaluation;
+
+    // Set by stop(), cleared only by prepare(), so a stop that comes before the search starts is kept
+    private volatile boolean stopRequested;
+    // The current search ran out of time or nodes, or was stopped
+    private boolean stopped;
+    private long nodes;
+    private long nodeLimit;
+    // Can be moved by limitTime() while searching
+    private volatile long deadline;
+    private volatile boolean rootWhite;
+
+    // Triangular principal variation table
+    private final Move[][] pv = new Move[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    public Searcher(ChessBoard board, MoveGeneration generator, Evaluation evaluation) {
+        this.board = board;
+        this.generator = generator;
+        this.evaluation = evaluation;
+    }
+
+    // Called before the search is handed to another thread, clears an earlier stop()
+    public void prepare() {
+        stopRequested = false;
+    }
+
+    // Can be called from another thread, the search returns its best move so far
+    public void stop() {
+        stopRequested = true;
+    }
+
+    // Applies the time limits from now on, used when a ponder search becomes a normal one
+    public void limitTime(SearchLimits limits) {
+        // The board changes during the search, the side to move is taken from the root
+        deadline = limits.deadline(rootWhite, System.currentTimeMillis());
+    }
+
+    public long nodes() {
+        return nodes;
+    }
+
+    // Returns the best move, or null if there are no legal moves
+    public Move search(SearchLimits limits, Listener listener) {
+        long start = System.currentTimeMillis();
+        stopped = false;
+        nodes = 0;
+        nodeLimit = limits.nodes > 0 ? limits.nodes : Long.MAX_VALUE;
+        rootWhite = board.getCurrentColor() == ChessPiece.Color.WHITE;
+        deadline = limits.deadline(rootWhite, start);
+        int maxDepth = limits.depth > 0 ? Math.min(limits.depth, MAX_PLY) : MAX_PLY;
+
+        List<Move> rootMoves = generator.getAllMoves().collect(Collectors.toList());
+        if (rootMoves.isEmpty()) {
+            return null;
+        }
+        orderMoves(rootMoves);
+
+        Move bestMove = rootMoves.get(0);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int score = searchRoot(rootMoves, depth);
+            // An interrupted iteration is only trusted if it already has a move
+            if (stopped && pvLength[0] == 0) {
+                break;
+            }
+            bestMove = pv[0][0];
+
+            if (listener != null) {
+                List<Move> line = new ArrayList<>(pvLength[0]);
+                for (int i = 0; i < pvLength[0]; i++) {
+                    line.add(pv[0][i]);
+                }
+                listener.iterationDone(depth, score, nodes, System.currentTimeMillis() - start, line);
+            }
+            if (stopped || Math.abs(score) >= MATE_BOUND) {
+                break;
+            }
+
+            // Search the best move first in the next iteration
+            rootMoves.remove(bestMove);
+            rootMoves.add(0, bestMove);
+        }
+        return bestMove;
+    }
+
+    private int searchRoot(List<Move> moves, int depth) {
+        int alpha = -MATE - 1, beta = MATE + 1;
+        pvLength[0] = 0;
+
+        for (Move move : moves) {
+            generator.makeAMove(move);
+            int score = -alphaBeta(depth - 1, 1, -beta, -alpha);
+            generator.undoMove();
+
+            if (stopped) {
+                break;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(0, move);
+            }
+        }
+        return alpha;
+    }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if (checkLimits()) {
+            return 0;
+        }
+        nodes++;
+
+        // The game result is set after every move, so mates and draws are known here
+        switch (board.gameResult) {
+            case DRAW:
+                return 0;
+            case WHITE_WON:
+            case BLACK_WON:
+                return -MATE + ply;
+            default:
+                break;
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiescence(ply, alpha, beta);
+        }
+
+        List<Move> moves = generator.getAllMoves().collect(Collectors.toList());
+        orderMoves(moves);
+        for (Move move : moves) {
+            generator.makeAMove(move);
+            int score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha);
+            generator.undoMove();
+
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+            }
+        }
+        return alpha;
+    }
+
+    // Searches captures until the position is quiet, all moves when in check
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if (checkLimits()) {
+            return 0;
+        }
+        nodes++;
+
+        switch (board.gameResult) {
+            case DRAW:
+                return 0;
+            case WHITE_WON:
+            case BLACK_WON:
+                return -MATE + ply;
+            default:
+                break;
+        }
+
+        if (ply >= MAX_PLY) {
+            return evaluation.evaluate(board);
+        }
+
+        boolean inCheck = board.isInCheck();
+        if (!inCheck) {
+            int standPat = evaluation.evaluate(board);
+            if (standPat >= beta) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+        }
+
+        List<Move> moves = generator.getAllMoves()
+                .filter(move -> inCheck || isTactical(move))
+                .collect(Collectors.toList());
+        orderMoves(moves);
+        for (Move move : moves) {
+            generator.makeAMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            generator.undoMove();
+
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+            }
+        }
+        return alpha;
+    }
+
+    private boolean checkLimits() {
+        if (stopped) {
+            return true;
+        }
+        if (stopRequested || nodes >= nodeLimit) {
+            stopped = true;
+        } else if ((nodes & 255) == 0 && deadline != Long.MAX_VALUE
+                && System.currentTimeMillis() >= deadline) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private void updatePv(int ply, Move move) {
+        pv[ply][0] = move;
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    private boolean isTactical(Move move) {
+        return board.getPiece(move.to) != null || move instanceof Promotion
+                || (move.piece.getName() == ChessPiece.Name.PAWN && move.to.equals(board.enPassant));
+    }
+
+    // Most valuable victim, least valuable attacker first, quiet moves last
+    private void orderMoves(List<Move> moves) {
+        moves.sort((a, b) -> Integer.compare(orderScore(b), orderScore(a)));
+    }
+
+    private int orderScore(Move move) {
+        int score = 0;
+        ChessPiece victim = board.getPiece(move.to);
+        if (victim != null) {
+            score += 10 * pieceValue(victim.getName()) - pieceValue(move.piece.getName());
+        }
+        if (move instanceof Promotion && ((Promotion) move).promoteTo == Promotion.PromoteTo.QUEEN) {
+            score += 9 * pieceValue(ChessPiece.Name.QUEEN);
+        }
+        return score;
+    }
+
+    private static int pieceValue(ChessPiece.Name name) {
+        switch (name) {
+            case PAWN:
+                return 1;
+            case KNIGHT:
+            case BISHOP:
+                return 3;
+            case ROOK:
+                return 5;
+            case QUEEN:
+                return 9;
+            case KING:
+            default:
+                return 10;
+        }
+    }
+}
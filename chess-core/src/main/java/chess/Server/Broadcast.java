@@ -0,0 +1,110 @@
+package chess.Server;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.PositionCodec;
+
+// The moves of one game for its spectators, written by the game and read by any number of
+// subscribers without locks. The game appends to a ring buffer and publishes its ply with
+// a volatile write, every subscriber reads from a cursor of its own at its own pace.
+// A subscriber that falls a whole ring behind skips to a snapshot of the latest position,
+// so a slow spectator costs no memory and never holds up the game.
+//
+// Frames, big-endian:
+// move       MOVE, ply after the move (int), packed move (short)
+// position   POSITION, ply (int), length (byte), the position in PositionCodec's compact form
+public class Broadcast {
+    public static final byte MOVE = 1;
+    public static final byte POSITION = 2;
+    static final int MOVE_FRAME = 7;
+    // Longest position frame, the compact form has at most 36 bytes
+    static final int MAX_FRAME = 6 + 36;
+
+    private static class Snapshot {
+        final long ply;
+        final byte[] position;
+
+        Snapshot(long ply, byte[] position) {
+            this.ply = ply;
+            this.position = position;
+        }
+    }
+
+    // Move that led to ply p is at (p - 1) & mask
+    private final short[] ring;
+    private final int mask;
+    private volatile long published;
+    private volatile Snapshot latest;
+    private final ByteBuffer encoder = ByteBuffer.allocate(MAX_FRAME);
+    // Called after every move, used to wake up the threads serving the subscribers
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    // Starts at the position of the board, ply is the number of moves played before it
+    // capacity is rounded up to a power of two
+    public Broadcast(ChessBoard board, long ply, int capacity) {
+        ring = new short[capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1];
+        mask = ring.length - 1;
+        latest = snapshot(board, ply);
+        published = ply;
+    }
+
+    // Only called by the game's thread, after the move was played on the board
+    public void publish(ChessBoard board, short move) {
+        long ply = published + 1;
+        ring[(int) ((ply - 1) & mask)] = move;
+        latest = snapshot(board, ply);
+        published = ply;
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    void addListener(Runnable listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public long ply() {
+        return published;
+    }
+
+    // Writes the frames after cursor that fit into out and returns the new cursor
+    // A new subscriber starts with a cursor of -1 and gets the latest position first
+    public long drain(long cursor, ByteBuffer out) {
+        long end = published;
+        if (cursor < 0 || end - cursor >= ring.length) {
+            Snapshot snapshot = latest;
+            if (out.remaining() < 6 + snapshot.position.length) {
+                return cursor;
+            }
+            out.put(POSITION).putInt((int) snapshot.ply).put((byte) snapshot.position.length).put(snapshot.position);
+            return snapshot.ply;
+        }
+
+        while (cursor < end && out.remaining() >= MOVE_FRAME) {
+            short move = ring[(int) (cursor & mask)];
+            // The slot is reused when the game is a whole ring ahead, then this read is void
+            VarHandle.loadLoadFence();
+            if (published - cursor >= ring.length) {
+                break;
+            }
+            cursor++;
+            out.put(MOVE).putInt((int) cursor).putShort(move);
+        }
+        return cursor;
+    }
+
+    private Snapshot snapshot(ChessBoard board, long ply) {
+        encoder.clear();
+        PositionCodec.writeCompact(board, encoder);
+        byte[] position = new byte[encoder.position()];
+        encoder.flip();
+        encoder.get(position);
+        return new Snapshot(ply, position);
+    }
+}
@@ -0,0 +1,254 @@
+package chess.Server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+
+// Serves the Broadcasts of games to spectators over a loopback socket
+// A spectator connects and sends the id of a game as a long, then receives the latest
+// position followed by every move as Broadcast frames. Subscribers are spread over a few
+// selector threads, each one pumps the frames of all its subscribers after every move with
+// one non-blocking write per subscriber. Slow subscribers are not waited for, the Broadcast
+// coalesces them to the latest position once they fall a whole ring behind.
+public class BroadcastServer implements Closeable {
+    // Enough for a long run of moves and a position
+    static final int BUFFER_SIZE = 2048;
+
+    private final LongFunction<CompletableFuture<Broadcast>> games;
+    private final Shard[] shards;
+    private ServerSocketChannel server;
+    private int nextShard;
+
+    // games: finds the Broadcast of a game, completes with null if there is no such game
+    public BroadcastServer(LongFunction<CompletableFuture<Broadcast>> games, int threads) throws IOException {
+        this.games = games;
+        shards = new Shard[threads];
+        for (int i = 0; i < threads; i++) {
+            shards[i] = new Shard();
+            Thread thread = new Thread(shards[i], "broadcast-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    // Starts accepting spectators, port 0 picks a free one, returns the port
+    public int listen(int port) throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        Thread acceptor = new Thread(() -> {
+            while (server.isOpen()) {
+                try {
+                    SocketChannel channel = server.accept();
+                    channel.socket().setTcpNoDelay(true);
+                    shards[nextShard++ % shards.length].add(channel);
+                } catch (IOException e) {
+                    // Closed
+                }
+            }
+        }, "broadcast-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server.socket().getLocalPort();
+    }
+
+    // Number of connected spectators
+    public int subscribers() {
+        int count = 0;
+        for (Shard shard : shards) {
+            count += shard.size;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        for (Shard shard : shards) {
+            shard.selector.close();
+        }
+    }
+
+    private static class Subscriber {
+        final SocketChannel channel;
+        final SelectionKey key;
+        // The requested game id
+        final ByteBuffer request = ByteBuffer.allocate(8);
+        // Frames not yet written, in read mode
+        final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE).flip();
+        boolean requested;
+        // Set by the lookup of the game, on another thread
+        volatile Broadcast broadcast;
+        long cursor = -1;
+
+        Subscriber(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    private class Shard implements Runnable {
+        final Selector selector = Selector.open();
+        final Queue<SocketChannel> added = new ConcurrentLinkedQueue<>();
+        final Queue<Subscriber> attached = new ConcurrentLinkedQueue<>();
+        final List<Subscriber> subscribers = new ArrayList<>();
+        // Size of the list for other threads
+        volatile int size;
+        // Bytes sent after the request are read into this and ignored
+        final ByteBuffer discard = ByteBuffer.allocate(64);
+        final AtomicBoolean woken = new AtomicBoolean();
+        final Runnable wake = this::wake;
+
+        Shard() throws IOException {
+        }
+
+        void add(SocketChannel channel) {
+            added.add(channel);
+            wake();
+        }
+
+        // Called by the games after every move
+        void wake() {
+            if (woken.compareAndSet(false, true)) {
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (selector.isOpen()) {
+                    selector.select();
+                    woken.set(false);
+                    register();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Subscriber subscriber = (Subscriber) key.attachment();
+                        if (key.isValid() && key.isReadable()) {
+                            readRequest(subscriber);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            key.interestOps(SelectionKey.OP_READ);
+                        }
+                    }
+
+                    for (Subscriber subscriber : subscribers) {
+                        if (subscriber.broadcast != null && subscriber.key.isValid()) {
+                            pump(subscriber);
+                        }
+                    }
+                    subscribers.removeIf(subscriber -> !subscriber.key.isValid());
+                    size = subscribers.size();
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                // Closed
+            }
+        }
+
+        private void register() {
+            SocketChannel channel;
+            while ((channel = added.poll()) != null) {
+                try {
+                    channel.configureBlocking(false);
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    Subscriber subscriber = new Subscriber(channel, key);
+                    key.attach(subscriber);
+                    subscribers.add(subscriber);
+                } catch (IOException e) {
+                    // The spectator went away before it was registered, the others are still served
+                    try {
+                        channel.close();
+                    } catch (IOException closing) {
+                        // Already closed
+                    }
+                }
+            }
+            Subscriber subscriber;
+            while ((subscriber = attached.poll()) != null) {
+                subscriber.broadcast.addListener(wake);
+            }
+        }
+
+        // The game id, anything after it is ignored, end of stream closes the subscription
+        private void readRequest(Subscriber subscriber) {
+            ByteBuffer request = subscriber.request;
+            try {
+                discard.clear();
+                int read = subscriber.channel.read(request.hasRemaining() ? request : discard);
+                if (read < 0) {
+                    drop(subscriber);
+                    return;
+                }
+            } catch (IOException e) {
+                drop(subscriber);
+                return;
+            }
+            if (request.hasRemaining() || subscriber.requested) {
+                return;
+            }
+            subscriber.requested = true;
+            games.apply(request.getLong(0)).whenComplete((broadcast, error) -> {
+                if (broadcast == null) {
+                    drop(subscriber);
+                    return;
+                }
+                subscriber.broadcast = broadcast;
+                attached.add(subscriber);
+                wake();
+            });
+        }
+
+        // Writes what is left, then as many new frames as the buffer holds
+        private void pump(Subscriber subscriber) {
+            ByteBuffer out = subscriber.out;
+            try {
+                while (true) {
+                    if (out.hasRemaining()) {
+                        subscriber.channel.write(out);
+                        if (out.hasRemaining()) {
+                            // The socket is full, continue when it is writable
+                            subscriber.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                            return;
+                        }
+                    }
+                    out.clear();
+                    subscriber.cursor = subscriber.broadcast.drain(subscriber.cursor, out);
+                    out.flip();
+                    if (!out.hasRemaining()) {
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                drop(subscriber);
+            }
+        }
+
+        private void drop(Subscriber subscriber) {
+            subscriber.key.cancel();
+            try {
+                subscriber.channel.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+}
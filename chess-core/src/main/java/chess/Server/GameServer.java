@@ -0,0 +1,437 @@
+package chess.Server;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import chess.Eval.Evaluation;
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Moves.PackedMove;
+import chess.Notation.PgnGame;
+import chess.Search.SearchLimits;
+import chess.Search.Searcher;
+
+// Hosts many games at once, against each other or against the built-in engine
+// Every game is a GameSession, its tasks run on a small shared pool, engine searches on
+// another one, so the number of games is limited by memory and not by threads.
+// Clients connect over a loopback socket and send one command per line:
+//
+// new [engine white|black] [fen <fen>]     -> game <id> [reply <move>]
+// move <id> <move>                         -> moved <id> <move> [reply <move>] result <result>
+//                                             illegal <id> <move>
+// fen <id>                                 -> fen <id> <fen>
+// close <id>                               -> closed <id>
+// stats                                    -> stats games <n> resident <n> moves <n> avg <us> max <us>
+// quit
+//
+// Replies to different games can arrive in any order, errors are "error <id> <message>"
+// Usage: java -cp <classes> chess.Server.GameServer [port]
+public class GameServer implements Closeable {
+    public static final int DEFAULT_PORT = 7411;
+
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    private final ExecutorService games;
+    private final ExecutorService engines;
+    private final ScheduledExecutorService evictor;
+    private final SearchLimits engineLimits;
+    private final long moveTimeout;
+    private final long idleNanos;
+
+    // Every engine thread has a board and a searcher of its own
+    private final ThreadLocal<EngineWorker> engineWorker = ThreadLocal.withInitial(EngineWorker::new);
+
+    // Time from receiving a client move until its reply is ready, engine time not included
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder moveNanos = new LongAdder();
+    private final LongAccumulator maxMoveNanos = new LongAccumulator(Math::max, 0);
+
+    private ServerSocket socket;
+    private Thread acceptor;
+    private BroadcastServer broadcasts;
+
+    // moveTimeout: milliseconds until a move request, engine reply included, fails
+    // idleMillis: games untouched for this long drop their board
+    public GameServer(int gameThreads, int engineThreads, SearchLimits engineLimits, long moveTimeout,
+            long idleMillis) {
+        games = Executors.newFixedThreadPool(gameThreads, daemon("game"));
+        engines = Executors.newFixedThreadPool(engineThreads, daemon("game-engine"));
+        evictor = Executors.newSingleThreadScheduledExecutor(daemon("game-evictor"));
+        this.engineLimits = engineLimits;
+        this.moveTimeout = moveTimeout;
+        idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+
+        long period = Math.max(1, idleMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public GameServer() {
+        this(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors(),
+                defaultLimits(), 30_000, 60_000);
+    }
+
+    private static SearchLimits defaultLimits() {
+        SearchLimits limits = new SearchLimits();
+        limits.moveTime = 200;
+        return limits;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer server = new GameServer();
+        System.out.println("Listening on " + server.listen(port));
+        // All the server's threads are daemons, this keeps the JVM running
+        server.awaitClose();
+    }
+
+    // Returns the id of the new game, the engine moves first if it plays the side to move
+    public long newGame(String fen, ChessPiece.Color engineColor) {
+        ChessBoard board = new ChessBoard(fen);
+        GameSession session = new GameSession(nextId.getAndIncrement(), board, engineColor, games);
+        sessions.put(session.id, session);
+        if (engineColor == board.getCurrentColor()) {
+            engineMove(session, null);
+        }
+        return session.id;
+    }
+
+    public GameSession session(long id) {
+        GameSession session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("No game " + id);
+        }
+        return session;
+    }
+
+    // Plays the client's move and, if the game has an engine, waits for its reply
+    // Completes with the engine move, NONE without one, fails if the move is illegal
+    public CompletableFuture<Short> move(long id, String move) {
+        GameSession session = session(id);
+        long start = System.nanoTime();
+        CompletableFuture<Short> reply = new CompletableFuture<>();
+        session.call(() -> {
+            if (session.engineToMove()) {
+                throw new IllegalMoveException("Not your move");
+            }
+            short played = session.play(move);
+            long nanos = System.nanoTime() - start;
+            moves.increment();
+            moveNanos.add(nanos);
+            maxMoveNanos.accumulate(nanos);
+            if (played == PackedMove.NONE) {
+                throw new IllegalMoveException(move);
+            }
+            return session.engineToMove();
+        }).thenCompose(engineTurn -> engineTurn ? engineMove(session, reply)
+                : CompletableFuture.completedFuture(PackedMove.NONE)).whenComplete((engineMove, error) -> {
+                    if (error != null) {
+                        reply.completeExceptionally(error);
+                    } else {
+                        reply.complete(engineMove);
+                    }
+                });
+        return reply.orTimeout(moveTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    // The engine move of the game that is being searched or was played last, NONE if there is none
+    public CompletableFuture<Short> engineReply(long id) {
+        // A copy, the timeout must not fail the shared future
+        return session(id).engineReply.copy().orTimeout(moveTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<String> fen(long id) {
+        GameSession session = session(id);
+        return session.call(session::fen);
+    }
+
+    public CompletableFuture<ChessBoard.GameResult> result(long id) {
+        GameSession session = session(id);
+        return session.call(session::result);
+    }
+
+    // Completes with null if there is no such game
+    public CompletableFuture<Broadcast> broadcast(long id) {
+        GameSession session = sessions.get(id);
+        if (session == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return session.call(session::broadcast);
+    }
+
+    // Starts serving the games to spectators, see BroadcastServer, returns the port
+    public int listenBroadcast(int port, int threads) throws IOException {
+        broadcasts = new BroadcastServer(this::broadcast, threads);
+        return broadcasts.listen(port);
+    }
+
+    public void closeGame(long id) {
+        sessions.remove(id);
+    }
+
+    public int games() {
+        return sessions.size();
+    }
+
+    public int residentGames() {
+        int resident = 0;
+        for (GameSession session : sessions.values()) {
+            if (session.isResident()) {
+                resident++;
+            }
+        }
+        return resident;
+    }
+
+    public long movesPlayed() {
+        return moves.sum();
+    }
+
+    public long averageMoveMicros() {
+        long count = moves.sum();
+        return count == 0 ? 0 : moveNanos.sum() / count / 1000;
+    }
+
+    public long maxMoveMicros() {
+        return maxMoveNanos.get() / 1000;
+    }
+
+    // Searches on an engine thread with the game's moves replayed on its own board,
+    // then plays the result in the game's mailbox
+    // waiting is the client's reply, if it is already done (timed out) the move is dropped,
+    // the client was told the engine did not answer
+    private CompletableFuture<Short> engineMove(GameSession session, CompletableFuture<Short> waiting) {
+        CompletableFuture<Short> reply = session.call(session::moves).thenCompose(played -> CompletableFuture
+                .supplyAsync(() -> engineWorker.get().search(session.startingFEN, played, engineLimits), engines)
+                .thenCompose(best -> session.call(() -> best == PackedMove.NONE || waiting != null && waiting.isDone()
+                        ? PackedMove.NONE
+                        : session.playPacked(best, played.length))));
+        session.engineReply = reply;
+        return reply;
+    }
+
+    private void evictIdle() {
+        for (GameSession session : sessions.values()) {
+            if (session.isResident() && System.nanoTime() - session.lastActive() >= idleNanos) {
+                session.call(() -> session.evict(idleNanos));
+            }
+        }
+    }
+
+    /// Loopback socket
+
+    // Starts accepting clients, port 0 picks a free one, returns the port
+    public int listen(int port) throws IOException {
+        socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(() -> {
+            while (!socket.isClosed()) {
+                try {
+                    Socket client = socket.accept();
+                    Thread connection = new Thread(() -> serve(client), "game-client");
+                    connection.setDaemon(true);
+                    connection.start();
+                } catch (IOException e) {
+                    // Closed
+                }
+            }
+        }, "game-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return socket.getLocalPort();
+    }
+
+    // Blocks until the server is closed
+    public void awaitClose() throws InterruptedException {
+        if (acceptor != null) {
+            acceptor.join();
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(
+                        new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8), false)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!handle(line.trim(), reply -> {
+                    synchronized (out) {
+                        out.println(reply);
+                        out.flush();
+                    }
+                })) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    interface Replies {
+        void send(String line);
+    }
+
+    // Returns false on "quit"
+    boolean handle(String line, Replies replies) {
+        if (line.isEmpty()) {
+            return true;
+        }
+        String[] tokens = line.split("\\s+");
+        String id = tokens.length > 1 ? tokens[1] : "-";
+        try {
+            switch (tokens[0]) {
+                case "new":
+                    long created = newGame(tokens);
+                    // The engine may move first
+                    engineReply(created).whenComplete((reply, error) -> {
+                        if (error != null) {
+                            failed(created, "-", error, replies);
+                        } else if (reply == PackedMove.NONE) {
+                            replies.send("game " + created);
+                        } else {
+                            replies.send("game " + created + " reply " + PackedMove.toString(reply));
+                        }
+                    });
+                    break;
+                case "move":
+                    if (tokens.length < 3) {
+                        replies.send("error " + id + " usage: move <id> <move>");
+                        break;
+                    }
+                    long game = Long.parseLong(id);
+                    move(game, tokens[2]).whenComplete((reply, error) -> {
+                        if (error == null) {
+                            moved(game, tokens[2], reply, replies);
+                        } else {
+                            failed(game, tokens[2], error, replies);
+                        }
+                    });
+                    break;
+                case "fen":
+                    fen(Long.parseLong(id)).thenAccept(fen -> replies.send("fen " + id + " " + fen));
+                    break;
+                case "close":
+                    closeGame(Long.parseLong(id));
+                    replies.send("closed " + id);
+                    break;
+                case "stats":
+                    replies.send("stats games " + games() + " resident " + residentGames() + " moves "
+                            + movesPlayed() + " avg " + averageMoveMicros() + " max " + maxMoveMicros());
+                    break;
+                case "quit":
+                    return false;
+                default:
+                    replies.send("error - unknown command " + tokens[0]);
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            replies.send("error " + id + " " + e.getMessage());
+        }
+        return true;
+    }
+
+    private long newGame(String[] tokens) {
+        ChessPiece.Color engineColor = null;
+        String fen = PgnGame.STARTING_FEN;
+        for (int i = 1; i < tokens.length; i++) {
+            if (tokens[i].equals("engine") && i + 1 < tokens.length) {
+                engineColor = tokens[++i].equals("white") ? ChessPiece.Color.WHITE : ChessPiece.Color.BLACK;
+            } else if (tokens[i].equals("fen")) {
+                fen = String.join(" ", Arrays.copyOfRange(tokens, i + 1, tokens.length));
+                break;
+            }
+        }
+        return newGame(fen, engineColor);
+    }
+
+    private void moved(long game, String move, short reply, Replies replies) {
+        result(game).thenApply(result -> {
+            StringBuilder line = new StringBuilder("moved ").append(game).append(' ').append(move);
+            if (reply != PackedMove.NONE) {
+                line.append(" reply ").append(PackedMove.toString(reply));
+            }
+            line.append(" result ").append(result);
+            return line.toString();
+        }).thenAccept(replies::send);
+    }
+
+    private static void failed(long game, String move, Throwable error, Replies replies) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause instanceof IllegalMoveException) {
+            replies.send("illegal " + game + " " + move);
+        } else if (cause instanceof TimeoutException) {
+            replies.send("error " + game + " timeout");
+        } else {
+            replies.send("error " + game + " " + cause.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (socket != null) {
+            socket.close();
+        }
+        if (broadcasts != null) {
+            broadcasts.close();
+        }
+        evictor.shutdownNow();
+        games.shutdownNow();
+        engines.shutdownNow();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicLong count = new AtomicLong();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // A move that is not legal in the game's position
+    public static class IllegalMoveException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        IllegalMoveException(String message) {
+            super(message);
+        }
+    }
+
+    private static class EngineWorker {
+        final ChessBoard board = new ChessBoard();
+        final MoveGeneration generator = new MoveGeneration(board);
+        final Searcher searcher = new Searcher(board, generator, new Evaluation());
+
+        short search(String startingFEN, short[] moves, SearchLimits limits) {
+            GameSession.replay(generator, startingFEN, moves, moves.length);
+            Move best = searcher.search(limits, null);
+            return best == null ? PackedMove.NONE : PackedMove.pack(best);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package chess.Server;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Moves.PackedMove;
+import chess.Notation.LongAlgebraic;
+
+// One game of a GameServer, confined like an actor: every access to the board is a task in
+// its mailbox, and the tasks run one at a time on the shared executor of the server,
+// so thousands of games need no more threads than the executor has.
+// An idle game drops its board and keeps only the starting FEN and the packed moves,
+// the board is rebuilt by replaying them on the next access.
+public class GameSession {
+    // Moves a spectator may fall behind before it skips to the latest position
+    static final int BROADCAST_CAPACITY = 256;
+
+    public final long id;
+    // Color played by the engine, null if clients play both sides
+    public final ChessPiece.Color engineColor;
+    final String startingFEN;
+
+    private final Executor executor;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // Only touched by mailbox tasks
+    private short[] moves = new short[16];
+    private int moveCount;
+    private ChessBoard board;
+    private MoveGeneration generator;
+    // Created for the first spectator
+    private Broadcast broadcast;
+
+    private volatile long lastActive;
+    private volatile boolean resident;
+    // The engine search in progress or the last one
+    volatile CompletableFuture<Short> engineReply = CompletableFuture.completedFuture(PackedMove.NONE);
+
+    GameSession(long id, ChessBoard board, ChessPiece.Color engineColor, Executor executor) {
+        this.id = id;
+        this.engineColor = engineColor;
+        this.executor = executor;
+        this.board = board;
+        generator = new MoveGeneration(board);
+        startingFEN = board.toFEN();
+        resident = true;
+        lastActive = System.nanoTime();
+    }
+
+    // Runs the task in the mailbox, after every task submitted before it
+    <T> CompletableFuture<T> call(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        mailbox.add(() -> {
+            try {
+                future.complete(task.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+        return future;
+    }
+
+    private void drain() {
+        Runnable task;
+        while ((task = mailbox.poll()) != null) {
+            task.run();
+        }
+        scheduled.set(false);
+        // A task may have been added after the last poll, but before the flag was cleared
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /// The methods below run in the mailbox
+
+    // Plays the move in coordinate notation, returns it packed or NONE if it is illegal
+    short play(String move) {
+        load();
+        Move legal = LongAlgebraic.decode(generator, move);
+        if (legal == null) {
+            return PackedMove.NONE;
+        }
+        return play(legal);
+    }
+
+    short play(Move move) {
+        short packed = PackedMove.pack(move);
+        generator.makeAMove(move);
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, Math.max(16, moveCount * 2));
+        }
+        moves[moveCount++] = packed;
+        if (broadcast != null) {
+            broadcast.publish(board, packed);
+        }
+        return packed;
+    }
+
+    // Plays a move found by the engine, the position may have changed since it was asked
+    short playPacked(short move, int expectedMoveCount) {
+        load();
+        if (moveCount != expectedMoveCount) {
+            return PackedMove.NONE;
+        }
+        Move legal = PackedMove.unpack(generator, move);
+        return legal == null ? PackedMove.NONE : play(legal);
+    }
+
+    boolean engineToMove() {
+        load();
+        return engineColor == board.getCurrentColor() && board.gameResult == ChessBoard.GameResult.NONE;
+    }
+
+    ChessBoard.GameResult result() {
+        load();
+        return board.gameResult;
+    }
+
+    String fen() {
+        load();
+        return board.toFEN();
+    }
+
+    Broadcast broadcast() {
+        load();
+        if (broadcast == null) {
+            broadcast = new Broadcast(board, moveCount, BROADCAST_CAPACITY);
+        }
+        return broadcast;
+    }
+
+    int moveCount() {
+        return moveCount;
+    }
+
+    short[] moves() {
+        return Arrays.copyOf(moves, moveCount);
+    }
+
+    // Drops the board if the game is still idle
+    boolean evict(long idleNanos) {
+        if (board == null || System.nanoTime() - lastActive < idleNanos) {
+            return false;
+        }
+        board = null;
+        generator = null;
+        moves = Arrays.copyOf(moves, moveCount);
+        resident = false;
+        return true;
+    }
+
+    private void load() {
+        lastActive = System.nanoTime();
+        if (board != null) {
+            return;
+        }
+        board = new ChessBoard();
+        generator = new MoveGeneration(board);
+        replay(generator, startingFEN, moves, moveCount);
+        resident = true;
+    }
+
+    /// Safe to call from any thread
+
+    // Plays the moves from the starting position on the generator
+    static void replay(MoveGeneration generator, String startingFEN, short[] moves, int count) {
+        generator.chessBoard.setPosition(startingFEN);
+        for (int i = 0; i < count; i++) {
+            Move move = PackedMove.unpack(generator, moves[i]);
+            if (move == null) {
+                throw new IllegalStateException("Illegal move " + PackedMove.toString(moves[i]) + " at ply " + i);
+            }
+            generator.makeAMove(move);
+        }
+    }
+
+    public boolean isResident() {
+        return resident;
+    }
+
+    public long lastActive() {
+        return lastActive;
+    }
+}
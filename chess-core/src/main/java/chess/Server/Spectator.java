@@ -0,0 +1,97 @@
+package chess.Server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.MoveGeneration;
+import chess.Logic.PositionCodec;
+import chess.Moves.Move;
+import chess.Moves.PackedMove;
+
+// Follows a game of a BroadcastServer on a board of its own
+public class Spectator implements Closeable {
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(BroadcastServer.BUFFER_SIZE);
+
+    public final ChessBoard board = new ChessBoard();
+    private final MoveGeneration generator = new MoveGeneration(board);
+    private long ply = -1;
+    // Positions received, more than one means this spectator fell behind
+    private long positions;
+
+    public Spectator(int port, long game) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        channel.socket().setTcpNoDelay(true);
+        ByteBuffer request = ByteBuffer.allocate(8).putLong(game).flip();
+        while (request.hasRemaining()) {
+            channel.write(request);
+        }
+    }
+
+    // Number of moves played in the game up to the board's position, -1 before the first frame
+    public long ply() {
+        return ply;
+    }
+
+    public long positions() {
+        return positions;
+    }
+
+    // Waits for frames and applies them, returns false when the server closed the stream
+    public boolean receive() throws IOException {
+        if (channel.read(in) < 0) {
+            return false;
+        }
+        in.flip();
+        while (in.hasRemaining()) {
+            byte type = in.get(in.position());
+            if (type == Broadcast.MOVE) {
+                if (in.remaining() < Broadcast.MOVE_FRAME) {
+                    break;
+                }
+                in.get();
+                int frame = in.getInt();
+                short packed = in.getShort();
+                Move move = PackedMove.unpack(generator, packed);
+                if (frame != ply + 1 || move == null) {
+                    throw new IOException("Broken broadcast at ply " + frame);
+                }
+                generator.makeAMove(move);
+                ply = frame;
+            } else if (type == Broadcast.POSITION) {
+                if (in.remaining() < 6 || in.remaining() < 6 + (in.get(in.position() + 5) & 0xFF)) {
+                    break;
+                }
+                in.get();
+                int frame = in.getInt();
+                in.get();
+                PositionCodec.readCompact(in, board);
+                ply = frame;
+                positions++;
+            } else {
+                throw new IOException("Broken broadcast, frame type " + type);
+            }
+        }
+        in.compact();
+        return true;
+    }
+
+    // Receives until the board reaches the ply
+    public void awaitPly(long target) throws IOException {
+        while (ply < target) {
+            if (!receive()) {
+                throw new IOException("Broadcast closed at ply " + ply);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,317 @@
+package chess.Uci;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import chess.Eval.Evaluation;
+import chess.Logic.ChessBoard;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Notation.LongAlgebraic;
+import chess.Notation.PgnGame;
+import chess.Search.Perft;
+import chess.Search.SearchLimits;
+import chess.Search.Searcher;
+
+// Speaks the UCI protocol over stdin/stdout, so the engine can be used by
+// GUIs, match runners and test suites without starting JavaFX
+// Usage: java -cp <classes> chess.Uci.UciServer
+public class UciServer {
+    static final String NAME = "ChessJava";
+    static final String AUTHOR = "TheDark1ord";
+
+    private final BufferedReader input;
+    private final PrintWriter output;
+
+    private final ChessBoard board = new ChessBoard(PgnGame.STARTING_FEN);
+    private final MoveGeneration generator = new MoveGeneration(board);
+    private final Evaluation evaluation = new Evaluation();
+    private final Searcher searcher = new Searcher(board, generator, evaluation);
+
+    // Thread running the current "go" command, null when idle
+    private Thread searchThread;
+    // Set while pondering, the bestmove is held back until "ponderhit" or "stop"
+    private CountDownLatch ponderRelease;
+    // Limits of the ponder search, applied on "ponderhit"
+    private SearchLimits ponderLimits;
+
+    public UciServer(InputStream in, OutputStream out) {
+        input = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        output = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), false);
+    }
+
+    public static void main(String[] args) throws IOException {
+        new UciServer(System.in, System.out).run();
+    }
+
+    // Handles commands until "quit" or end of input
+    public void run() throws IOException {
+        String line;
+        while ((line = input.readLine()) != null) {
+            if (!handle(line.trim())) {
+                break;
+            }
+        }
+        stopSearch();
+    }
+
+    // Returns false on "quit"
+    boolean handle(String line) {
+        if (line.isEmpty()) {
+            return true;
+        }
+        String[] tokens = line.split("\\s+");
+
+        switch (tokens[0]) {
+            case "uci":
+                send("id name " + NAME);
+                send("id author " + AUTHOR);
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "ucinewgame":
+                stopSearch();
+                board.setPosition(PgnGame.STARTING_FEN);
+                evaluation.pawnTable().clear();
+                break;
+            case "position":
+                stopSearch();
+                position(tokens);
+                break;
+            case "go":
+                stopSearch();
+                go(tokens);
+                break;
+            case "perft":
+                stopSearch();
+                perft(parseInt(tokens, 1, 1));
+                break;
+            case "ponderhit":
+                ponderHit();
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "quit":
+                return false;
+            default:
+                // Unknown commands are ignored, as the protocol requires
+                break;
+        }
+        return true;
+    }
+
+    private void position(String[] tokens) {
+        int index = 1;
+        if (index < tokens.length && tokens[index].equals("startpos")) {
+            board.setPosition(PgnGame.STARTING_FEN);
+            index++;
+        } else if (index < tokens.length && tokens[index].equals("fen")) {
+            StringBuilder fen = new StringBuilder();
+            index++;
+            while (index < tokens.length && !tokens[index].equals("moves")) {
+                fen.append(tokens[index++]).append(' ');
+            }
+            // A rejected FEN keeps the previous position
+            try {
+                board.setPosition(fen.toString().trim());
+            } catch (IllegalArgumentException e) {
+                send("info string invalid fen " + fen.toString().trim());
+                return;
+            }
+        } else {
+            return;
+        }
+
+        if (index < tokens.length && tokens[index].equals("moves")) {
+            for (index++; index < tokens.length; index++) {
+                Move move = LongAlgebraic.decode(generator, tokens[index]);
+                if (move == null) {
+                    send("info string illegal move " + tokens[index]);
+                    return;
+                }
+                generator.makeAMove(move);
+            }
+        }
+    }
+
+    private void go(String[] tokens) {
+        SearchLimits limits = new SearchLimits();
+        boolean ponder = false;
+        for (int i = 1; i < tokens.length; i++) {
+            switch (tokens[i]) {
+                case "perft":
+                    perft(parseInt(tokens, i + 1, 1));
+                    return;
+                case "depth":
+                    limits.depth = parseInt(tokens, ++i, 0);
+                    break;
+                case "nodes":
+                    limits.nodes = parseLong(tokens, ++i);
+                    break;
+                case "movetime":
+                    limits.moveTime = parseLong(tokens, ++i);
+                    break;
+                case "wtime":
+                    limits.whiteTime = parseLong(tokens, ++i);
+                    break;
+                case "btime":
+                    limits.blackTime = parseLong(tokens, ++i);
+                    break;
+                case "winc":
+                    limits.whiteIncrement = parseLong(tokens, ++i);
+                    break;
+                case "binc":
+                    limits.blackIncrement = parseLong(tokens, ++i);
+                    break;
+                case "movestogo":
+                    limits.movesToGo = parseInt(tokens, ++i, 0);
+                    break;
+                case "infinite":
+                    limits.infinite = true;
+                    break;
+                case "ponder":
+                    ponder = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // A ponder search has no time limit until the opponent plays the expected move
+        SearchLimits searchLimits = limits;
+        CountDownLatch release = null;
+        if (ponder) {
+            searchLimits = new SearchLimits();
+            searchLimits.depth = limits.depth;
+            searchLimits.nodes = limits.nodes;
+            searchLimits.infinite = true;
+            ponderLimits = limits;
+            release = new CountDownLatch(1);
+        }
+        ponderRelease = release;
+
+        SearchLimits finalLimits = searchLimits;
+        CountDownLatch finalRelease = release;
+        // Here and not in the search thread, a stop sent right after go must not be lost
+        searcher.prepare();
+        searchThread = new Thread(() -> {
+            AtomicReference<List<Move>> lastPv = new AtomicReference<>(List.of());
+            Move best = searcher.search(finalLimits, (depth, score, nodes, millis, pv) -> {
+                lastPv.set(pv);
+                info(depth, score, nodes, millis, pv);
+            });
+            if (finalRelease != null) {
+                try {
+                    finalRelease.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            StringBuilder line = new StringBuilder("bestmove ");
+            line.append(best == null ? "0000" : LongAlgebraic.encode(best));
+            List<Move> pv = lastPv.get();
+            if (best != null && pv.size() > 1 && pv.get(0).equals(best)) {
+                line.append(" ponder ").append(LongAlgebraic.encode(pv.get(1)));
+            }
+            send(line.toString());
+        }, "uci-search");
+        searchThread.setDaemon(true);
+        searchThread.start();
+    }
+
+    private void info(int depth, int score, long nodes, long millis, List<Move> pv) {
+        StringBuilder line = new StringBuilder("info depth ").append(depth);
+        if (Math.abs(score) >= Searcher.MATE_BOUND) {
+            int plies = Searcher.MATE - Math.abs(score);
+            int moves = (plies + 1) / 2;
+            line.append(" score mate ").append(score > 0 ? moves : -moves);
+        } else {
+            line.append(" score cp ").append(score);
+        }
+        line.append(" nodes ").append(nodes)
+                .append(" time ").append(millis)
+                .append(" nps ").append(millis > 0 ? nodes * 1000 / millis : nodes);
+        if (!pv.isEmpty()) {
+            line.append(" pv");
+            for (Move move : pv) {
+                line.append(' ').append(LongAlgebraic.encode(move));
+            }
+        }
+        send(line.toString());
+    }
+
+    private void perft(int depth) {
+        long start = System.currentTimeMillis();
+        long total = 0;
+        for (Map.Entry<String, Long> entry : Perft.divide(generator, depth).entrySet()) {
+            send(entry.getKey() + ": " + entry.getValue());
+            total += entry.getValue();
+        }
+        send("");
+        send("Nodes searched: " + total);
+        send("info string perft time " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // The opponent played the expected move, the search continues with its real limits
+    private void ponderHit() {
+        if (ponderRelease == null) {
+            return;
+        }
+        searcher.limitTime(ponderLimits);
+        ponderRelease.countDown();
+        ponderRelease = null;
+    }
+
+    // Waits for the running search, its bestmove is still sent
+    private void stopSearch() {
+        if (searchThread == null) {
+            return;
+        }
+        if (ponderRelease != null) {
+            ponderRelease.countDown();
+            ponderRelease = null;
+        }
+        searcher.stop();
+        try {
+            searchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+    }
+
+    private synchronized void send(String line) {
+        output.println(line);
+        output.flush();
+    }
+
+    private static int parseInt(String[] tokens, int index, int fallback) {
+        try {
+            return index < tokens.length ? Integer.parseInt(tokens[index]) : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static long parseLong(String[] tokens, int index) {
+        try {
+            return index < tokens.length ? Long.parseLong(tokens[index]) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
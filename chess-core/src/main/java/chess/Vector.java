@@ -1,6 +1,6 @@
 package chess;
 
-import org.apache.commons.lang3.builder.*;
+import java.util.Objects;
 
 public class Vector {
     public int x;
@@ -63,10 +63,7 @@ public class Vector {
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder()
-                .append(x)
-                .append(y)
-                .toHashCode();
+        return Objects.hash(x, y);
     }
 
     @Override
@@ -79,9 +76,6 @@ public class Vector {
         }
 
         Vector o = (Vector) other;
-        return new EqualsBuilder()
-                .append(this.x, o.x)
-                .append(this.y, o.y)
-                .isEquals();
+        return this.x == o.x && this.y == o.y;
     }
 }
@@ -0,0 +1,16 @@
+module chess.core {
+    // Optional, NnueEvaluator falls back to plain loops without it
+    requires static jdk.incubator.vector;
+
+    exports chess;
+    exports chess.Archive;
+    exports chess.Book;
+    exports chess.Endgame;
+    exports chess.Eval;
+    exports chess.Logic;
+    exports chess.Moves;
+    exports chess.Notation;
+    exports chess.Search;
+    exports chess.Server;
+    exports chess.Uci;
+}
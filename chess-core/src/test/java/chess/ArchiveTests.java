@@ -0,0 +1,131 @@
+package chess;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import chess.Archive.ArchiveReader;
+import chess.Archive.ArchiveWriter;
+import chess.Archive.ArchivedGame;
+import chess.Archive.PositionIndex;
+import chess.Archive.PositionIndexBuilder;
+import chess.Logic.ChessBoard;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Moves.PackedMove;
+import chess.Notation.LongAlgebraic;
+import chess.Notation.MappedPgnReader;
+import chess.Notation.PgnGame;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class ArchiveTests {
+    private static final String games =
+            "[Event \"1\"]\n[White \"Müller\"]\n[Custom \"x\"]\n[Result \"1-0\"]\n\n1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 1-0\n\n" +
+            "[Event \"2\"]\n[SetUp \"1\"]\n[FEN \"7k/P7/8/8/8/8/8/K7 w - - 0 1\"]\n\n1. a8=N Kg7 2. Nc7 *\n\n" +
+            "[Event \"3\"]\n[Result \"1/2-1/2\"]\n\n1. d4 d5 2. c4 e6 3. Nc3 Nf6 1/2-1/2\n";
+
+    @Test
+    public void archiveTest() throws Exception {
+        Path dir = Files.createTempDirectory("archive");
+        Path pgn = dir.resolve("games.pgn");
+        Path archive = dir.resolve("games.arc");
+        Files.writeString(pgn, games);
+
+        List<Map<String, String>> tags = new ArrayList<>();
+        List<short[]> moves = new ArrayList<>();
+        try (MappedPgnReader reader = new MappedPgnReader(pgn, 1, 1 << 20)) {
+            reader.forEach(game -> {
+                tags.add(game.tags());
+                moves.add(game.moves());
+            });
+        }
+
+        // Written in two sessions, the second one appends
+        try (ArchiveWriter writer = new ArchiveWriter(archive)) {
+            Assert.assertEquals(0, writer.append(tags.get(0), "1-0", moves.get(0), moves.get(0).length));
+            Assert.assertEquals(1, writer.append(tags.get(1), "*", moves.get(1), moves.get(1).length));
+        }
+        try (ArchiveWriter writer = new ArchiveWriter(archive)) {
+            Assert.assertEquals(2, writer.append(tags.get(2), "1/2-1/2", moves.get(2), moves.get(2).length));
+            try {
+                writer.append(tags.get(0), "*", new short[] { PackedMove.pack(8, 32, 0) }, 1);
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                // e2e5 is not legal
+            }
+        }
+
+        try (ArchiveReader reader = new ArchiveReader(archive)) {
+            Assert.assertEquals(3, reader.size());
+            MoveGeneration generator = new MoveGeneration(new ChessBoard());
+            // Random access
+            for (int i = 2; i >= 0; i--) {
+                ArchivedGame game = reader.game(i);
+                Assert.assertEquals(tags.get(i), game.tags);
+                Assert.assertArrayEquals(moves.get(i), game.replay(generator));
+            }
+            Assert.assertEquals("Müller", reader.game(0).tag("White"));
+            Assert.assertEquals("1/2-1/2", reader.game(2).result);
+            Assert.assertEquals("a7a8n", PackedMove.toString(reader.game(1).replay(generator)[0]));
+            Assert.assertEquals(6, reader.game(2).moveCount());
+        }
+        Assert.assertTrue(Files.size(archive) < Files.size(pgn));
+        Assert.assertEquals(3 * 8, Files.size(dir.resolve("games.arc.idx")));
+        for (Path path : Arrays.asList(pgn, archive, dir.resolve("games.arc.idx"), dir)) {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void positionIndexTest() throws Exception {
+        Path dir = Files.createTempDirectory("position-index");
+        Path archive = dir.resolve("games.arc");
+        Path index = dir.resolve("games.pos");
+        String[][] games = {
+                { "e2e4", "e7e5", "g1f3", "b8c6" },
+                { "d2d4", "d7d5" },
+                { "g1f3", "b8c6", "e2e4", "e7e5" },
+        };
+        try (ArchiveWriter writer = new ArchiveWriter(archive)) {
+            for (String[] game : games) {
+                short[] moves = new short[game.length];
+                MoveGeneration generator = new MoveGeneration(new ChessBoard(PgnGame.STARTING_FEN));
+                for (int i = 0; i < game.length; i++) {
+                    Move move = LongAlgebraic.decode(generator, game[i]);
+                    moves[i] = PackedMove.pack(move);
+                    generator.makeAMove(move);
+                }
+                writer.append(Map.of(), "*", moves, moves.length);
+            }
+        }
+
+        // Tiny buffers, so several runs are merged, two at a time
+        PositionIndexBuilder builder = new PositionIndexBuilder(2, 3, dir, 2);
+        Assert.assertEquals(13, builder.build(archive, index));
+        Assert.assertEquals(0, builder.gamesSkipped());
+        try (PositionIndex positions = new PositionIndex(index)) {
+            Assert.assertEquals(13, positions.size());
+
+            long[] start = positions.find("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+            Assert.assertArrayEquals(new long[] { PositionIndex.posting(0, 0), PositionIndex.posting(1, 0),
+                    PositionIndex.posting(2, 0) }, start);
+
+            // Reached by both move orders
+            long[] transposed = positions.find("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+            Assert.assertEquals(2, transposed.length);
+            Assert.assertEquals(0, PositionIndex.game(transposed[0]));
+            Assert.assertEquals(4, PositionIndex.ply(transposed[0]));
+            Assert.assertEquals(2, PositionIndex.game(transposed[1]));
+
+            Assert.assertEquals(0, positions.find("4k3/8/8/8/8/8/8/4K3 w - - 0 1").length);
+        }
+        for (Path path : Arrays.asList(archive, dir.resolve("games.arc.idx"), index, dir)) {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package chess;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import chess.Book.BookBuilder;
+import chess.Book.PolyglotBook;
+import chess.Logic.ChessBoard;
+import chess.Logic.MoveGeneration;
+import chess.Logic.Zobrist;
+import chess.Notation.LongAlgebraic;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class BookTests {
+    private static final String games =
+            "[Event \"1\"]\n[Result \"1-0\"]\n\n1. e4 e5 2. Nf3 Nc6 3. Bb5 {Ruy Lopez} a6 1-0\n\n" +
+            "[Event \"2\"]\n[Result \"1/2-1/2\"]\n\n1. e4 e5 2. Nf3 (2. f4 exf4) Nf6 1/2-1/2\n\n" +
+            "[Event \"3\"]\n[Result \"0-1\"]\n\n1. d4 d5 2. c4 e6 0-1\n\n" +
+            "[Event \"4\"]\n[Result \"1-0\"]\n\n1. e4 c5 2. Nf3 d6 3. d4 cxd4 4. Nxd4 Nf6 5. Nc3 a6 1-0\n\n" +
+            "[Event \"5\"]\n[FEN \"8/8/8/8/8/8/8/8 w - - 0 1\"]\n[Result \"1-0\"]\n\n1. e4 1-0\n";
+
+    @Test
+    public void buildBookTest() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("book-test");
+        Path pgn = dir.resolve("games.pgn");
+        Path bin = dir.resolve("book.bin");
+        Files.writeString(pgn, games);
+
+        // Tiny tables, so the builder has to spill several runs, merged two at a time
+        BookBuilder builder = new BookBuilder(2, 10, 4, 1, dir, 2);
+        builder.build(pgn, bin);
+        Assert.assertEquals(4, builder.gamesProcessed());
+        // The one without kings
+        Assert.assertEquals(1, builder.gamesSkipped());
+
+        PolyglotBook book = new PolyglotBook(bin);
+        ChessBoard board = new ChessBoard("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        List<PolyglotBook.Entry> entries = book.lookup(Zobrist.hash(board));
+
+        // e4: two wins and a draw, d4: a loss, so it is dropped
+        Assert.assertEquals(1, entries.size());
+        Assert.assertEquals("e2e4", PolyglotBook.moveToString(entries.get(0).move));
+        Assert.assertEquals(5, entries.get(0).weight);
+
+        Files.delete(bin);
+        Files.delete(pgn);
+        Files.delete(dir);
+    }
+
+    // The keys published with the Polyglot book format
+    @Test
+    public void polyglotKeysTest() {
+        String start = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+        ChessBoard board = new ChessBoard(start);
+        MoveGeneration generator = new MoveGeneration(board);
+        Assert.assertEquals(0x463b96181691fc9cL, Zobrist.hash(board));
+
+        String[] moves = { "e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7" };
+        long[] keys = { 0x823c9b50fd114196L, 0x0756b94461c50fb0L, 0x662fafb965db29d4L,
+                0x22a48b5a8e47ff78L, 0x652a607ca3f242c1L, 0x00fdd303c946bdd9L };
+        for (int i = 0; i < moves.length; i++) {
+            Assert.assertTrue(generator.makeAMove(LongAlgebraic.decode(generator, moves[i])));
+            Assert.assertEquals(moves[i], keys[i], Zobrist.hash(board));
+        }
+
+        board.setPosition(start);
+        generator = new MoveGeneration(board);
+        moves = new String[] { "a2a4", "b7b5", "h2h4", "b5b4", "c2c4", "b4c3", "a1a3" };
+        for (String move : moves) {
+            Assert.assertTrue(generator.makeAMove(LongAlgebraic.decode(generator, move)));
+        }
+        // An en passant capture and a lost castling right
+        Assert.assertEquals(0x5c3f9b829b279560L, Zobrist.hash(board));
+    }
+}
@@ -0,0 +1,225 @@
+package chess;
+
+import org.junit.Test;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.MoveGeneration;
+import chess.Logic.PositionCodec;
+import chess.Logic.Zobrist;
+import chess.Moves.Move;
+import chess.Notation.LongAlgebraic;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+
+public class ChessTests {
+    // Data was taken from https://www.chessprogramming.org/Perft_Results
+    private static final List<Long> pos1MoveCount = Arrays.asList(0L, 20L, 400L, 8902L, 197281L, 4865609L);
+    private static final List<Long> pos5MoveCount = Arrays.asList(0L, 44L, 1486L, 62379L, 2103552L);
+    private static final String pos1FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String pos5FEN = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    @Test
+    public void position1Test() {
+        ChessBoard board = new ChessBoard(pos1FEN);
+        MoveGeneration generator = new MoveGeneration(board);
+
+        Assert.assertEquals(countMoves(generator, 1), (long) pos1MoveCount.get(1));
+        System.out.println("Pos - 1, depth - 1 -- DONE");
+
+        Assert.assertEquals(countMoves(generator, 2), (long) pos1MoveCount.get(2));
+        System.out.println("Pos - 1, depth - 2 -- DONE");
+
+        Assert.assertEquals(countMoves(generator, 3), (long) pos1MoveCount.get(3));
+        System.out.println("Pos - 1, depth - 3 -- DONE");
+
+        Assert.assertEquals(countMoves(generator, 4), (long) pos1MoveCount.get(4));
+        System.out.println("Pos - 1, depth - 4 -- DONE");
+
+        Assert.assertEquals(countMoves(generator, 5), (long) pos1MoveCount.get(5));
+        System.out.println("Pos - 1, depth - 5 -- DONE");
+    }
+
+    @Test
+    public void position5Test() {
+        ChessBoard board = new ChessBoard(pos5FEN);
+        MoveGeneration generator = new MoveGeneration(board);
+
+        Assert.assertEquals(countMoves(generator, 1), (long) pos5MoveCount.get(1));
+        System.out.println("Pos - 5, depth - 1 -- DONE");
+
+        Assert.assertEquals(countMoves(generator, 2), (long) pos5MoveCount.get(2));
+        System.out.println("Pos - 5, depth - 2 -- DONE");
+
+        Assert.assertEquals(countMoves(generator, 3), (long) pos5MoveCount.get(3));
+        System.out.println("Pos - 5, depth - 3 -- DONE");
+
+        Assert.assertEquals(countMoves(generator, 4), (long) pos5MoveCount.get(4));
+        System.out.println("Pos - 5, depth - 4 -- DONE");
+    }
+
+
+
+    private static final List<String> randomFENs = Arrays.asList(
+        "rn1qkb1r/p2ppppp/bp3n2/2p5/2P5/5NP1/PP1PPP1P/RNBQKB1R w KQkq - 1 5",
+        "r1bqkb1r/ppp2ppp/2n2n2/3pp3/2B1P3/3P4/PPPN1PPP/R1BQK1NR w KQkq - 0 5",
+        "rnbqk1nr/pp2bppp/4p3/2pp4/P7/3P1NP1/1PP1PP1P/RNBQKB1R w KQkq - 1 5",
+        "rnbqk1nr/pp2ppbp/2p3p1/3p4/P2P4/5NP1/1PP1PP1P/RNBQKB1R w KQkq - 1 5",
+        "rn1qkbnr/ppp2ppp/4b3/3p4/8/P4N2/1PPP1PPP/RNBQKB1R w KQkq - 1 5"
+    );
+    @Test
+    public void FENtest() {
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < randomFENs.size(); i++) {
+            board.setPosition(randomFENs.get(i));
+            Assert.assertEquals(randomFENs.get(i), board.toFEN());
+        }
+    }
+
+    @Test
+    public void positionCodecTest() {
+        List<String> fens = new ArrayList<>(randomFENs);
+        fens.add(pos1FEN);
+        fens.add(pos5FEN);
+        fens.add("rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2");
+        fens.add("8/8/8/4k3/8/8/8/4K3 b - - 99 300");
+
+        ChessBoard board = new ChessBoard();
+        ByteBuffer fixed = ByteBuffer.allocate(fens.size() * PositionCodec.SIZE);
+        ByteBuffer compact = ByteBuffer.allocate(fens.size() * PositionCodec.SIZE);
+        for (String fen : fens) {
+            board.setPosition(fen);
+            PositionCodec.write(board, fixed);
+            PositionCodec.writeCompact(board, compact);
+        }
+        Assert.assertEquals(fens.size() * PositionCodec.SIZE, fixed.position());
+        fixed.flip();
+        compact.flip();
+
+        for (int i = 0; i < fens.size(); i++) {
+            PositionCodec.read(fixed, board);
+            Assert.assertEquals(fens.get(i), board.toFEN());
+            PositionCodec.readCompact(compact, board);
+            Assert.assertEquals(fens.get(i), board.toFEN());
+            Assert.assertEquals(new ChessBoard(fens.get(i)).positionKey(), board.positionKey());
+        }
+        Assert.assertFalse(compact.hasRemaining());
+
+        // Random access into fixed records
+        PositionCodec.read(fixed, 5, board);
+        Assert.assertEquals(pos1FEN, board.toFEN());
+        Assert.assertEquals(20, new MoveGeneration(board).getAllMoves().count());
+
+        // Two bare kings
+        compact.clear();
+        board.setPosition("8/8/8/4k3/8/8/8/4K3 w - - 0 1");
+        PositionCodec.writeCompact(board, compact);
+        Assert.assertEquals(13, compact.position());
+    }
+
+    @Test
+    public void repetitionTest() {
+        String start = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+        ChessBoard board = new ChessBoard(start);
+        MoveGeneration generator = new MoveGeneration(board);
+        String[] moves = { "g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1", "f6g8" };
+
+        for (int i = 0; i < moves.length; i++) {
+            Assert.assertEquals(ChessBoard.GameResult.NONE, board.gameResult);
+            Assert.assertTrue(generator.makeAMove(LongAlgebraic.decode(generator, moves[i])));
+        }
+        // The starting position for the third time
+        Assert.assertEquals(ChessBoard.GameResult.DRAW, board.gameResult);
+
+        for (int i = 0; i < moves.length; i++) {
+            generator.undoMove();
+            Assert.assertEquals(ChessBoard.GameResult.NONE, board.gameResult);
+        }
+        Assert.assertEquals(start, board.toFEN());
+        Assert.assertEquals(new ChessBoard(start).positionKey(), board.positionKey());
+        Assert.assertNull(board.peekLastMove());
+    }
+
+    @Test
+    public void legalTargetsTest() {
+        ChessBoard board = new ChessBoard(pos5FEN);
+        MoveGeneration generator = new MoveGeneration(board);
+        long[] before = targets(generator);
+        List<Move> moves = generator.getAllMoves().collect(Collectors.toList());
+        for (Move move : moves) {
+            Assert.assertTrue(generator.isLegal(move.from.y * 8 + move.from.x, move.to.y * 8 + move.to.x));
+        }
+
+        for (Move move : moves) {
+            Assert.assertTrue(generator.makeAMove(move));
+            long[] after = targets(generator);
+            for (Move reply : generator.getAllMoves().collect(Collectors.toList())) {
+                Assert.assertTrue((after[reply.from.y * 8 + reply.from.x] & 1L << (reply.to.y * 8 + reply.to.x)) != 0);
+            }
+            generator.undoMove();
+            Assert.assertArrayEquals(before, targets(generator));
+        }
+        // Not a legal move, the cache of the position is not fooled by it
+        Assert.assertFalse(generator.makeAMove(new Move(board.getPiece(new Vector(0, 0)), new Vector(0, 0), new Vector(0, 5))));
+    }
+
+    private long[] targets(MoveGeneration generator) {
+        long[] targets = new long[64];
+        for (int i = 0; i < 64; i++) {
+            targets[i] = generator.legalTargets(i);
+        }
+        return targets;
+    }
+
+    private long countMoves(MoveGeneration generator, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        var wrapper = new Object() {
+            long moveCount = 0;
+        };
+
+        Stream<Move> allMoves = generator.getAllMoves();
+        allMoves.forEach((Move move) -> {
+            generator.makeAMove(move);
+
+            long curMoves = countMoves(generator, depth - 1);
+
+            wrapper.moveCount += curMoves;
+            generator.undoMove();
+        });
+        return wrapper.moveCount;
+    }
+
+    @Test
+    public void incrementalKeysTest() {
+        // Castling, promotions with and without captures, and en passant
+        String[] fens = { pos1FEN, pos5FEN,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3" };
+        Random random = new Random(9);
+
+        for (String fen : fens) {
+            ChessBoard board = new ChessBoard(fen);
+            MoveGeneration generator = new MoveGeneration(board);
+            for (int i = 0; i < 300; i++) {
+                List<Move> moves = generator.getAllMoves().collect(Collectors.toList());
+                if (moves.isEmpty() || board.gameResult != ChessBoard.GameResult.NONE || random.nextInt(3) == 0) {
+                    generator.undoMove();
+                } else {
+                    Assert.assertTrue(generator.makeAMove(moves.get(random.nextInt(moves.size()))));
+                }
+                Assert.assertEquals(board.toFEN(), Zobrist.hash(board), board.positionKey());
+                Assert.assertEquals(board.toFEN(), Zobrist.pawnHash(board), board.pawnKey());
+            }
+        }
+    }
+}
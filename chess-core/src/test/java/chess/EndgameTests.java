@@ -0,0 +1,50 @@
+package chess;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import chess.Endgame.Bitbase;
+import chess.Endgame.BitbaseGenerator;
+import chess.Logic.ChessBoard;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class EndgameTests {
+    @Test
+    public void KPKTest() throws IOException, InterruptedException {
+        Path file = Files.createTempFile("kpk", ".bin");
+        new BitbaseGenerator().generate("KPK", file);
+        Bitbase kpk = Bitbase.open(file);
+
+        // King in front of the pawn on the 6th rank wins with any side to move
+        Assert.assertEquals(Bitbase.WIN, kpk.probe(new ChessBoard("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1")));
+        Assert.assertEquals(Bitbase.LOSS, kpk.probe(new ChessBoard("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1")));
+        // Black keeps the opposition
+        Assert.assertEquals(Bitbase.DRAW, kpk.probe(new ChessBoard("4k3/8/8/4P3/4K3/8/8/8 w - - 0 1")));
+        // Rook pawn with the defending king in the corner
+        Assert.assertEquals(Bitbase.DRAW, kpk.probe(new ChessBoard("7k/8/8/8/8/8/7P/7K w - - 0 1")));
+        // Same positions with the colors swapped
+        Assert.assertEquals(Bitbase.WIN, kpk.probe(new ChessBoard("8/8/8/8/4p3/4k3/8/4K3 b - - 0 1")));
+        // Material the table does not cover
+        Assert.assertEquals(Bitbase.INVALID, kpk.probe(new ChessBoard("4k3/8/8/8/8/8/8/4K3 w - - 0 1")));
+
+        Files.delete(file);
+    }
+
+    @Test
+    public void KQKTest() throws InterruptedException {
+        Bitbase kqk = new BitbaseGenerator().generate("KQK");
+
+        Assert.assertEquals(Bitbase.WIN, kqk.probe(new ChessBoard("8/8/8/3k4/8/8/8/Q3K3 w - - 0 1")));
+        // Black takes the undefended queen
+        Assert.assertEquals(Bitbase.DRAW, kqk.probe(new ChessBoard("8/8/8/3k4/3Q4/8/8/4K3 b - - 0 1")));
+        // Stalemate
+        Assert.assertEquals(Bitbase.DRAW, kqk.probe(new ChessBoard("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1")));
+        // Mate
+        Assert.assertEquals(Bitbase.LOSS, kqk.probe(new ChessBoard("k7/1Q6/1K6/8/8/8/8/8 b - - 0 1")));
+        // Black can't be in check with white to move
+        Assert.assertEquals(Bitbase.INVALID, kqk.probe(new ChessBoard("k7/1Q6/1K6/8/8/8/8/8 w - - 0 1")));
+    }
+}
@@ -0,0 +1,116 @@
+package chess;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import chess.Eval.Evaluation;
+import chess.Eval.NnueEvaluator;
+import chess.Eval.NnueNetwork;
+import chess.Eval.PawnHashTable;
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class EvalTests {
+    @Test
+    public void symmetryTest() {
+        Evaluation eval = new Evaluation();
+
+        Assert.assertEquals(0, eval.evaluate(
+                new ChessBoard("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1")));
+
+        // The same position with colors swapped scores the same for the side to move
+        int white = eval.evaluate(new ChessBoard("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3"));
+        int black = eval.evaluate(new ChessBoard("rnbqkb1r/pppp1ppp/5n2/4p3/4P3/2N5/PPPP1PPP/R1BQKBNR b KQkq - 2 3"));
+        Assert.assertEquals(white, black);
+    }
+
+    @Test
+    public void pawnHashTest() {
+        PawnHashTable table = new PawnHashTable(64);
+        Evaluation eval = new Evaluation(table);
+
+        ChessBoard board = new ChessBoard("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+        MoveGeneration generator = new MoveGeneration(board);
+        int before = eval.evaluate(board);
+        Assert.assertEquals(1, table.misses());
+
+        // Quiet piece moves keep the pawn structure
+        List<Move> moves = generator.getAllMoves().collect(Collectors.toList());
+        for (Move move : moves) {
+            if (move.piece.getName() == ChessPiece.Name.PAWN || board.getPiece(move.to) != null) {
+                continue;
+            }
+            generator.makeAMove(move);
+            eval.evaluate(board);
+            generator.undoMove();
+        }
+        Assert.assertEquals(1, table.misses());
+        Assert.assertTrue(table.hits() > 10);
+
+        // Cached terms give the same result as computing them
+        Assert.assertEquals(before, eval.evaluate(board));
+        Assert.assertEquals(before, new Evaluation(new PawnHashTable(1)).evaluate(board));
+    }
+
+    @Test
+    public void nnueIncrementalTest() throws IOException {
+        Path file = Files.createTempFile("net", ".nnue");
+        NnueNetwork.random(64, 8, 7).write(file);
+        NnueNetwork network = NnueNetwork.load(file);
+        Files.delete(file);
+
+        // Has castling, captures and promotions
+        ChessBoard board = new ChessBoard("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8");
+        MoveGeneration generator = new MoveGeneration(board);
+        NnueEvaluator evaluator = new NnueEvaluator(network, board);
+
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            List<Move> moves = generator.getAllMoves().collect(Collectors.toList());
+            if (moves.isEmpty() || random.nextInt(4) == 0) {
+                generator.undoMove();
+            } else {
+                generator.makeAMove(moves.get(random.nextInt(moves.size())));
+            }
+
+            // Accumulators updated move by move match the ones built from scratch
+            NnueEvaluator fresh = new NnueEvaluator(network, board);
+            Assert.assertEquals(fresh.evaluate(), evaluator.evaluate());
+            fresh.detach();
+        }
+    }
+
+    @Test
+    public void nnueVectorTest() {
+        // The tests run with --add-modules jdk.incubator.vector
+        Assert.assertTrue(NnueEvaluator.VECTORS_AVAILABLE);
+
+        // 72 is not a multiple of any vector size, so the loop tails are used too
+        NnueNetwork network = NnueNetwork.random(72, 8, 11);
+        ChessBoard board = new ChessBoard("r1bqkb1r/ppp2ppp/2n2n2/3pp3/2B1P3/3P4/PPPN1PPP/R1BQK1NR w KQkq - 0 5");
+        MoveGeneration generator = new MoveGeneration(board);
+        NnueEvaluator vectors = new NnueEvaluator(network, board);
+        NnueEvaluator loops = new NnueEvaluator(network, board, false);
+        Assert.assertTrue(vectors.usesVectors());
+        Assert.assertFalse(loops.usesVectors());
+
+        Random random = new Random(5);
+        for (int i = 0; i < 100; i++) {
+            List<Move> moves = generator.getAllMoves().collect(Collectors.toList());
+            if (moves.isEmpty()) {
+                break;
+            }
+            generator.makeAMove(moves.get(random.nextInt(moves.size())));
+            Assert.assertEquals(loops.evaluate(), vectors.evaluate());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package chess;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Moves.PackedMove;
+import chess.Notation.FenCodec;
+import chess.Notation.LongAlgebraic;
+import chess.Notation.MappedPgnReader;
+import chess.Notation.San;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+public class NotationTests {
+    private static final String games =
+            "[Event \"1\"]\n[White \"Müller\"]\n[Result \"1-0\"]\n\n1. e4 e5 2. Nf3 Nc6 3. Bb5 {Ruy Lopez} a6 1-0\n\n" +
+            "[Event \"2\"]\r\n[Result \"1/2-1/2\"]\r\n\r\n1. e4 e5 2. Nf3 (2. f4 exf4) Nf6\r\n3. Bc4 Nc6 4. O-O 1/2-1/2\r\n\r\n" +
+            "[Event \"3\"]\n[SetUp \"1\"]\n[FEN \"7k/P7/8/8/8/8/8/K7 w - - 0 1\"]\n\n1. a8=Q# 1-0\n\n" +
+            "[Event \"4\"]\n[Result \"0-1\"]\n\n1.d4 d5 2.Qxd5?? 0-1\n";
+
+    @Test
+    public void mappedPgnTest() throws Exception {
+        Path pgn = Files.createTempFile("games", ".pgn");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            text.append(games).append('\n');
+        }
+        Files.writeString(pgn, text);
+
+        Map<String, Integer> plies = new ConcurrentHashMap<>();
+        Map<String, String> firstMoves = new ConcurrentHashMap<>();
+        // Tiny chunks, so games are split across many tasks
+        try (MappedPgnReader reader = new MappedPgnReader(pgn, 4, 100)) {
+            long count = reader.forEach(game -> {
+                String event = game.tag("Event");
+                plies.merge(event, game.moveCount(), Integer::sum);
+                if (game.moveCount() > 0) {
+                    firstMoves.put(event, PackedMove.toString(game.move(0)) + " " + game.result()
+                            + " " + game.isComplete() + " " + game.tag("White"));
+                }
+            });
+            Assert.assertEquals(200, count);
+        }
+
+        Assert.assertEquals(50 * 6, (int) plies.get("1"));
+        // The variation is skipped
+        Assert.assertEquals(50 * 7, (int) plies.get("2"));
+        Assert.assertEquals(50 * 1, (int) plies.get("3"));
+        // Stops at the illegal move
+        Assert.assertEquals(50 * 2, (int) plies.get("4"));
+
+        Assert.assertEquals("e2e4 1-0 true Müller", firstMoves.get("1"));
+        Assert.assertEquals("e2e4 1/2-1/2 true null", firstMoves.get("2"));
+        Assert.assertEquals("a7a8q 1-0 true null", firstMoves.get("3"));
+        Assert.assertEquals("d2d4 0-1 false null", firstMoves.get("4"));
+        Files.delete(pgn);
+    }
+
+    @Test
+    public void sanTest() {
+        // Every legal move comes back from its own SAN
+        ChessBoard board = new ChessBoard("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        MoveGeneration generator = new MoveGeneration(board);
+        List<Move> moves = generator.getAllMoves().collect(Collectors.toList());
+        Assert.assertEquals(48, moves.size());
+        for (Move move : moves) {
+            String san = San.encode(generator, move);
+            Assert.assertEquals(san, move, San.decode(generator, san));
+        }
+
+        Assert.assertEquals("O-O", san("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", "e1g1"));
+        Assert.assertEquals("O-O-O", san("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", "e1c1"));
+        Assert.assertEquals("Rad1", san("4k3/8/8/8/8/8/4K3/R6R w - - 0 1", "a1d1"));
+        Assert.assertEquals("R1a4", san("4k3/R7/8/8/8/8/4K3/R7 w - - 0 1", "a1a4"));
+        Assert.assertEquals("exd5", san("4k3/8/8/3p4/4P3/8/8/4K3 w - - 0 1", "e4d5"));
+        Assert.assertEquals("b8=N", san("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1", "b7b8n"));
+        Assert.assertEquals("Qe4+", san("4k3/8/8/8/8/8/8/4K2Q w - - 0 1", "h1e4"));
+        Assert.assertEquals("Qh4#", san("rnbqkbnr/pppp1ppp/8/4p3/6P1/5P2/PPPPP2P/RNBQKBNR b KQkq - 0 2", "d8h4"));
+
+        // Tolerant input, castling with zeroes and a trailing annotation
+        board = new ChessBoard("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        generator = new MoveGeneration(board);
+        Assert.assertEquals("e1c1", LongAlgebraic.encode(San.decode(generator, "0-0-0!?")));
+        Assert.assertNull(San.decode(generator, "Rb1b1"));
+    }
+
+    @Test
+    public void fenCodecTest() {
+        String[] fens = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 13 47",
+        };
+        ByteBuffer bytes = ByteBuffer.allocate(1024);
+
+        // One board and codec for every position, as in a loop over an EPD file
+        ChessBoard board = new ChessBoard();
+        FenCodec codec = new FenCodec();
+        StringBuilder text = new StringBuilder();
+        for (String fen : fens) {
+            board.setPosition(fen);
+            text.setLength(0);
+            Assert.assertEquals(fen, board.appendFEN(text).toString());
+            Assert.assertEquals(new ChessBoard(fen).positionKey(), board.positionKey());
+
+            int start = bytes.position();
+            Assert.assertEquals(fen.length(), codec.write(board, bytes));
+            bytes.put((byte) '\n');
+            codec.read(bytes, start, start + fen.length(), board);
+            Assert.assertEquals(fen, board.toFEN());
+        }
+
+        // A failed load keeps the previous position, and the board is usable for the next one
+        String last = board.toFEN();
+        for (String bad : new String[] { "8/8/8/8/8/8/8/8 w - - 0 1", "4k3/8/8/8/8/8/8/4K3 w - e9 0 1",
+                "4k3/8/8/8/8/8/8/4K3 w - - 0", "4k3/8/8/8/8/8/8/4K3 x - - 0 1", "4k3/8/8/8/8/8/8/4KK2 w - - 0 1" }) {
+            try {
+                board.setPosition(bad);
+                Assert.fail(bad);
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals(last, board.toFEN());
+            }
+        }
+        board.setPosition(fens[0]);
+        Assert.assertEquals(48, new MoveGeneration(board).getAllMoves().count());
+    }
+
+    private static String san(String fen, String move) {
+        MoveGeneration generator = new MoveGeneration(new ChessBoard(fen));
+        return San.encode(generator, LongAlgebraic.decode(generator, move));
+    }
+}
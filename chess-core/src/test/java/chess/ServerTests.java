@@ -0,0 +1,202 @@
+package chess;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Moves.PackedMove;
+import chess.Notation.LongAlgebraic;
+import chess.Notation.PgnGame;
+import chess.Search.SearchLimits;
+import chess.Server.Broadcast;
+import chess.Server.GameServer;
+import chess.Server.Spectator;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+public class ServerTests {
+    private static String fenAfter(String fen, String... moves) {
+        ChessBoard board = new ChessBoard(fen);
+        MoveGeneration generator = new MoveGeneration(board);
+        for (String move : moves) {
+            generator.makeAMove(LongAlgebraic.decode(generator, move));
+        }
+        return board.toFEN();
+    }
+
+    private static GameServer server(long idleMillis) {
+        SearchLimits limits = new SearchLimits();
+        limits.depth = 2;
+        return new GameServer(4, 2, limits, 10_000, idleMillis);
+    }
+
+    @Test
+    public void gameServerTest() throws Exception {
+        try (GameServer server = server(60_000)) {
+            // Many games played at the same time, every move goes through the game's mailbox
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                ids.add(server.newGame(PgnGame.STARTING_FEN, null));
+            }
+            String[] moves = { "e2e4", "e7e5", "g1f3", "b8c6", "f1b5" };
+            List<CompletableFuture<Short>> replies = new ArrayList<>();
+            for (String move : moves) {
+                for (long id : ids) {
+                    replies.add(server.move(id, move));
+                }
+            }
+            for (CompletableFuture<Short> reply : replies) {
+                Assert.assertEquals(PackedMove.NONE, (short) reply.get());
+            }
+            Assert.assertEquals(fenAfter(PgnGame.STARTING_FEN, moves), server.fen(ids.get(123)).get());
+            Assert.assertEquals(1000, server.movesPlayed());
+
+            // Illegal moves are rejected and change nothing
+            try {
+                server.move(ids.get(0), "e1e3").get();
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof GameServer.IllegalMoveException);
+            }
+
+            // The engine answers every move
+            long game = server.newGame(PgnGame.STARTING_FEN, ChessPiece.Color.BLACK);
+            short reply = server.move(game, "e2e4").get();
+            Assert.assertTrue(reply != PackedMove.NONE);
+            Assert.assertTrue(server.fen(game).get().contains(" w "));
+
+            // The engine takes the mate in one
+            game = server.newGame("6k1/5ppp/8/8/8/8/5PPP/R5K1 b - - 0 1", ChessPiece.Color.WHITE);
+            server.move(game, "g8h8").get();
+            Assert.assertEquals(ChessBoard.GameResult.WHITE_WON, server.result(game).get());
+        }
+    }
+
+    @Test
+    public void moveTimeoutTest() throws Exception {
+        SearchLimits limits = new SearchLimits();
+        limits.moveTime = 300;
+        try (GameServer server = new GameServer(2, 1, limits, 50, 60_000)) {
+            long game = server.newGame(PgnGame.STARTING_FEN, ChessPiece.Color.BLACK);
+            try {
+                server.move(game, "e2e4").get();
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof TimeoutException);
+            }
+            // The search finishes after the client was told, its move must not be played
+            Thread.sleep(600);
+            Assert.assertEquals(fenAfter(PgnGame.STARTING_FEN, "e2e4"), server.fen(game).get());
+        }
+    }
+
+    @Test
+    public void evictionTest() throws Exception {
+        try (GameServer server = server(50)) {
+            long id = server.newGame(PgnGame.STARTING_FEN, null);
+            server.move(id, "d2d4").get();
+            server.move(id, "d7d5").get();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (server.residentGames() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            Assert.assertEquals(0, server.residentGames());
+
+            // The board comes back from the stored moves
+            server.move(id, "c2c4").get();
+            Assert.assertEquals(fenAfter(PgnGame.STARTING_FEN, "d2d4", "d7d5", "c2c4"), server.fen(id).get());
+        }
+    }
+
+    @Test
+    public void socketTest() throws Exception {
+        try (GameServer server = server(60_000)) {
+            int port = server.listen(0);
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                    PrintWriter out = new PrintWriter(
+                            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+                out.println("new fen 4k3/8/8/8/8/8/8/4K2R w K - 0 1");
+                String game = in.readLine();
+                Assert.assertTrue(game, game.startsWith("game "));
+                String id = game.substring(5);
+
+                out.println("move " + id + " e1g1");
+                Assert.assertEquals("moved " + id + " e1g1 result NONE", in.readLine());
+                out.println("move " + id + " e1g1");
+                Assert.assertEquals("illegal " + id + " e1g1", in.readLine());
+                out.println("fen " + id);
+                Assert.assertEquals("fen " + id + " " + fenAfter("4k3/8/8/8/8/8/8/4K2R w K - 0 1", "e1g1"),
+                        in.readLine());
+                out.println("move 999 e2e4");
+                Assert.assertEquals("error 999 No game 999", in.readLine());
+                out.println("stats");
+                Assert.assertTrue(in.readLine().startsWith("stats games 1 resident 1 moves 2"));
+                out.println("quit");
+                Assert.assertNull(in.readLine());
+            }
+        }
+    }
+
+    @Test
+    public void broadcastTest() throws Exception {
+        try (GameServer server = server(60_000)) {
+            long id = server.newGame(PgnGame.STARTING_FEN, null);
+            int port = server.listenBroadcast(0, 2);
+
+            List<Spectator> spectators = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Spectator spectator = new Spectator(port, id);
+                spectator.awaitPly(0);
+                spectators.add(spectator);
+            }
+            String[] moves = { "e2e4", "e7e5", "g1f3", "b8c6", "f1b5" };
+            for (String move : moves) {
+                server.move(id, move).get();
+            }
+            for (Spectator spectator : spectators) {
+                spectator.awaitPly(moves.length);
+                Assert.assertEquals(server.fen(id).get(), spectator.board.toFEN());
+                Assert.assertEquals(1, spectator.positions());
+                spectator.close();
+            }
+        }
+
+        // A reader that fell a whole ring behind gets the latest position instead of the moves
+        ChessBoard board = new ChessBoard(PgnGame.STARTING_FEN);
+        MoveGeneration generator = new MoveGeneration(board);
+        Broadcast broadcast = new Broadcast(board, 0, 4);
+        String[] moves = { "g1f3", "g8f6", "b1c3", "b8c6", "e2e4", "e7e5" };
+        for (String move : moves) {
+            Move legal = LongAlgebraic.decode(generator, move);
+            generator.makeAMove(legal);
+            broadcast.publish(board, PackedMove.pack(legal));
+        }
+        ByteBuffer frames = ByteBuffer.allocate(256);
+        Assert.assertEquals(6, broadcast.drain(1, frames));
+        Assert.assertEquals(Broadcast.POSITION, frames.get(0));
+        frames.clear();
+        Assert.assertEquals(6, broadcast.drain(4, frames));
+        Assert.assertEquals(14, frames.position());
+        Assert.assertEquals(Broadcast.MOVE, frames.get(7));
+        // e7e5
+        Assert.assertEquals(PackedMove.pack(52, 36, 0), frames.getShort(12));
+    }
+}
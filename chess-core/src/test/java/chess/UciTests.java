@@ -0,0 +1,81 @@
+package chess;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import chess.Eval.Evaluation;
+import chess.Logic.ChessBoard;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Notation.LongAlgebraic;
+import chess.Search.Perft;
+import chess.Search.SearchLimits;
+import chess.Search.Searcher;
+import chess.Uci.UciServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class UciTests {
+    @Test
+    public void perftTest() {
+        ChessBoard board = new ChessBoard("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        MoveGeneration generator = new MoveGeneration(board);
+        Assert.assertEquals(8902, Perft.perft(generator, 3));
+
+        board.setPosition("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        Assert.assertEquals(2039, Perft.perft(generator, 2));
+    }
+
+    @Test
+    public void mateInOneTest() {
+        ChessBoard board = new ChessBoard("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+        Searcher searcher = new Searcher(board, new MoveGeneration(board), new Evaluation());
+
+        SearchLimits limits = new SearchLimits();
+        limits.depth = 3;
+        Move best = searcher.search(limits, null);
+        Assert.assertEquals("a1a8", LongAlgebraic.encode(best));
+    }
+
+    @Test
+    public void protocolTest() throws IOException {
+        String commands = "uci\nisready\nposition startpos moves e2e4 e7e5 g1f3\ngo perft 1\nquit\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new UciServer(new ByteArrayInputStream(commands.getBytes(StandardCharsets.UTF_8)), out).run();
+
+        String output = out.toString(StandardCharsets.UTF_8);
+        Assert.assertTrue(output.contains("uciok"));
+        Assert.assertTrue(output.contains("readyok"));
+        // Black to move after 1. e4 e5 2. Nf3
+        Assert.assertTrue(output.contains("b8c6: 1"));
+        Assert.assertTrue(output.contains("Nodes searched: 29"));
+    }
+
+    @Test
+    public void invalidFenTest() throws IOException {
+        String commands = "position startpos moves e2e4\nposition fen 8/8/8/8/8/8/8/8 w - - 0 1\n"
+                + "position fen rnbqk\nposition fen x\ngo perft 1\nquit\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new UciServer(new ByteArrayInputStream(commands.getBytes(StandardCharsets.UTF_8)), out).run();
+
+        String output = out.toString(StandardCharsets.UTF_8);
+        Assert.assertTrue(output.contains("info string invalid fen 8/8/8/8/8/8/8/8 w - - 0 1"));
+        Assert.assertTrue(output.contains("info string invalid fen rnbqk"));
+        // Still the position after 1. e4
+        Assert.assertTrue(output.contains("Nodes searched: 20"));
+    }
+
+    @Test(timeout = 10000)
+    public void stopTest() throws IOException {
+        // The stop comes before the search thread has started searching, it must not be lost
+        String commands = "position startpos\ngo infinite\nstop\ngo infinite\nstop\nquit\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new UciServer(new ByteArrayInputStream(commands.getBytes(StandardCharsets.UTF_8)), out).run();
+
+        String output = out.toString(StandardCharsets.UTF_8);
+        Assert.assertEquals(2, output.split("bestmove ", -1).length - 1);
+    }
+}
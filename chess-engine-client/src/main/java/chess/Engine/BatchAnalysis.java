@@ -0,0 +1,354 @@
+package chess.Engine;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import chess.Eval.Evaluation;
+import chess.Logic.ChessBoard;
+import chess.Logic.ChessPiece;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Notation.LongAlgebraic;
+import chess.Search.SearchLimits;
+import chess.Search.Searcher;
+
+// Analyses every position of an EPD/FEN file and writes one EPD line per position:
+//   <position> bm e2e4; ce 35; acd 12; acn 1048576;
+// Lines are read lazily and at most WINDOW_PER_WORKER positions per worker are in
+// flight, so memory stays flat for any file size. Results are written in input order.
+// Progress is saved in <output>.checkpoint, running again with the same files resumes.
+//
+// Usage: BatchAnalysis <input> <output> <workers> "<go limits>" [engine command...]
+// Without an engine command the positions are searched in-process
+public class BatchAnalysis {
+    static final int WINDOW_PER_WORKER = 4;
+    // Results between checkpoints
+    static final int CHECKPOINT_INTERVAL = 100;
+
+    // Searches one position, implementations must be thread safe
+    public interface Analyser extends Closeable {
+        CompletableFuture<Result> analyse(String fen);
+    }
+
+    public static class Result {
+        // Coordinate notation, null if the position has no legal moves
+        public final String bestMove;
+        // Centipawns, or moves to mate if mate is set
+        public final int score;
+        public final boolean mate;
+        public final int depth;
+        public final long nodes;
+
+        public Result(String bestMove, int score, boolean mate, int depth, long nodes) {
+            this.bestMove = bestMove;
+            this.score = score;
+            this.mate = mate;
+            this.depth = depth;
+            this.nodes = nodes;
+        }
+    }
+
+    private final Analyser analyser;
+    private final int window;
+
+    // Reorder buffer, slot seq % window holds the finished line of input line seq
+    // An empty string means nothing to write for that line
+    private final String[] finished;
+    private final Semaphore inFlight;
+
+    // Guarded by this
+    private OutputStream out;
+    private long nextToWrite;
+    private long bytesWritten;
+    private long positions;
+    private Path checkpoint;
+    // First write failure, nothing is written after it
+    private IOException writeError;
+
+    public BatchAnalysis(Analyser analyser, int workers) {
+        this.analyser = analyser;
+        this.window = workers * WINDOW_PER_WORKER;
+        this.finished = new String[window];
+        this.inFlight = new Semaphore(window);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4) {
+            System.err.println("Usage: BatchAnalysis <input> <output> <workers> \"<go limits>\" [engine command...]");
+            return;
+        }
+        int workers = Integer.parseInt(args[2]);
+        String limits = args[3];
+
+        Analyser analyser = args.length > 4
+                ? engines(new EnginePool(Arrays.asList(args).subList(4, args.length), workers, 1, 16), limits)
+                : inProcess(workers, parseLimits(limits));
+        try (analyser) {
+            long start = System.currentTimeMillis();
+            long count = new BatchAnalysis(analyser, workers).run(Paths.get(args[0]), Paths.get(args[1]));
+            System.out.printf("%d positions in %.1f s%n", count, (System.currentTimeMillis() - start) / 1000.0);
+        }
+    }
+
+    // Analyses the input, continuing after the last checkpoint if there is one
+    // Returns the number of positions analysed in this run
+    public long run(Path input, Path output) throws IOException, InterruptedException {
+        checkpoint = output.resolveSibling(output.getFileName() + ".checkpoint");
+        long skipLines = 0;
+        long keepBytes = 0;
+        if (Files.exists(checkpoint) && Files.exists(output)) {
+            String[] saved = Files.readString(checkpoint).trim().split(" ");
+            skipLines = Long.parseLong(saved[0]);
+            keepBytes = Long.parseLong(saved[1]);
+        }
+
+        try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+                FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Anything after the checkpoint may be a partly written line
+            channel.truncate(keepBytes);
+            channel.position(keepBytes);
+            synchronized (this) {
+                out = new BufferedOutputStream(Channels.newOutputStream(channel));
+                nextToWrite = skipLines;
+                bytesWritten = keepBytes;
+                positions = 0;
+                writeError = null;
+            }
+
+            long seq = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (seq < skipLines) {
+                    seq++;
+                    continue;
+                }
+                // Back-pressure, wait until the oldest position is written
+                inFlight.acquire();
+                long current = seq++;
+
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    finish(current, "");
+                    continue;
+                }
+                String fen = normalize(trimmed);
+                if (fen == null) {
+                    finish(current, trimmed + " c0 \"invalid position\";");
+                    continue;
+                }
+                CompletableFuture<Result> analysis;
+                try {
+                    analysis = analyser.analyse(fen);
+                } catch (RuntimeException e) {
+                    // Failed before it started, the line and its permit must still be finished
+                    finish(current, format(fen, null, e));
+                    continue;
+                }
+                analysis.whenComplete((result, error) -> finish(current, format(fen, result, error)));
+            }
+
+            // Wait for everything in flight
+            inFlight.acquire(window);
+            inFlight.release(window);
+            synchronized (this) {
+                if (writeError != null) {
+                    throw writeError;
+                }
+                out.flush();
+            }
+        }
+        Files.deleteIfExists(checkpoint);
+        synchronized (this) {
+            return positions;
+        }
+    }
+
+    // Called when input line seq is done, writes every finished line that is next in order
+    // Permits are released even after a write error, so the reader never blocks forever
+    private synchronized void finish(long seq, String text) {
+        finished[(int) (seq % window)] = text;
+        String next;
+        while ((next = finished[(int) (nextToWrite % window)]) != null) {
+            finished[(int) (nextToWrite % window)] = null;
+            nextToWrite++;
+            inFlight.release();
+            if (writeError != null) {
+                continue;
+            }
+
+            try {
+                if (!next.isEmpty()) {
+                    byte[] bytes = (next + "\n").getBytes(StandardCharsets.UTF_8);
+                    out.write(bytes);
+                    bytesWritten += bytes.length;
+                    positions++;
+                }
+                if (nextToWrite % CHECKPOINT_INTERVAL == 0) {
+                    saveCheckpoint();
+                }
+            } catch (IOException e) {
+                writeError = e;
+            }
+        }
+    }
+
+    // Written to a temporary file and moved, so a crash leaves either the old or the new one
+    private void saveCheckpoint() throws IOException {
+        out.flush();
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        Files.writeString(temp, nextToWrite + " " + bytesWritten);
+        Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // First four EPD fields plus the clocks if present, null if the position is not legal
+    static String normalize(String line) {
+        String[] fields = line.split("\\s+");
+        if (fields.length < 4) {
+            return null;
+        }
+        String fen = fields[0] + " " + fields[1] + " " + fields[2] + " " + fields[3];
+        if (fields.length >= 6 && isNumber(fields[4]) && isNumber(fields[5])) {
+            fen += " " + fields[4] + " " + fields[5];
+        } else {
+            fen += " 0 1";
+        }
+
+        // ChessBoard rejects positions without exactly one king of each color
+        try {
+            ChessBoard board = new ChessBoard(fen);
+            // The side that just moved can't be in check
+            ChessPiece.Color waiting = ChessPiece.invert(board.getCurrentColor());
+            if (board.getStatus(waiting).checkState != ChessBoard.KingStatus.CheckState.NONE) {
+                return null;
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return fen;
+    }
+
+    static String format(String fen, Result result, Throwable error) {
+        String position = fen.substring(0, nthSpace(fen, 4));
+        if (error != null) {
+            return position + " c0 \"" + error.getClass().getSimpleName() + "\";";
+        }
+        StringBuilder line = new StringBuilder(position);
+        line.append(" bm ").append(result.bestMove == null ? "0000" : result.bestMove).append(';');
+        line.append(result.mate ? " dm " : " ce ").append(result.score).append(';');
+        line.append(" acd ").append(result.depth).append(';');
+        line.append(" acn ").append(result.nodes).append(';');
+        return line.toString();
+    }
+
+    // Searches with external engines, limits are the arguments of "go"
+    public static Analyser engines(EnginePool pool, String limits) {
+        return new Analyser() {
+            @Override
+            public CompletableFuture<Result> analyse(String fen) {
+                return pool.search(null, fen, limits, 0).thenApply(best -> {
+                    EngineInfo info = best.info;
+                    return info == null ? new Result(best.move, 0, false, 0, 0)
+                            : new Result(best.move, info.score, info.mate, info.depth, info.nodes);
+                });
+            }
+
+            @Override
+            public void close() {
+                pool.close();
+            }
+        };
+    }
+
+    // Searches with the project's own engine, one searcher per thread
+    public static Analyser inProcess(int threads, SearchLimits limits) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "batch-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ThreadLocal<Evaluation> evaluations = ThreadLocal.withInitial(Evaluation::new);
+
+        return new Analyser() {
+            @Override
+            public CompletableFuture<Result> analyse(String fen) {
+                return CompletableFuture.supplyAsync(() -> {
+                    ChessBoard board = new ChessBoard(fen);
+                    Searcher searcher = new Searcher(board, new MoveGeneration(board), evaluations.get());
+                    int[] last = new int[2];
+                    Move best = searcher.search(limits, (depth, score, nodes, millis, pv) -> {
+                        last[0] = depth;
+                        last[1] = score;
+                    });
+
+                    int score = last[1];
+                    boolean mate = Math.abs(score) >= Searcher.MATE_BOUND;
+                    if (mate) {
+                        int moves = (Searcher.MATE - Math.abs(score) + 1) / 2;
+                        score = score > 0 ? moves : -moves;
+                    }
+                    return new Result(best == null ? null : LongAlgebraic.encode(best), score, mate,
+                            last[0], searcher.nodes());
+                }, executor);
+            }
+
+            @Override
+            public void close() {
+                executor.shutdownNow();
+            }
+        };
+    }
+
+    // Arguments of "go" for the in-process search
+    static SearchLimits parseLimits(String text) {
+        SearchLimits limits = new SearchLimits();
+        List<String> tokens = Arrays.asList(text.trim().split("\\s+"));
+        for (int i = 0; i + 1 < tokens.size(); i++) {
+            switch (tokens.get(i)) {
+                case "depth":
+                    limits.depth = Integer.parseInt(tokens.get(++i));
+                    break;
+                case "nodes":
+                    limits.nodes = Long.parseLong(tokens.get(++i));
+                    break;
+                case "movetime":
+                    limits.moveTime = Long.parseLong(tokens.get(++i));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return limits;
+    }
+
+    private static boolean isNumber(String text) {
+        return !text.isEmpty() && text.chars().allMatch(Character::isDigit);
+    }
+
+    private static int nthSpace(String text, int n) {
+        int index = -1;
+        for (int i = 0; i < n; i++) {
+            index = text.indexOf(' ', index + 1);
+            if (index == -1) {
+                return text.length();
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,304 @@
+package chess.Engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+import chess.Logic.ChessBoard;
+
+// Engine results by position key and "go" limits, so repeated positions don't wait for the engine
+// Recently used results are kept in an LRU map. Every result is also appended to a
+// memory-mapped file, which is indexed when it is opened, so results survive restarts.
+// A search with "depth N" is also answered by any stored search of the position that got
+// at least as deep, other limits need the same limits.
+public class EngineCache implements Closeable {
+    static final int MAGIC = 0x45434831; // "ECH1"
+    static final int HEADER_SIZE = 16;
+    // key, limits hash, depth, score, flags, nodes, move, ponder
+    static final int RECORD_SIZE = 48;
+    static final int MOVE_SIZE = 8;
+    static final int INITIAL_RECORDS = 1024;
+
+    private static final int MATE_FLAG = 1;
+    private static final int INFO_FLAG = 2;
+
+    private static class Result {
+        final int limitsHash;
+        final int depth;
+        final int score;
+        final int flags;
+        final long nodes;
+        // Empty if the position has no legal moves
+        final String move;
+        final String ponder;
+
+        Result(int limitsHash, int depth, int score, int flags, long nodes, String move, String ponder) {
+            this.limitsHash = limitsHash;
+            this.depth = depth;
+            this.score = score;
+            this.flags = flags;
+            this.nodes = nodes;
+            this.move = move;
+            this.ponder = ponder;
+        }
+
+        UciClient.BestMove toBestMove() {
+            EngineInfo info = null;
+            if ((flags & INFO_FLAG) != 0) {
+                info = new EngineInfo();
+                info.depth = depth;
+                info.score = score;
+                info.mate = (flags & MATE_FLAG) != 0;
+                info.hasScore = true;
+                info.nodes = nodes;
+            }
+            return new UciClient.BestMove(move.isEmpty() ? null : move, ponder.isEmpty() ? null : ponder, info);
+        }
+    }
+
+    // Guarded by this
+    private final Map<Long, List<Result>> recent;
+    // Record numbers in the file by position key, the last record for the same limits wins
+    private final Map<Long, int[]> diskIndex = new HashMap<>();
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int records;
+    // First failure to grow the file, nothing is appended after it
+    private IOException diskError;
+
+    public EngineCache(Path file, int memoryPositions) throws IOException {
+        recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<Result>> eldest) {
+                return size() > memoryPositions;
+            }
+        };
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size == 0) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) INITIAL_RECORDS * RECORD_SIZE);
+                buffer.putInt(0, MAGIC);
+                buffer.putLong(8, 0);
+            } else {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                    throw new IOException("Not an engine cache: " + file);
+                }
+                // The count is written after the record, a torn append is not counted
+                long stored = buffer.getLong(8);
+                records = (int) Math.min(stored, (size - HEADER_SIZE) / RECORD_SIZE);
+                for (int i = 0; i < records; i++) {
+                    index(recordKey(i), i);
+                }
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Answers from the cache, or runs the search and stores the result
+    // engine is called with the FEN and limits, e.g. UciClient::go
+    public CompletableFuture<UciClient.BestMove> search(String fen, String limits,
+            BiFunction<String, String, CompletableFuture<UciClient.BestMove>> engine) {
+        long key = new ChessBoard(fen).positionKey();
+        UciClient.BestMove cached = get(key, limits);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return engine.apply(fen, limits).thenApply(best -> {
+            put(key, limits, best);
+            return best;
+        });
+    }
+
+    // Stored result that satisfies the limits, null if there is none
+    public synchronized UciClient.BestMove get(long key, String limits) {
+        String normalized = normalize(limits);
+        int hash = normalized.hashCode();
+        int depth = requiredDepth(normalized);
+
+        List<Result> entries = recent.get(key);
+        if (entries == null) {
+            entries = load(key);
+            if (entries.isEmpty()) {
+                return null;
+            }
+            recent.put(key, entries);
+        }
+
+        Result found = null;
+        for (Result entry : entries) {
+            if (entry.limitsHash == hash || entry.depth >= depth) {
+                if (found == null || entry.depth > found.depth) {
+                    found = entry;
+                }
+            }
+        }
+        return found == null ? null : found.toBestMove();
+    }
+
+    // Results without search info can't be compared by depth, they are not stored
+    // A "depth N" search that was stopped early is not stored either
+    public synchronized void put(long key, String limits, UciClient.BestMove best) {
+        String normalized = normalize(limits);
+        int depth = requiredDepth(normalized);
+        EngineInfo info = best.info;
+        if (info == null || !info.hasScore || depth != Integer.MAX_VALUE && info.depth < depth) {
+            return;
+        }
+
+        int flags = INFO_FLAG | (info.mate ? MATE_FLAG : 0);
+        Result entry = new Result(normalized.hashCode(), info.depth, info.score, flags, Math.max(info.nodes, 0),
+                best.move == null ? "" : best.move, best.ponder == null ? "" : best.ponder);
+
+        List<Result> entries = recent.get(key);
+        if (entries == null) {
+            entries = load(key);
+            recent.put(key, entries);
+        }
+        entries.removeIf(old -> old.limitsHash == entry.limitsHash);
+        entries.add(entry);
+
+        append(key, entry);
+    }
+
+    public synchronized int size() {
+        return records;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private List<Result> load(long key) {
+        List<Result> entries = new ArrayList<>();
+        int[] numbers = diskIndex.get(key);
+        if (numbers != null) {
+            for (int number : numbers) {
+                entries.add(readRecord(number));
+            }
+        }
+        return entries;
+    }
+
+    private void append(long key, Result entry) {
+        if (diskError != null) {
+            return;
+        }
+        try {
+            long end = HEADER_SIZE + (long) (records + 1) * RECORD_SIZE;
+            if (end > buffer.capacity()) {
+                long size = Math.max(end, HEADER_SIZE + (buffer.capacity() - HEADER_SIZE) * 2L);
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("Engine cache is full");
+                }
+                buffer.force();
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        } catch (IOException e) {
+            diskError = e;
+            return;
+        }
+
+        int offset = HEADER_SIZE + records * RECORD_SIZE;
+        buffer.putLong(offset, key);
+        buffer.putInt(offset + 8, entry.limitsHash);
+        buffer.putInt(offset + 12, entry.depth);
+        buffer.putInt(offset + 16, entry.score);
+        buffer.putInt(offset + 20, entry.flags);
+        buffer.putLong(offset + 24, entry.nodes);
+        putMove(offset + 32, entry.move);
+        putMove(offset + 32 + MOVE_SIZE, entry.ponder);
+
+        index(key, records);
+        records++;
+        buffer.putLong(8, records);
+    }
+
+    private void index(long key, int number) {
+        int[] numbers = diskIndex.get(key);
+        if (numbers == null) {
+            diskIndex.put(key, new int[] { number });
+            return;
+        }
+        // A newer record for the same limits replaces the old one
+        int hash = recordLimitsHash(number);
+        for (int i = 0; i < numbers.length; i++) {
+            if (recordLimitsHash(numbers[i]) == hash) {
+                numbers[i] = number;
+                return;
+            }
+        }
+        numbers = Arrays.copyOf(numbers, numbers.length + 1);
+        numbers[numbers.length - 1] = number;
+        diskIndex.put(key, numbers);
+    }
+
+    private long recordKey(int number) {
+        return buffer.getLong(HEADER_SIZE + number * RECORD_SIZE);
+    }
+
+    private int recordLimitsHash(int number) {
+        return buffer.getInt(HEADER_SIZE + number * RECORD_SIZE + 8);
+    }
+
+    private Result readRecord(int number) {
+        int offset = HEADER_SIZE + number * RECORD_SIZE;
+        return new Result(buffer.getInt(offset + 8), buffer.getInt(offset + 12), buffer.getInt(offset + 16),
+                buffer.getInt(offset + 20), buffer.getLong(offset + 24),
+                getMove(offset + 32), getMove(offset + 32 + MOVE_SIZE));
+    }
+
+    // Moves are ASCII, padded with zeros
+    private void putMove(int offset, String move) {
+        byte[] bytes = move.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < MOVE_SIZE; i++) {
+            buffer.put(offset + i, i < bytes.length ? bytes[i] : 0);
+        }
+    }
+
+    private String getMove(int offset) {
+        byte[] bytes = new byte[MOVE_SIZE];
+        int length = 0;
+        while (length < MOVE_SIZE && (bytes[length] = buffer.get(offset + length)) != 0) {
+            length++;
+        }
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private static String normalize(String limits) {
+        return String.join(" ", limits.trim().split("\\s+"));
+    }
+
+    // Depth a stored search needs to answer a "depth N" search, anything else needs the same limits
+    private static int requiredDepth(String limits) {
+        String[] tokens = limits.split(" ");
+        for (int i = 0; i + 1 < tokens.length; i++) {
+            if (tokens[i].equals("depth")) {
+                try {
+                    return Integer.parseInt(tokens[i + 1]);
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,202 @@
+package chess.Engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// One "info" line of a searching engine
+// Values the engine did not send are left at -1 (or null for the PV)
+public class EngineInfo {
+    public int depth = -1;
+    public int selDepth = -1;
+    public int multiPv = 1;
+    // Centipawns, or moves to mate if mate is set, from the engine side to move
+    public int score;
+    public boolean mate;
+    public boolean hasScore;
+    // The score is only a bound, the search failed high or low
+    public boolean lowerBound, upperBound;
+    public long nodes = -1;
+    public long nps = -1;
+    // Permill of the hash table in use
+    public int hashFull = -1;
+    // Milliseconds
+    public long time = -1;
+    // Space separated moves in coordinate notation
+    public String pv;
+
+    // While parsing, the PV is only remembered as a position in the line,
+    // it is cut out when the info is copied for listeners
+    private String pvLine;
+    private int pvStart;
+
+    public List<String> pvMoves() {
+        if (pv == null || pv.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(pv.split(" "));
+    }
+
+    public EngineInfo copy() {
+        EngineInfo copy = new EngineInfo();
+        copy.depth = depth;
+        copy.selDepth = selDepth;
+        copy.multiPv = multiPv;
+        copy.score = score;
+        copy.mate = mate;
+        copy.hasScore = hasScore;
+        copy.lowerBound = lowerBound;
+        copy.upperBound = upperBound;
+        copy.nodes = nodes;
+        copy.nps = nps;
+        copy.hashFull = hashFull;
+        copy.time = time;
+        copy.pv = pvLine != null ? pvLine.substring(pvStart).trim() : pv;
+        return copy;
+    }
+
+    // A score or a PV, not only counters such as nodes and nps
+    boolean hasLine() {
+        return hasScore || pvLine != null || pv != null;
+    }
+
+    void reset() {
+        depth = selDepth = hashFull = -1;
+        multiPv = 1;
+        score = 0;
+        mate = hasScore = lowerBound = upperBound = false;
+        nodes = nps = time = -1;
+        pv = null;
+        pvLine = null;
+    }
+
+    // Parses the line into info, which is reused between lines
+    // Scans the line in place instead of splitting it, nothing is allocated
+    // Returns false for lines without any of the fields above ("info string", "info currmove e2e4"),
+    // lines such as "info nodes 1000 nps 500" are progress too, but have no score
+    static boolean parse(String line, EngineInfo info) {
+        info.reset();
+        int length = line.length();
+        int pos = skipSpaces(line, 0);
+        int end = tokenEnd(line, pos);
+        if (end - pos != 4 || !line.startsWith("info", pos)) {
+            return false;
+        }
+
+        boolean progress = false;
+        pos = skipSpaces(line, end);
+        while (pos < length) {
+            end = tokenEnd(line, pos);
+            String key = tokenKey(line, pos, end);
+            pos = skipSpaces(line, end);
+            if (key == null) {
+                // Some token we don't care about, e.g. the value of "currmove"
+                continue;
+            }
+
+            switch (key) {
+                case "string":
+                    // The rest of the line is free text
+                    return false;
+                case "pv":
+                    info.pvLine = line;
+                    info.pvStart = pos;
+                    return true;
+                case "lowerbound":
+                    info.lowerBound = true;
+                    continue;
+                case "upperbound":
+                    info.upperBound = true;
+                    continue;
+                case "score":
+                    // Followed by "cp" or "mate" and the value
+                    end = tokenEnd(line, pos);
+                    info.mate = line.regionMatches(pos, "mate", 0, 4) && end - pos == 4;
+                    pos = skipSpaces(line, end);
+                    end = tokenEnd(line, pos);
+                    info.score = (int) parseNumber(line, pos, end);
+                    info.hasScore = true;
+                    pos = skipSpaces(line, end);
+                    progress = true;
+                    continue;
+                default:
+                    break;
+            }
+
+            end = tokenEnd(line, pos);
+            long value = parseNumber(line, pos, end);
+            pos = skipSpaces(line, end);
+            switch (key) {
+                case "depth":
+                    info.depth = (int) value;
+                    break;
+                case "seldepth":
+                    info.selDepth = (int) value;
+                    break;
+                case "multipv":
+                    info.multiPv = (int) value;
+                    break;
+                case "nodes":
+                    info.nodes = value;
+                    break;
+                case "nps":
+                    info.nps = value;
+                    break;
+                case "hashfull":
+                    info.hashFull = (int) value;
+                    break;
+                case "time":
+                    info.time = value;
+                    break;
+                default:
+                    // "currmove", "tbhits" and the like
+                    continue;
+            }
+            progress = true;
+        }
+        return progress;
+    }
+
+    // Keys are compared as constants, so the switch does not need substrings
+    private static final String[] KEYS = {
+            "depth", "seldepth", "multipv", "score", "nodes", "nps", "hashfull",
+            "time", "pv", "string", "lowerbound", "upperbound",
+            "currmove", "currmovenumber", "tbhits", "cpuload", "refutation", "currline", "sbhits",
+    };
+
+    private static String tokenKey(String line, int start, int end) {
+        for (String key : KEYS) {
+            if (key.length() == end - start && line.startsWith(key, start)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private static int skipSpaces(String line, int pos) {
+        while (pos < line.length() && line.charAt(pos) == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int tokenEnd(String line, int pos) {
+        while (pos < line.length() && line.charAt(pos) != ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static long parseNumber(String line, int start, int end) {
+        boolean negative = start < end && line.charAt(start) == '-';
+        long value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            char ch = line.charAt(i);
+            if (ch < '0' || ch > '9') {
+                break;
+            }
+            value = value * 10 + (ch - '0');
+        }
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,278 @@
+package chess.Engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Keeps a fixed number of warm engine processes and leases them to searches
+// Starting an engine takes hundreds of milliseconds, so processes are reused
+// across requests. Requests wait in order when all engines are busy.
+// An engine that crashes or ignores "stop" is killed and started again, also while it is idle.
+// A search that fails because its engine crashed is tried once more on another engine.
+public class EnginePool implements Closeable {
+    // Time an engine gets to answer "stop" before it is killed
+    static final long STOP_GRACE_MILLIS = 2000;
+    // Delay before starting an engine again if the process can't be started
+    static final long RESTART_DELAY_MILLIS = 1000;
+
+    private static class Engine {
+        volatile UciClient client;
+        // Game of the last search, "ucinewgame" is sent when it changes
+        Object game;
+    }
+
+    private static class Request {
+        final Object game;
+        final String fen;
+        final String limits;
+        final long timeoutMillis;
+        final CompletableFuture<UciClient.BestMove> result = new CompletableFuture<>();
+        // Already failed once because the engine crashed
+        boolean retried;
+
+        Request(Object game, String fen, String limits, long timeoutMillis) {
+            this.game = game;
+            this.fen = fen;
+            this.limits = limits;
+            this.timeoutMillis = timeoutMillis;
+        }
+    }
+
+    private final List<String> command;
+    private final Map<String, String> options = new LinkedHashMap<>();
+    private final ScheduledExecutorService timer;
+
+    private final List<Engine> engines = new ArrayList<>();
+    // Guarded by this
+    private final Deque<Engine> idle = new ArrayDeque<>();
+    private final Deque<Request> waiting = new ArrayDeque<>();
+    private boolean closed;
+
+    // Starts size engines, each configured with the given Threads and Hash (MB) options
+    public EnginePool(List<String> command, int size, int threads, int hashMb) throws IOException {
+        this.command = command;
+        options.put("Threads", String.valueOf(threads));
+        options.put("Hash", String.valueOf(hashMb));
+
+        timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "engine-pool-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            for (int i = 0; i < size; i++) {
+                Engine engine = new Engine();
+                // The first start is synchronous, so a wrong command fails here
+                engine.client = new UciClient(command);
+                engines.add(engine);
+                configure(engine);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return engines.size();
+    }
+
+    public synchronized int idleCount() {
+        return idle.size();
+    }
+
+    // Searches the position on the next free engine
+    // Searches with a different game, or no game (null), start with "ucinewgame"
+    // After timeoutMillis (0 for none) the engine is told to stop, if it doesn't
+    // answer in time the future fails with a TimeoutException and the engine is restarted
+    public CompletableFuture<UciClient.BestMove> search(Object game, String fen, String limits, long timeoutMillis) {
+        Request request = new Request(game, fen, limits, timeoutMillis);
+        submit(request, false);
+        return request.result;
+    }
+
+    // A retried request goes before the waiting ones, it was already leased an engine once
+    private void submit(Request request, boolean first) {
+        Engine engine;
+        synchronized (this) {
+            if (closed) {
+                request.result.completeExceptionally(new IOException("Engine pool is closed"));
+                return;
+            }
+            engine = idle.poll();
+            if (engine == null) {
+                if (first) {
+                    waiting.addFirst(request);
+                } else {
+                    waiting.add(request);
+                }
+                return;
+            }
+        }
+        run(engine, request);
+    }
+
+    @Override
+    public void close() {
+        List<Request> pending;
+        synchronized (this) {
+            closed = true;
+            pending = new ArrayList<>(waiting);
+            waiting.clear();
+            idle.clear();
+        }
+        for (Request request : pending) {
+            request.result.completeExceptionally(new IOException("Engine pool is closed"));
+        }
+        for (Engine engine : engines) {
+            closeClient(engine.client);
+        }
+        timer.shutdownNow();
+    }
+
+    private void run(Engine engine, Request request) {
+        UciClient client = engine.client;
+        CompletableFuture<Void> prepared = CompletableFuture.completedFuture(null);
+        if (request.game == null || request.game != engine.game) {
+            client.newGame();
+            prepared = client.isReady();
+        }
+        engine.game = request.game;
+
+        CompletableFuture<UciClient.BestMove> search = prepared.thenCompose(v -> client.go(request.fen, request.limits));
+
+        // Only the first of answer, failure and timeout decides what happens to the engine
+        AtomicBoolean decided = new AtomicBoolean();
+        ScheduledFuture<?> stopTimer = null, killTimer = null;
+        if (request.timeoutMillis > 0) {
+            stopTimer = timer.schedule(client::stop, request.timeoutMillis, TimeUnit.MILLISECONDS);
+            killTimer = timer.schedule(() -> {
+                if (decided.compareAndSet(false, true)) {
+                    request.result.completeExceptionally(new TimeoutException("Engine did not answer"));
+                    restart(engine);
+                }
+            }, request.timeoutMillis + STOP_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        ScheduledFuture<?> stopping = stopTimer, killing = killTimer;
+        search.whenComplete((best, error) -> {
+            if (stopping != null) {
+                stopping.cancel(false);
+                killing.cancel(false);
+            }
+            if (!decided.compareAndSet(false, true)) {
+                return;
+            }
+            if (error == null) {
+                request.result.complete(best);
+                release(engine);
+                return;
+            }
+            restart(engine);
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause instanceof IOException && !request.retried) {
+                // The engine died under the search, not the search's fault
+                request.retried = true;
+                submit(request, true);
+            } else {
+                request.result.completeExceptionally(cause);
+            }
+        });
+    }
+
+    // An engine that dies while idle is taken out of the pool and started again
+    // One that is leased or starting is restarted by its failing search or configuration
+    private void crashed(Engine engine, UciClient client) {
+        synchronized (this) {
+            if (closed || engine.client != client || !idle.remove(engine)) {
+                return;
+            }
+        }
+        restart(engine);
+    }
+
+    // Hands the engine to the next waiting request, or marks it idle
+    private void release(Engine engine) {
+        Request next;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            next = waiting.poll();
+            if (next == null) {
+                idle.add(engine);
+                return;
+            }
+        }
+        run(engine, next);
+    }
+
+    private void restart(Engine engine) {
+        restart(engine, 0);
+    }
+
+    // Scheduled under the lock, so it can't race with close() shutting the timer down
+    private synchronized void restart(Engine engine, long delayMillis) {
+        if (closed) {
+            return;
+        }
+        // Closing waits for the process, don't block the engine reader thread
+        timer.schedule(() -> {
+            closeClient(engine.client);
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+            engine.game = null;
+            try {
+                engine.client = new UciClient(command);
+            } catch (IOException e) {
+                restart(engine, RESTART_DELAY_MILLIS);
+                return;
+            }
+            configure(engine);
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // The engine joins the pool once it has applied the options
+    private void configure(Engine engine) {
+        UciClient client = engine.client;
+        client.crashed().thenRun(() -> crashed(engine, client));
+        client.initialized()
+                .thenCompose(v -> {
+                    options.forEach(client::setOption);
+                    return client.isReady();
+                })
+                .whenComplete((v, error) -> {
+                    if (error != null) {
+                        // Don't spin if the engine dies right after starting
+                        restart(engine, RESTART_DELAY_MILLIS);
+                    } else {
+                        release(engine);
+                    }
+                });
+    }
+
+    private static void closeClient(UciClient client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            // The process is gone anyway
+        }
+    }
+}
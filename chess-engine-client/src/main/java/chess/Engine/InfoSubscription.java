@@ -0,0 +1,92 @@
+package chess.Engine;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Delivers engine info to one listener at most once per interval
+// Infos that arrive in between are coalesced, only the newest one is kept and delivered
+// when the interval is over, so a fast engine can't flood a slow consumer such as the UI
+// thread, and the consumer still sees the last info of an engine that went quiet
+class InfoSubscription {
+    // Delivers held back infos once their interval is over, shared by all subscriptions
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "uci-info-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    final UciClient.InfoListener listener;
+    private final Executor executor;
+    private final long intervalNanos;
+
+    // Newest info that was not delivered yet
+    private final AtomicReference<EngineInfo> pending = new AtomicReference<>();
+    // A delivery task is queued on the executor
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    // Guarded by this, used by the reader and the timer thread
+    private long lastDelivery;
+    // A delivery is scheduled on the timer for the end of the interval
+    private boolean trailing;
+
+    InfoSubscription(UciClient.InfoListener listener, Executor executor, long intervalMillis) {
+        this.listener = listener;
+        this.executor = executor;
+        this.intervalNanos = intervalMillis * 1_000_000;
+        this.lastDelivery = System.nanoTime() - intervalNanos;
+    }
+
+    // Called by the reader thread for every parsed line, info is the reused scratch object
+    void offer(EngineInfo info, boolean flush) {
+        pending.set(info.copy());
+        synchronized (this) {
+            long now = System.nanoTime();
+            long wait = lastDelivery + intervalNanos - now;
+            if (!flush && wait > 0) {
+                if (!trailing) {
+                    trailing = true;
+                    timer.schedule(this::intervalOver, wait, TimeUnit.NANOSECONDS);
+                }
+                return;
+            }
+            lastDelivery = now;
+        }
+        dispatch();
+    }
+
+    // Delivers the info if it was held back, the final info of a search is always seen
+    void flush(EngineInfo info) {
+        if (pending.get() != null) {
+            offer(info, true);
+        }
+    }
+
+    private void intervalOver() {
+        synchronized (this) {
+            trailing = false;
+            // Already delivered by a flush
+            if (pending.get() == null) {
+                return;
+            }
+            lastDelivery = System.nanoTime();
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::deliver);
+        }
+    }
+
+    private void deliver() {
+        scheduled.set(false);
+        EngineInfo info = pending.getAndSet(null);
+        if (info != null) {
+            listener.onInfo(info);
+        }
+    }
+}
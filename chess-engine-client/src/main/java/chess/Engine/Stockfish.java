@@ -0,0 +1,104 @@
+package chess.Engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import chess.Logic.ChessBoard;
+import chess.Logic.MoveGeneration;
+import chess.Moves.Move;
+import chess.Notation.LongAlgebraic;
+
+public class Stockfish implements Closeable {
+    private final String EnginePath = "\\Resources\\stockfish.exe";
+    private final String CachePath = "\\Resources\\stockfish.cache";
+    private final String currentPath = System.getProperty("user.dir");
+
+    private final String limits = "movetime 1000";
+
+    private final UciClient client;
+    private final EngineCache cache;
+    private final ChessBoard board;
+    private final MoveGeneration generator;
+
+    // Reply the engine expects to its last move, null if it didn't send one
+    private volatile String expectedReply;
+    // Search on the position after the expected reply, null if not pondering
+    private CompletableFuture<UciClient.BestMove> ponderSearch;
+    private long ponderKey;
+
+    public Stockfish(ChessBoard board) throws IOException {
+        client = new UciClient(List.of(currentPath + EnginePath));
+        try {
+            cache = new EngineCache(Paths.get(currentPath + CachePath), 4096);
+        } catch (IOException e) {
+            client.close();
+            throw e;
+        }
+        this.board = board;
+        generator = new MoveGeneration(board);
+
+        client.initialized().thenRun(() -> client.setOption("Ponder", "true"));
+        client.isReady();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            client.close();
+        } finally {
+            cache.close();
+        }
+    }
+
+    public void addInfoListener(UciClient.InfoListener listener, Executor executor, long intervalMillis) {
+        client.addInfoListener(listener, executor, intervalMillis);
+    }
+
+    // Completes with the engine move in the current position, or null if it has none (or sent an illegal one)
+    // The board must not change until the future completes
+    // If the opponent played the move the engine pondered on, that search continues
+    public CompletableFuture<Move> requestMove() {
+        CompletableFuture<UciClient.BestMove> search;
+        if (ponderSearch != null && board.positionKey() == ponderKey) {
+            client.ponderHit();
+            search = ponderSearch;
+        } else {
+            if (ponderSearch != null) {
+                // Pondered on the wrong move, a cached answer would leave it running
+                client.stop();
+            }
+            search = cache.search(board.toFEN(), limits, client::go);
+        }
+        ponderSearch = null;
+
+        return search.thenApply(best -> {
+            expectedReply = best.ponder;
+            return best.move == null ? null : LongAlgebraic.decode(generator, best.move);
+        });
+    }
+
+    // Call after the engine move is on the board, the engine thinks on the
+    // expected reply while the opponent is thinking
+    public void startPondering() {
+        String reply = expectedReply;
+        if (reply == null) {
+            return;
+        }
+
+        // Key of the position the engine will ponder on
+        ChessBoard afterReply = new ChessBoard(board.toFEN());
+        MoveGeneration replyGenerator = new MoveGeneration(afterReply);
+        Move move = LongAlgebraic.decode(replyGenerator, reply);
+        if (move == null) {
+            return;
+        }
+        replyGenerator.makeAMove(move);
+
+        ponderKey = afterReply.positionKey();
+        ponderSearch = client.ponder(board.toFEN(), reply, limits);
+    }
+}
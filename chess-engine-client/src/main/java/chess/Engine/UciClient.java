@@ -0,0 +1,296 @@
+package chess.Engine;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+// Talks to an external UCI engine process
+// A single reader thread parses the engine output as it arrives and completes
+// the pending futures, so callers never block on the process streams
+public class UciClient implements Closeable {
+    // Engine reply to "go", moves are in coordinate notation (e2e4, e7e8q)
+    public static class BestMove {
+        public final String move;
+        // Expected reply, null if the engine did not send one
+        public final String ponder;
+        // Last info of the main line, null if the engine sent none
+        public final EngineInfo info;
+
+        BestMove(String move, String ponder, EngineInfo info) {
+            this.move = move;
+            this.ponder = ponder;
+            this.info = info;
+        }
+    }
+
+    // Receives parsed "info" lines, see addInfoListener
+    public interface InfoListener {
+        void onInfo(EngineInfo info);
+    }
+
+    private final Process process;
+    private final BufferedReader output;
+
+    // Guards writes to the engine, reads happen only on the reader thread
+    private final Object writeLock = new Object();
+    private final Writer input;
+
+    private final CompletableFuture<Void> uciOk = new CompletableFuture<>();
+    private final Queue<CompletableFuture<Void>> readyRequests = new ConcurrentLinkedQueue<>();
+    // Search that was sent to the engine and has not answered yet
+    private CompletableFuture<BestMove> searching;
+    // Last requested search, it waits for the previous one to stop before it is sent
+    private CompletableFuture<BestMove> latest;
+    private volatile IOException failure;
+    // Completed with the failure if the engine dies while it is not being closed
+    private final CompletableFuture<IOException> crashed = new CompletableFuture<>();
+    private volatile boolean closing;
+
+    private final List<InfoSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Parse target and the last info of the main line, swapped after each such line
+    // Only used by the reader thread
+    private EngineInfo scratchInfo = new EngineInfo();
+    private EngineInfo latestInfo = new EngineInfo();
+    // latestInfo belongs to the running search
+    private boolean searchInfo;
+
+    public UciClient(List<String> command) throws IOException {
+        this(new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start());
+    }
+
+    public UciClient(Process process) {
+        this.process = process;
+        input = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+        output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+
+        Thread reader = new Thread(this::readLoop, "uci-reader");
+        reader.setDaemon(true);
+        reader.start();
+        // The output ends when the process exits, unless something else still holds it open
+        process.onExit().thenRun(() -> fail(new IOException("Engine process exited")));
+
+        write("uci");
+    }
+
+    // Completes when the engine has answered "uciok"
+    public CompletableFuture<Void> initialized() {
+        return uciOk;
+    }
+
+    // Completes when the engine answers "readyok"
+    public CompletableFuture<Void> isReady() {
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        synchronized (writeLock) {
+            readyRequests.add(ready);
+            write("isready");
+        }
+        return ready;
+    }
+
+    // The listener is called on the executor at most once per interval with the newest info,
+    // the last info before a bestmove is always delivered
+    // Infos may have no score, e.g. "info nodes ... nps ..." between iterations, see hasScore
+    public void addInfoListener(InfoListener listener, Executor executor, long intervalMillis) {
+        subscriptions.add(new InfoSubscription(listener, executor, intervalMillis));
+    }
+
+    public void removeInfoListener(InfoListener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    public void setOption(String name, String value) {
+        write("setoption name " + name + " value " + value);
+    }
+
+    public void newGame() {
+        write("ucinewgame");
+    }
+
+    // Searches the position, limits are the arguments of "go", e.g. "movetime 1000"
+    // A search that is still running is stopped first, one that was not sent yet is cancelled
+    public CompletableFuture<BestMove> go(String fen, String limits) {
+        return search("position fen " + fen, "go " + limits);
+    }
+
+    // Searches the position after the expected move while the opponent thinks
+    // The engine answers only after ponderHit(), or stop() if the opponent played something else
+    public CompletableFuture<BestMove> ponder(String fen, String expectedMove, String limits) {
+        return search("position fen " + fen + " moves " + expectedMove, "go ponder " + limits);
+    }
+
+    // The opponent played the expected move, the ponder search becomes a normal one
+    public void ponderHit() {
+        write("ponderhit");
+    }
+
+    private CompletableFuture<BestMove> search(String position, String go) {
+        CompletableFuture<BestMove> result = new CompletableFuture<>();
+        CompletableFuture<BestMove> previous;
+        synchronized (this) {
+            previous = latest;
+            latest = result;
+        }
+
+        if (previous == null || previous.isDone()) {
+            startSearch(position, go, result);
+        } else {
+            write("stop");
+            previous.whenComplete((move, error) -> startSearch(position, go, result));
+        }
+        return result;
+    }
+
+    // The running search still completes, with the best move found so far
+    public void stop() {
+        write("stop");
+    }
+
+    public boolean isAlive() {
+        return failure == null && process.isAlive();
+    }
+
+    // Completes when the engine process exits or stops responding to writes, but not after close()
+    public CompletableFuture<IOException> crashed() {
+        return crashed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closing = true;
+        write("quit");
+        try {
+            if (!process.waitFor(1, TimeUnit.SECONDS)) {
+                process.destroy();
+            }
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+        }
+        input.close();
+        output.close();
+    }
+
+    private void startSearch(String position, String go, CompletableFuture<BestMove> result) {
+        synchronized (this) {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            if (result != latest) {
+                result.cancel(false);
+                return;
+            }
+            searching = result;
+        }
+        synchronized (writeLock) {
+            write(position);
+            write(go);
+        }
+    }
+
+    private void write(String command) {
+        synchronized (writeLock) {
+            try {
+                input.write(command);
+                input.write('\n');
+                input.flush();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    private void readLoop() {
+        try {
+            String line;
+            while ((line = output.readLine()) != null) {
+                handleLine(line);
+            }
+            fail(new IOException("Engine process exited"));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void handleLine(String line) {
+        if (line.startsWith("info")) {
+            if (EngineInfo.parse(line, scratchInfo)) {
+                for (InfoSubscription subscription : subscriptions) {
+                    subscription.offer(scratchInfo, false);
+                }
+                // Counters without a score do not replace the last main line info
+                if (scratchInfo.multiPv == 1 && scratchInfo.hasLine()) {
+                    EngineInfo parsed = scratchInfo;
+                    scratchInfo = latestInfo;
+                    latestInfo = parsed;
+                    searchInfo = true;
+                }
+            }
+        } else if (line.startsWith("bestmove")) {
+            for (InfoSubscription subscription : subscriptions) {
+                subscription.flush(latestInfo);
+            }
+
+            CompletableFuture<BestMove> result;
+            synchronized (this) {
+                result = searching;
+                searching = null;
+            }
+            if (result != null) {
+                result.complete(parseBestMove(line, searchInfo ? latestInfo.copy() : null));
+            }
+            searchInfo = false;
+        } else if (line.equals("readyok")) {
+            CompletableFuture<Void> ready = readyRequests.poll();
+            if (ready != null) {
+                ready.complete(null);
+            }
+        } else if (line.equals("uciok")) {
+            uciOk.complete(null);
+        }
+    }
+
+    // "bestmove e2e4 ponder e7e5"
+    static BestMove parseBestMove(String line, EngineInfo info) {
+        String[] tokens = line.trim().split("\\s+");
+        String move = tokens.length > 1 && !tokens[1].equals("(none)") && !tokens[1].equals("0000") ? tokens[1] : null;
+        String ponder = tokens.length > 3 && tokens[2].equals("ponder") ? tokens[3] : null;
+        return new BestMove(move, ponder, info);
+    }
+
+    // Fails everything that is waiting for the engine
+    private void fail(IOException error) {
+        CompletableFuture<BestMove> result;
+        synchronized (this) {
+            if (failure != null) {
+                return;
+            }
+            failure = error;
+            result = searching;
+            searching = null;
+        }
+
+        if (!closing) {
+            crashed.complete(error);
+        }
+        uciOk.completeExceptionally(error);
+        CompletableFuture<Void> ready;
+        while ((ready = readyRequests.poll()) != null) {
+            ready.completeExceptionally(error);
+        }
+        if (result != null) {
+            result.completeExceptionally(error);
+        }
+    }
+}
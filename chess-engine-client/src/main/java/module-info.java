@@ -0,0 +1,5 @@
+module chess.engine {
+    requires transitive chess.core;
+
+    exports chess.Engine;
+}
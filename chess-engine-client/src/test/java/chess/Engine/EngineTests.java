@@ -0,0 +1,291 @@
+package chess.Engine;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import chess.Search.SearchLimits;
+import chess.Uci.UciServer;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+public class EngineTests {
+    // The project's own UCI server, started as a separate process
+    static List<String> localEngine() throws URISyntaxException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classes = new File(UciServer.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        return List.of(java, "-cp", classes, UciServer.class.getName());
+    }
+
+    @Test
+    public void bestMoveTest() throws Exception {
+        try (UciClient client = new UciClient(localEngine())) {
+            client.initialized().get(10, TimeUnit.SECONDS);
+            client.isReady().get(10, TimeUnit.SECONDS);
+
+            // Only one legal move
+            UciClient.BestMove best = client.go("7k/8/8/8/8/8/6q1/K7 w - - 0 1", "depth 2")
+                    .get(10, TimeUnit.SECONDS);
+            Assert.assertEquals("a1b1", best.move);
+
+            // A second search stops the first one
+            client.go("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", "infinite");
+            best = client.go("7k/8/8/8/8/8/6q1/K7 w - - 0 1", "depth 1").get(10, TimeUnit.SECONDS);
+            Assert.assertEquals("a1b1", best.move);
+        }
+    }
+
+    @Test
+    public void ponderTest() throws Exception {
+        try (UciClient client = new UciClient(localEngine())) {
+            client.isReady().get(10, TimeUnit.SECONDS);
+
+            // The ponder search waits for ponderhit even after its depth is reached
+            CompletableFuture<UciClient.BestMove> pondering =
+                    client.ponder("7k/8/8/8/8/8/6q1/K7 b - - 0 1", "g2b2", "depth 1");
+            Thread.sleep(200);
+            Assert.assertFalse(pondering.isDone());
+            client.ponderHit();
+            Assert.assertEquals("a1b2", pondering.get(10, TimeUnit.SECONDS).move);
+
+            // The opponent played something else, a new search stops the ponder search
+            pondering = client.ponder("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", "e2e4", "infinite");
+            UciClient.BestMove best = client.go("7k/8/8/8/8/8/6q1/K7 w - - 0 1", "depth 1").get(10, TimeUnit.SECONDS);
+            Assert.assertEquals("a1b1", best.move);
+            Assert.assertTrue(pondering.isDone());
+        }
+    }
+
+    @Test
+    public void infoParseTest() {
+        EngineInfo info = new EngineInfo();
+        Assert.assertTrue(EngineInfo.parse("info depth 21 seldepth 29 multipv 2 score cp -35 upperbound nodes 3012451 "
+                + "nps 1502115 hashfull 413 tbhits 0 time 2005 pv e7e5 g1f3 b8c6", info));
+        EngineInfo copy = info.copy();
+        Assert.assertEquals(21, copy.depth);
+        Assert.assertEquals(29, copy.selDepth);
+        Assert.assertEquals(2, copy.multiPv);
+        Assert.assertEquals(-35, copy.score);
+        Assert.assertFalse(copy.mate);
+        Assert.assertTrue(copy.upperBound);
+        Assert.assertEquals(3012451, copy.nodes);
+        Assert.assertEquals(1502115, copy.nps);
+        Assert.assertEquals(413, copy.hashFull);
+        Assert.assertEquals(2005, copy.time);
+        Assert.assertEquals(List.of("e7e5", "g1f3", "b8c6"), copy.pvMoves());
+
+        Assert.assertTrue(EngineInfo.parse("info depth 5 score mate -3 pv a1a2", info));
+        Assert.assertTrue(info.mate);
+        Assert.assertEquals(-3, info.score);
+
+        Assert.assertFalse(EngineInfo.parse("info string NNUE evaluation enabled", info));
+        Assert.assertFalse(EngineInfo.parse("info currmove e2e4 currmovenumber 1", info));
+
+        // Counters sent between iterations reach the listeners too
+        Assert.assertTrue(EngineInfo.parse("info nodes 120000 nps 60000 hashfull 12 time 2000", info));
+        Assert.assertFalse(info.hasScore);
+        Assert.assertEquals(60000, info.nps);
+        Assert.assertEquals(12, info.hashFull);
+        Assert.assertTrue(EngineInfo.parse("info depth 12 currmove e2e4 currmovenumber 1", info));
+        Assert.assertEquals(12, info.depth);
+    }
+
+    @Test
+    public void infoListenerTest() throws Exception {
+        try (UciClient client = new UciClient(localEngine())) {
+            List<EngineInfo> infos = new ArrayList<>();
+            // Direct executor, so everything is delivered before the bestmove completes
+            client.addInfoListener(infos::add, Runnable::run, 60_000);
+
+            client.go("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", "depth 3")
+                    .get(10, TimeUnit.SECONDS);
+            // The first info, then the held back final one
+            Assert.assertEquals(2, infos.size());
+            Assert.assertEquals(1, infos.get(0).depth);
+            Assert.assertEquals(3, infos.get(1).depth);
+            Assert.assertFalse(infos.get(1).pvMoves().isEmpty());
+        }
+    }
+
+    @Test
+    public void trailingInfoTest() throws Exception {
+        List<EngineInfo> infos = new CopyOnWriteArrayList<>();
+        InfoSubscription subscription = new InfoSubscription(infos::add, Runnable::run, 100);
+        EngineInfo info = new EngineInfo();
+
+        EngineInfo.parse("info depth 1 score cp 10 pv e2e4", info);
+        subscription.offer(info, false);
+        EngineInfo.parse("info depth 2 score cp 20 pv e2e4 e7e5", info);
+        subscription.offer(info, false);
+        Assert.assertEquals(1, infos.size());
+
+        // The engine sends nothing more, the held back info still arrives after the interval
+        long deadline = System.currentTimeMillis() + 5000;
+        while (infos.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(2, infos.size());
+        Assert.assertEquals(2, infos.get(1).depth);
+        Assert.assertEquals(List.of("e2e4", "e7e5"), infos.get(1).pvMoves());
+    }
+
+    @Test
+    public void poolTest() throws Exception {
+        try (EnginePool pool = new EnginePool(localEngine(), 2, 1, 16)) {
+            // More requests than engines, the rest wait for a free one
+            List<CompletableFuture<UciClient.BestMove>> results = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                results.add(pool.search(null, "7k/8/8/8/8/8/6q1/K7 w - - 0 1", "depth 2", 0));
+            }
+            for (CompletableFuture<UciClient.BestMove> result : results) {
+                Assert.assertEquals("a1b1", result.get(20, TimeUnit.SECONDS).move);
+            }
+
+            // The engine is stopped when the time is up and still answers
+            UciClient.BestMove best = pool.search("game", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                    "infinite", 300).get(10, TimeUnit.SECONDS);
+            Assert.assertNotNull(best.move);
+            Assert.assertEquals(2, pool.size());
+        }
+    }
+
+    // A shell script engine that exits on its first search, or right after it is ready if idle is set
+    // Every start adds a line to the log
+    private static List<String> crashingEngine(Path dir, boolean idle) throws Exception {
+        Path script = dir.resolve("engine.sh");
+        Files.writeString(script, String.join("\n",
+                "echo start >> \"$1/log\"",
+                "while read line; do",
+                "  case \"$line\" in",
+                "    uci) echo uciok ;;",
+                "    isready) echo readyok",
+                "      if [ \"$2\" = idle ] && [ ! -e \"$1/crashed\" ]; then touch \"$1/crashed\"; exit 1; fi ;;",
+                "    go*) if [ ! -e \"$1/crashed\" ]; then touch \"$1/crashed\"; exit 1; fi",
+                "      echo \"info depth 1 score cp 0 pv a1b1\"; echo \"bestmove a1b1\" ;;",
+                "    quit) exit 0 ;;",
+                "  esac",
+                "done", ""));
+        return List.of("sh", script.toString(), dir.toString(), idle ? "idle" : "search");
+    }
+
+    @Test
+    public void poolCrashTest() throws Exception {
+        // The engine dies under the search, the search is run again on the restarted engine
+        Path dir = Files.createTempDirectory("crash");
+        try (EnginePool pool = new EnginePool(crashingEngine(dir, false), 1, 1, 16)) {
+            UciClient.BestMove best = pool.search(null, "7k/8/8/8/8/8/6q1/K7 w - - 0 1", "depth 1", 0)
+                    .get(10, TimeUnit.SECONDS);
+            Assert.assertEquals("a1b1", best.move);
+            Assert.assertEquals(2, Files.readAllLines(dir.resolve("log")).size());
+        }
+
+        // The engine dies while idle, it is started again without waiting for a search
+        dir = Files.createTempDirectory("crash");
+        try (EnginePool pool = new EnginePool(crashingEngine(dir, true), 1, 1, 16)) {
+            Path log = dir.resolve("log");
+            long deadline = System.currentTimeMillis() + 10_000;
+            while ((!Files.exists(log) || Files.readAllLines(log).size() < 2 || pool.idleCount() == 0)
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            Assert.assertEquals(2, Files.readAllLines(log).size());
+            Assert.assertEquals(1, pool.idleCount());
+            Assert.assertEquals("a1b1", pool.search(null, "7k/8/8/8/8/8/6q1/K7 w - - 0 1", "depth 1", 0)
+                    .get(10, TimeUnit.SECONDS).move);
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void batchTest() throws Exception {
+        Path dir = Files.createTempDirectory("batch");
+        Path input = dir.resolve("positions.epd");
+        Path output = dir.resolve("results.epd");
+        Files.write(input, List.of(
+                "7k/8/8/8/8/8/6q1/K7 w - - id \"forced\";",
+                "",
+                "8/8/8/8/8/8/8/K7 w - - 0 1",
+                "6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR b KQkq - 0 1"));
+
+        SearchLimits limits = new SearchLimits();
+        limits.depth = 2;
+        try (BatchAnalysis.Analyser analyser = BatchAnalysis.inProcess(2, limits)) {
+            Assert.assertEquals(4, new BatchAnalysis(analyser, 2).run(input, output));
+            List<String> lines = Files.readAllLines(output);
+            Assert.assertEquals(4, lines.size());
+            Assert.assertTrue(lines.get(0).startsWith("7k/8/8/8/8/8/6q1/K7 w - - bm a1b1;"));
+            Assert.assertTrue(lines.get(1).endsWith("c0 \"invalid position\";"));
+            Assert.assertTrue(lines.get(2).contains("bm a1a8; dm 1;"));
+            Assert.assertFalse(Files.exists(dir.resolve("results.epd.checkpoint")));
+
+            // Crash after the first two input lines, with half of the next result written
+            String first = lines.get(0) + "\n";
+            Files.writeString(output, first + "8/8/8/8/8/8/8/K7 w - -");
+            Files.writeString(dir.resolve("results.epd.checkpoint"), "2 " + first.length());
+            Assert.assertEquals(3, new BatchAnalysis(analyser, 2).run(input, output));
+            Assert.assertEquals(lines, Files.readAllLines(output));
+        }
+
+        // An analyser that throws instead of returning a future still gets every line finished
+        BatchAnalysis.Analyser rejecting = new BatchAnalysis.Analyser() {
+            @Override
+            public CompletableFuture<BatchAnalysis.Result> analyse(String fen) {
+                throw new RejectedExecutionException();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Assert.assertEquals(4, new BatchAnalysis(rejecting, 1).run(input, output));
+        Assert.assertTrue(Files.readAllLines(output).get(0).endsWith("c0 \"RejectedExecutionException\";"));
+    }
+
+    @Test
+    public void cacheTest() throws Exception {
+        Path file = Files.createTempDirectory("cache").resolve("engine.cache");
+        String fen = "7k/8/8/8/8/8/6q1/K7 w - - 0 1";
+        int[] searches = new int[1];
+
+        try (UciClient client = new UciClient(localEngine())) {
+            BiFunction<String, String, CompletableFuture<UciClient.BestMove>> engine = (position, limits) -> {
+                searches[0]++;
+                return client.go(position, limits);
+            };
+
+            try (EngineCache cache = new EngineCache(file, 1)) {
+                Assert.assertEquals("a1b1", cache.search(fen, "depth 3", engine).get(10, TimeUnit.SECONDS).move);
+                // A shallower search is answered by the deeper one
+                UciClient.BestMove best = cache.search(fen, "depth  2", engine).get(10, TimeUnit.SECONDS);
+                Assert.assertEquals("a1b1", best.move);
+                Assert.assertEquals(3, best.info.depth);
+                Assert.assertEquals(1, searches[0]);
+
+                // Pushes the first position out of the memory tier, it is read from the file
+                cache.search("7k/8/8/8/8/8/8/K5Q1 w - - 0 1", "depth 1", engine).get(10, TimeUnit.SECONDS);
+                cache.search(fen, "depth 3", engine).get(10, TimeUnit.SECONDS);
+                Assert.assertEquals(2, searches[0]);
+                Assert.assertEquals(2, cache.size());
+            }
+
+            // The results survive reopening, different limits still need a search
+            try (EngineCache cache = new EngineCache(file, 16)) {
+                Assert.assertEquals(2, cache.size());
+                Assert.assertEquals("a1b1", cache.search(fen, "depth 3", engine).get(10, TimeUnit.SECONDS).move);
+                Assert.assertEquals(2, searches[0]);
+                cache.search(fen, "depth 4", engine).get(10, TimeUnit.SECONDS);
+                Assert.assertEquals(3, searches[0]);
+            }
+        }
+    }
+}
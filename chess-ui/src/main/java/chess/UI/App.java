@@ -1,8 +1,8 @@
-package chess;
+package chess.UI;
 
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
-import javafx.embed.swing.SwingFXUtils;
+import javafx.application.Platform;
 import javafx.event.EventHandler;
 import javafx.scene.Group;
 import javafx.scene.Scene;
@@ -13,20 +13,20 @@ import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
+import javafx.stage.Screen;
 import javafx.stage.Stage;
 
-import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
-import javax.imageio.ImageIO;
-
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
 
+import chess.Vector;
+import chess.Engine.Stockfish;
 import chess.Logic.ChessBoard;
 import chess.Logic.ChessPiece;
 import chess.Logic.MoveGeneration;
@@ -59,15 +59,14 @@ public class App extends Application {
     }
 
     @Override
-    public void start(Stage stage) throws IOException, InterruptedException {
+    public void start(Stage stage) throws IOException {
         stage.setResizable(false);
         stage.setTitle(title);
 
         loadIcon(stage);
-        loadPieceTextures();
-        loadSounds();
 
-        Group group = new Group(mainCanvas);
+        drawBoardImage();
+        Group group = new Group(boardCanvas, pieceCanvas, overlayCanvas);
         Scene scene = new Scene(group, WIDTH, HEIGHT);
         stage.setScene(scene);
         stage.sizeToScene();
@@ -79,55 +78,74 @@ public class App extends Application {
         board.setPosition(startingPos);
 
         stockfish = new Stockfish(board);
+        // Live evaluation in the title, a few updates per second are enough
+        stockfish.addInfoListener(info -> {
+            if (info.hasScore) {
+                stage.setTitle(String.format("%s - engine %s, depth %d", title,
+                        info.mate ? "#" + info.score : String.format("%+.2f", info.score / 100.0), info.depth));
+            }
+        }, Platform::runLater, 250);
 
         int coinFlip = new Random().nextInt(2);
         playerColor = coinFlip == 0 ? ChessPiece.Color.WHITE : ChessPiece.Color.BLACK;
         flipTheBoard = coinFlip == 1;
 
         if (playerColor != ChessPiece.Color.WHITE) {
-            while (!stockfish.isReady()) { Thread.sleep(10); }
-            stockfish.feedPosition();
+            requestEngineMove();
         }
 
         // Events
         scene.addEventHandler(MouseEvent.MOUSE_MOVED, mousePosHandler);
         scene.addEventHandler(MouseEvent.MOUSE_DRAGGED, mousePosHandler);
         scene.addEventHandler(KeyEvent.KEY_PRESSED, keyHandler);
-        mainCanvas.addEventFilter(MouseEvent.MOUSE_PRESSED, mouseHandler);
-        mainCanvas.addEventFilter(MouseEvent.MOUSE_RELEASED, mouseHandler);
-        // Main loop
-        new AnimationTimer() {
-            public void handle(long currentTime) {
-                mainLoop();
-            }
-        }.start();
+        overlayCanvas.addEventFilter(MouseEvent.MOUSE_PRESSED, mouseHandler);
+        overlayCanvas.addEventFilter(MouseEvent.MOUSE_RELEASED, mouseHandler);
 
+        invalidate();
         stage.show();
+        // The board is shown right away, the pieces follow once their textures are loaded
+        loadPieceTextures();
+        loadSounds();
     }
 
-    private void mainLoop() {
-        GraphicsContext context = mainCanvas.getGraphicsContext2D();
-        context.clearRect(0, 0, WIDTH, HEIGHT);
-
-        if (engineIsActive && board.getCurrentColor() != playerColor) {
-            try {
-                if (stockfish.isReady()) {
-                    Move stockfishMove = stockfish.getBestMove();
+    // Draws the layers marked dirty on the next pulse, then stops until something changes
+    private final AnimationTimer renderer = new AnimationTimer() {
+        public void handle(long currentTime) {
+            render();
+            stop();
+        }
+    };
 
-                    if (stockfishMove != null) {
-                        selectedPiece = stockfishMove.piece;
-                        movePiece(stockfishMove.to);
-                    }
-                }
-            } catch (IOException e) {
-                engineIsActive = false;
+    private void render() {
+        if (boardDirty) {
+            drawBackground(boardCanvas.getGraphicsContext2D());
+        }
+        if (piecesDirty) {
+            GraphicsContext context = pieceCanvas.getGraphicsContext2D();
+            context.clearRect(0, 0, WIDTH, HEIGHT);
+            drawPieces(context);
+        }
+        if (overlayDirty) {
+            GraphicsContext context = overlayCanvas.getGraphicsContext2D();
+            context.clearRect(0, 0, WIDTH, HEIGHT);
+            if (selectedPiece != null) {
+                drawPieceMoves(context, selectedPiece);
+                drawDraggedPiece(context);
             }
         }
+        boardDirty = piecesDirty = overlayDirty = false;
+    }
+
+    // After a move, a new selection or a flip of the board
+    private void invalidate() {
+        boardDirty = piecesDirty = overlayDirty = true;
+        renderer.start();
+    }
 
-        drawBackground(context);
-        drawPieces(context);
-        if (selectedPiece != null)
-            drawPieceMoves(context, selectedPiece);
+    // Dragging only moves the piece on the overlay
+    private void invalidateOverlay() {
+        overlayDirty = true;
+        renderer.start();
     }
 
     private final EventHandler<MouseEvent> mouseHandler = new EventHandler<>() {
@@ -135,6 +153,7 @@ public class App extends Application {
         public void handle(MouseEvent ev) {
             // Coord of a click on a board
             Vector destCoord = screenToBoardCoord(mousePos);
+            invalidate();
 
             if (ev.getEventType().equals(MouseEvent.MOUSE_PRESSED) && ev.getButton().equals(MouseButton.PRIMARY)) {
                 if (engineIsActive && board.getCurrentColor() != playerColor) {
@@ -179,6 +198,9 @@ public class App extends Application {
         @Override
         public void handle(MouseEvent ev) {
             mousePos = new Vector((int) ev.getX(), (int) ev.getY());
+            if (mouseHold && selectedPiece != null) {
+                invalidateOverlay();
+            }
         }
     };
 
@@ -189,12 +211,14 @@ public class App extends Application {
                 switch (ev.getCode()) {
                     case F:
                         flipTheBoard ^= true;
+                        invalidate();
                         break;
                     case LEFT:
                         moveGenerator.undoMove();
                         if (board.getCurrentColor() != playerColor) {
                             moveGenerator.undoMove();
                         }
+                        invalidate();
                     default:
                         break;
                 }
@@ -202,13 +226,21 @@ public class App extends Application {
         }
     };
 
-    private void drawBackground(GraphicsContext context) {
+    // The squares never change, flipping the board keeps their colors
+    private void drawBoardImage() {
+        Canvas canvas = new Canvas(WIDTH, HEIGHT);
+        GraphicsContext context = canvas.getGraphicsContext2D();
         for (int y = 0; y < 8; y++) {
             for (int x = 0; x < 8; x++) {
                 context.setFill((x + y) % 2 == 0 ? blackColor : whiteColor);
                 context.fillRect(squareWidth * x, HEIGHT - squareHeight * (y + 1), squareWidth, squareHeight);
             }
         }
+        boardImage = canvas.snapshot(null, null);
+    }
+
+    private void drawBackground(GraphicsContext context) {
+        context.drawImage(boardImage, 0, 0);
 
         if (selectedPiece != null) {
             context.setFill(selectedColor);
@@ -239,21 +271,16 @@ public class App extends Application {
     }
 
     private void drawPieces(GraphicsContext context) {
+        if (pieceTextures == null) {
+            return;
+        }
         for (ChessPiece piece : board) {
             Integer index = getPieceTextureIndex(piece.getName(), piece.color());
             double paddingX = squareWidth * squarePadding;
             double paddingY = squareHeight * squarePadding;
-            // Compare by address
-            if (piece == selectedPiece) {
-                // Draw dragged piece under the cursor
-                if (mouseHold) {
-                    context.drawImage(
-                            pieceTextures[index],
-                            mousePos.x - (float)squareWidth / 2, mousePos.y - (float)squareHeight / 2,
-                            squareWidth, squareHeight);
-
-                    continue;
-                }
+            // Compare by address, the dragged piece is drawn on the overlay
+            if (piece == selectedPiece && mouseHold) {
+                continue;
             }
             if (flipTheBoard) {
                 context.drawImage(
@@ -269,20 +296,35 @@ public class App extends Application {
         }
     }
 
+    // Draw dragged piece under the cursor
+    private void drawDraggedPiece(GraphicsContext context) {
+        if (!mouseHold || mousePos == null || pieceTextures == null) {
+            return;
+        }
+        context.drawImage(
+                pieceTextures[getPieceTextureIndex(selectedPiece.getName(), selectedPiece.color())],
+                mousePos.x - (float)squareWidth / 2, mousePos.y - (float)squareHeight / 2,
+                squareWidth, squareHeight);
+    }
+
     private void drawPieceMoves(GraphicsContext context, ChessPiece piece) {
         context.setStroke(Color.rgb(255, 255, 255, 0.8));
         final double radX = (double)squareWidth / 3;
         final double radY = (double)squareHeight / 3;
 
-        for (Move move : moveGenerator.getPieceMoves(piece)) {
+        // Read from the move generator's cache of the position
+        long targets = moveGenerator.legalTargets(piece.pos().y * 8 + piece.pos().x);
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int toX = to % 8, toY = to / 8;
             context.setLineWidth(5);
 
             if (flipTheBoard) {
-                context.strokeOval(WIDTH - (move.to.x + 0.5) * squareWidth - radX / 2,
-                        (move.to.y + 0.5) * squareHeight - radY / 2, radX, radY);
+                context.strokeOval(WIDTH - (toX + 0.5) * squareWidth - radX / 2,
+                        (toY + 0.5) * squareHeight - radY / 2, radX, radY);
             } else {
-                context.strokeOval((move.to.x + 0.5) * squareWidth - radX / 2,
-                        HEIGHT - (move.to.y + 0.5) * squareHeight - radY / 2, radX, radY);
+                context.strokeOval((toX + 0.5) * squareWidth - radX / 2,
+                        HEIGHT - (toY + 0.5) * squareHeight - radY / 2, radX, radY);
             }
         }
     }
@@ -293,15 +335,12 @@ public class App extends Application {
         prevTo = to;
 
         if (moveGenerator.makeAMove(new Move(selectedPiece, prevFrom, to))) {
+            invalidate();
             playSound(whatToPlay(board.peekLastMove()), board.getCurrentColor());
             selectedPiece = null;
 
             if (engineIsActive && board.getCurrentColor() != playerColor) {
-                try {
-                    stockfish.feedPosition();
-                } catch (IOException e) {
-                    engineIsActive = false;
-                }
+                requestEngineMove();
             }
             return true;
         } else {
@@ -311,6 +350,25 @@ public class App extends Application {
         }
     }
 
+    // The engine answers on its reader thread, the move is played on the FX thread
+    private void requestEngineMove() {
+        long positionKey = board.positionKey();
+        stockfish.requestMove().whenComplete((move, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                engineIsActive = false;
+                return;
+            }
+            // The position could have been taken back while the engine was thinking
+            if (move == null || board.positionKey() != positionKey) {
+                return;
+            }
+            selectedPiece = move.piece;
+            movePiece(move.to);
+            // Think on the expected reply while the player is thinking
+            stockfish.startPondering();
+        }));
+    }
+
     // Determines what sound to play after the last move
     private Sound whatToPlay(Move move) {
         if (board.gameResult != GameResult.NONE) {
@@ -347,70 +405,53 @@ public class App extends Application {
             index = 8;
         }
 
-        MediaPlayer player = new MediaPlayer(sounds[index]);
-        player.play();
+        // Silent until the sounds are loaded
+        if (sounds != null) {
+            sounds.play(index);
+        }
     }
 
     private void loadIcon(Stage stage) {
-        String iconPath = currentPath + resourcePath + "\\icon.png";
-        if (!(new File(iconPath).exists()))
+        InputStream icon = App.class.getResourceAsStream("/icon.png");
+        if (icon == null)
             return;
 
-        Image icon = new Image(new File(iconPath).toURI().toString());
-        stage.getIcons().add(icon);
+        stage.getIcons().add(new Image(icon));
     }
 
-    private final List<String> textureFilenames = Arrays.asList(
-            "wK.svg", "wQ.svg", "wR.svg",
-            "wN.svg", "wB.svg", "wP.svg",
-            "bK.svg", "bQ.svg", "bR.svg",
-            "bN.svg", "bB.svg", "bP.svg");
-
+    // Rasterized at the size of a square for the screen's scale
     private void loadPieceTextures() {
-        pieceTextures = new Image[12];
+        int size = (int) Math.ceil(squareWidth * Screen.getPrimary().getOutputScaleX());
+        Path cacheDir = Paths.get(System.getProperty("user.home"), ".cache", "chess", "textures");
 
-        String texturePath = currentPath + resourcePath + "\\Chess Pieces\\";
-
-        for (int i = 0; i < textureFilenames.size(); i++) {
-            if (!(new File(texturePath + textureFilenames.get(i))).exists()) {
-                throw new RuntimeException("Texture file not found!");
-            }
-
-            BufferedImage bImg;
-            try {
-                bImg = ImageIO.read(new File(texturePath + textureFilenames.get(i)));
-            } catch (IOException ioEx) {
-                System.out.println(ioEx.getMessage());
+        new PieceTextures(cacheDir).load(size).whenComplete((textures, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.out.println(error.getMessage());
                 System.exit(1);
-
-                // To make compiler happy)
-                return;
             }
-            pieceTextures[i] = SwingFXUtils.toFXImage(bImg, null);
-        }
+            pieceTextures = textures;
+            invalidate();
+        }));
     }
 
-    private Media[] sounds;
+    private SoundPool sounds;
     private final List<String> soundFilenames = Arrays.asList(
-            "Move-W.wav", "Move-B.wav",
-            "Capture-W.wav", "Capture-B.wav",
-            "Castles-W.wav", "Castles-B.wav",
-            "Check-W.wav", "Check-B.wav",
-            "EndGame.wav");
+            "/Sounds/Move-W.wav", "/Sounds/Move-B.wav",
+            "/Sounds/Capture-W.wav", "/Sounds/Capture-B.wav",
+            "/Sounds/Castles-W.wav", "/Sounds/Castles-B.wav",
+            "/Sounds/Check-W.wav", "/Sounds/Check-B.wav",
+            "/Sounds/EndGame.wav");
+    // The player's move and a quick reply of the engine may overlap
+    private final int soundVoices = 2;
 
     private void loadSounds() {
-        sounds = new Media[10];
-
-        String soundPath = currentPath + resourcePath + "\\Sounds\\";
-
-        for (int i = 0; i < soundFilenames.size(); i++) {
-            if (!(new File(soundPath + soundFilenames.get(i))).exists()) {
-                throw new RuntimeException("Sound file not found!");
+        SoundPool.load(soundFilenames, soundVoices).whenComplete((pool, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.out.println(error.getMessage());
+                return;
             }
-
-            sounds[i] = new Media(new File(soundPath + soundFilenames.get(i)).toURI().toString());
-        }
-
+            sounds = pool;
+        }));
     }
 
     private Vector screenToBoardCoord(Vector screenCoord) {
@@ -424,7 +465,7 @@ public class App extends Application {
     }
 
     private Integer getPieceTextureIndex(ChessPiece.Name name, ChessPiece.Color color) {
-        return name.ordinal() + (color == ChessPiece.Color.BLACK ? (pieceTextures.length / 2) : 0);
+        return name.ordinal() + (color == ChessPiece.Color.BLACK ? (PieceTextures.filenames.size() / 2) : 0);
     }
 
     private Image[] pieceTextures;
@@ -438,10 +479,12 @@ public class App extends Application {
     private boolean mouseHold;
     private Vector mousePos;
 
-    private final Canvas mainCanvas = new Canvas(WIDTH, HEIGHT);
+    // Layers from the bottom: squares and highlights, pieces, dragged piece and move hints
+    private final Canvas boardCanvas = new Canvas(WIDTH, HEIGHT);
+    private final Canvas pieceCanvas = new Canvas(WIDTH, HEIGHT);
+    private final Canvas overlayCanvas = new Canvas(WIDTH, HEIGHT);
+    private Image boardImage;
+    private boolean boardDirty, piecesDirty, overlayDirty;
     private final int squareWidth = WIDTH / 8;
     private final int squareHeight = HEIGHT / 8;
-
-    private final String currentPath = System.getProperty("user.dir");
-    private final String resourcePath = "\\Resources";
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package chess.UI;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+// Piece images rasterized at the size they are drawn
+// Rasterizing an SVG takes much longer than reading a PNG, so the images are kept in a cache
+// directory, named by piece, size and a hash of the SVG. A new size or a changed SVG gets
+// a file of its own, so the cache never has to be invalidated.
+class PieceTextures {
+    // In the order of ChessPiece.Name, white first
+    static final List<String> filenames = Arrays.asList(
+            "wK.svg", "wQ.svg", "wR.svg",
+            "wN.svg", "wB.svg", "wP.svg",
+            "bK.svg", "bQ.svg", "bR.svg",
+            "bN.svg", "bB.svg", "bP.svg");
+
+    private final Path cacheDir;
+
+    PieceTextures(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    // Loads every texture on a pool thread of its own, size is in pixels
+    CompletableFuture<Image[]> load(int size) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Image>[] textures = new CompletableFuture[filenames.size()];
+        for (int i = 0; i < textures.length; i++) {
+            String filename = filenames.get(i);
+            textures[i] = CompletableFuture.supplyAsync(() -> load(filename, size));
+        }
+        return CompletableFuture.allOf(textures)
+                .thenApply(done -> Arrays.stream(textures).map(CompletableFuture::join).toArray(Image[]::new));
+    }
+
+    private Image load(String filename, int size) {
+        byte[] svg = readResource("/Chess Pieces/" + filename);
+        CRC32 crc = new CRC32();
+        crc.update(svg);
+        Path png = cacheDir.resolve(String.format("%s-%d-%08x.png",
+                filename.substring(0, filename.indexOf('.')), size, crc.getValue()));
+
+        if (Files.isRegularFile(png)) {
+            Image image = new Image(png.toUri().toString());
+            if (!image.isError()) {
+                return image;
+            }
+        }
+
+        BufferedImage raster = rasterize(svg, size);
+        try {
+            store(raster, png);
+        } catch (IOException e) {
+            // The cache only saves time, the texture is still there
+        }
+        return SwingFXUtils.toFXImage(raster, null);
+    }
+
+    private static BufferedImage rasterize(byte[] svg, int size) {
+        Iterator<ImageReader> readers = ImageIO.getImageReadersBySuffix("svg");
+        if (!readers.hasNext()) {
+            throw new IllegalStateException("No SVG reader found");
+        }
+        ImageReader reader = readers.next();
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(svg))) {
+            reader.setInput(in);
+            ImageReadParam param = reader.getDefaultReadParam();
+            if (param.canSetSourceRenderSize()) {
+                param.setSourceRenderSize(new Dimension(size, size));
+            }
+            return reader.read(0, param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    // Written to a temporary file first, other instances may read the cache at the same time
+    private void store(BufferedImage raster, Path png) throws IOException {
+        Files.createDirectories(cacheDir);
+        Path temp = Files.createTempFile(cacheDir, "texture", ".tmp");
+        try {
+            ImageIO.write(raster, "png", temp.toFile());
+            Files.move(temp, png, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static byte[] readResource(String name) {
+        try (InputStream in = App.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Resource not found: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package chess.UI;
+
+import javafx.scene.media.AudioClip;
+
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Sounds decoded once into AudioClips, which play from memory without starting a player
+// At most a few sounds play at the same time, a new one stops the oldest, so quick moves
+// do not pile up voices
+class SoundPool {
+    private final AudioClip[] clips;
+    // Clips playing, oldest at nextVoice
+    private final AudioClip[] voices;
+    private int nextVoice;
+
+    private SoundPool(AudioClip[] clips, int voices) {
+        this.clips = clips;
+        this.voices = new AudioClip[voices];
+    }
+
+    // Decodes the sounds from the classpath on a pool thread
+    static CompletableFuture<SoundPool> load(List<String> resources, int voices) {
+        return CompletableFuture.supplyAsync(() -> {
+            AudioClip[] clips = new AudioClip[resources.size()];
+            for (int i = 0; i < clips.length; i++) {
+                URL url = App.class.getResource(resources.get(i));
+                if (url == null) {
+                    throw new IllegalStateException("Resource not found: " + resources.get(i));
+                }
+                clips[i] = new AudioClip(url.toExternalForm());
+            }
+            return new SoundPool(clips, voices);
+        });
+    }
+
+    void play(int index) {
+        AudioClip clip = clips[index];
+        AudioClip oldest = voices[nextVoice];
+        if (oldest != null && oldest.isPlaying()) {
+            oldest.stop();
+        }
+        voices[nextVoice] = clip;
+        nextVoice = (nextVoice + 1) % voices.length;
+        clip.play();
+    }
+}
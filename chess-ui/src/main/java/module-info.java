@@ -1,4 +1,7 @@
-module chess {
+module chess.ui {
+    requires chess.core;
+    requires chess.engine;
+
     requires javafx.controls;
     requires javafx.fxml;
     requires javafx.graphics;
@@ -7,9 +10,8 @@ module chess {
 
     requires java.desktop;
 
-    requires org.apache.commons.lang3;
     requires org.apache.commons.collections4;
     requires jdk.xml.dom;
 
-    exports chess;
-}
\ No newline at end of file
+    exports chess.UI;
+}